@@ -1,6 +1,7 @@
 package com.example.demo.audit.controller;
 
 import com.example.demo.audit.dto.AuditLogDto;
+import com.example.demo.audit.dto.CursorPage;
 import com.example.demo.audit.dto.QueryAuditLogDto;
 import com.example.demo.audit.service.AuditService;
 import com.example.demo.controller.BaseController;
@@ -12,6 +13,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -41,4 +43,25 @@ public class AuditController extends BaseController {
         Page<AuditLogDto> auditLogs = auditService.getAll(queryAuditLogDto, pageable);
         return buildSuccessResponse(HttpStatus.OK, "Audit logs retrieved successfully.", auditLogs);
     }
+
+    /**
+     * Retrieves a slice of audit logs, newest first, continuing after a cursor.
+     * Prefer this over {@link #search} for deep browsing: its latency does not grow with depth,
+     * and it skips the count query unless {@code includeTotal} is set.
+     *
+     * @param queryAuditLogDto A DTO containing fields to filter the search.
+     * @param cursor           The {@code nextCursor} of the previous slice; omitted for the first slice.
+     * @param size             The maximum number of audit logs to return, from 1 to 100.
+     * @param includeTotal     Whether to count all matching audit logs.
+     * @return A {@link ResponseEntity} containing a {@link CursorPage} of {@link AuditLogDto}.
+     */
+    @GetMapping("/search/cursor")
+    @PreAuthorize("hasRole('ADMIN') or hasAuthority('READ_AUDIT_LOGS')")
+    public ResponseEntity<?> searchByCursor(QueryAuditLogDto queryAuditLogDto,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<AuditLogDto> auditLogs = auditService.scroll(queryAuditLogDto, cursor, size, includeTotal);
+        return buildSuccessResponse(HttpStatus.OK, "Audit logs retrieved successfully.", auditLogs);
+    }
 }
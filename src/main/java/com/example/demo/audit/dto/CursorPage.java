@@ -0,0 +1,79 @@
+package com.example.demo.audit.dto;
+
+import java.util.List;
+
+/**
+ * A slice of search results addressed by a cursor instead of a page number.
+ * <p>
+ * The next slice is requested with {@link #getNextCursor()}, which marks where this slice ended. Unlike a page
+ * number, a cursor does not make the database skip the preceding rows, so every slice costs the same however deep
+ * it is, and rows inserted meanwhile do not shift the results.
+ * </p>
+ *
+ * @param <T> The type of the results.
+ */
+public class CursorPage<T> {
+
+    /**
+     * The results of this slice.
+     */
+    private List<T> content;
+
+    /**
+     * The opaque cursor of the next slice, or {@code null} if this is the last one.
+     */
+    private String nextCursor;
+
+    /**
+     * The requested maximum number of results.
+     */
+    private int size;
+
+    /**
+     * The total number of matching results, or {@code null} unless it was requested.
+     */
+    private Long totalElements;
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> content, String nextCursor, int size, Long totalElements) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.size = size;
+        this.totalElements = totalElements;
+    }
+
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+}
@@ -9,13 +9,22 @@ import java.time.LocalDateTime;
  * Represents an audit log entry, tracking significant user-related actions.
  */
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+        @Index(name = "idx_audit_logs_date_created_id", columnList = "date_created, id")
+})
 public class AuditLog {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * The unique ID of the event, used to store an event written more than once only once.
+     * The unique key is declared in the DDL, as it must include {@code date_created} when the table is partitioned.
+     */
+    @Column(name = "event_id", length = 36, updatable = false)
+    private String eventId;
+
     /**
      * The timestamp of the event. Automatically set on creation.
      */
@@ -66,6 +75,14 @@ public class AuditLog {
         this.id = id;
     }
 
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
     public LocalDateTime getDateCreated() {
         return dateCreated;
     }
@@ -2,9 +2,13 @@ package com.example.demo.audit.event;
 
 import com.example.demo.audit.service.AuditService;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
+/**
+ * Hands audit events to the {@link AuditService}.
+ * The events are handled on the publishing thread: the service only queues them for the audit write pipeline,
+ * which is cheaper than a hop to another thread.
+ */
 @Component
 public class AuditEventHandler {
 
@@ -15,13 +19,11 @@ public class AuditEventHandler {
     }
 
     @EventListener
-    @Async
     public void handleAuditLogEvent(AuditLogEvent event) {
         this.auditService.logEvent(event.getUsername(), event.getIpAddress(), event.getEventType(), event.getDetails());
     }
 
     @EventListener
-    @Async
     public void handleBatchAuditLogEvent(BatchAuditLogEvent event) {
         this.auditService.logEvents(event.getUsername(), event.getIpAddress(), event.getEventType(), event.getDetailsList());
     }
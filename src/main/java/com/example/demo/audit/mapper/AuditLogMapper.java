@@ -3,6 +3,7 @@ package com.example.demo.audit.mapper;
 import com.example.demo.audit.dto.AuditLogDto;
 import com.example.demo.audit.entity.AuditLog;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
@@ -27,9 +28,11 @@ public interface AuditLogMapper {
 
     /**
      * Converts an AuditLogDto to an AuditLog entity.
+     * The event ID is internal to the write pipeline and not part of the DTO.
      *
      * @param auditLogDto The AuditLogDto.
      * @return The corresponding AuditLog entity.
      */
+    @Mapping(target = "eventId", ignore = true)
     AuditLog toEntity(AuditLogDto auditLogDto);
 }
@@ -0,0 +1,328 @@
+package com.example.demo.audit.pipeline;
+
+import com.example.demo.audit.repository.AuditLogBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write path for audit log entries: a bounded queue filled by any number of threads and drained by a single writer.
+ * The writer flushes an entry batch once it holds {@code batch-size} entries or its oldest entry has waited
+ * {@code flush-interval-ms}, whichever comes first, so the database sees one multi-row insert per batch instead of
+ * one transaction per event.
+ * <p>
+ * When the queue is full, or a batch cannot be written, entries go to the {@link AuditSpillLog} on local disk,
+ * from which {@link #replaySpilled()} later stores them; producers never wait for the database. Only when the spill
+ * log is disabled or fails does the configured {@link AuditOverflowPolicy} decide which entry is lost; every loss
+ * is counted.
+ * <p>
+ * A failure the database may recover from, such as a lost connection, leaves the batch to be retried from the spill
+ * log. An entry the database rejects for good, such as one violating a column constraint, would fail on every
+ * retry; the batch is split until that entry is isolated, and it is quarantined in the spill log's dead-letter
+ * segments so the entries around it are still stored.
+ */
+@Component
+public class AuditLogPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogPipeline.class);
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private final AuditLogBatchRepository auditLogBatchRepository;
+    private final AuditSpillLog auditSpillLog;
+    private final BlockingQueue<AuditRecord> queue;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long blockTimeoutMillis;
+    private final int sampleRate;
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final Thread writer;
+
+    private final Timer flushDuration;
+    private final DistributionSummary flushSize;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Counter spilled;
+    private final Counter replayed;
+    private final Counter quarantined;
+
+    private volatile boolean running = true;
+
+    public AuditLogPipeline(AuditLogBatchRepository auditLogBatchRepository,
+                            AuditSpillLog auditSpillLog,
+                            MeterRegistry meterRegistry,
+                            @Value("${audit.pipeline.capacity:10000}") int capacity,
+                            @Value("${audit.pipeline.batch-size:500}") int batchSize,
+                            @Value("${audit.pipeline.flush-interval-ms:200}") long flushIntervalMillis,
+                            @Value("${audit.pipeline.overflow-policy:DROP_OLDEST}") AuditOverflowPolicy overflowPolicy,
+                            @Value("${audit.pipeline.block-timeout-ms:100}") long blockTimeoutMillis,
+                            @Value("${audit.pipeline.sample-rate:10}") int sampleRate) {
+        this.auditLogBatchRepository = auditLogBatchRepository;
+        this.auditSpillLog = auditSpillLog;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.writer = new Thread(this::run, "audit-writer");
+        this.writer.setDaemon(true);
+
+        this.flushDuration = Timer.builder("audit.pipeline.flush.duration").register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("audit.pipeline.flush.size").register(meterRegistry);
+        this.written = Counter.builder("audit.pipeline.written").register(meterRegistry);
+        this.dropped = Counter.builder("audit.pipeline.dropped")
+                .tag("policy", overflowPolicy.name().toLowerCase())
+                .register(meterRegistry);
+        this.failed = Counter.builder("audit.pipeline.failed").register(meterRegistry);
+        this.spilled = Counter.builder("audit.pipeline.spilled").register(meterRegistry);
+        this.replayed = Counter.builder("audit.pipeline.replayed").register(meterRegistry);
+        this.quarantined = Counter.builder("audit.pipeline.quarantined").register(meterRegistry);
+        Gauge.builder("audit.pipeline.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Stops accepting work into the queue and waits for the writer to flush what is already queued.
+     * Called by Spring when the context closes, before the data source is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            writer.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<AuditRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    /**
+     * Queues an entry for writing. Never throws and never writes to the database on the caller's thread;
+     * an entry that cannot be queued or spilled is counted as dropped.
+     *
+     * @param record The entry to write.
+     */
+    public void submit(AuditRecord record) {
+        if (!running) {
+            // The writer is stopping: keep the entry for the replay after the next start.
+            if (auditSpillLog.append(record)) {
+                spilled.increment();
+            } else {
+                dropped.increment();
+            }
+            return;
+        }
+        if (queue.offer(record)) {
+            return;
+        }
+        if (auditSpillLog.append(record)) {
+            spilled.increment();
+            return;
+        }
+        switch (overflowPolicy) {
+            case BLOCK -> offerWithTimeout(record);
+            case DROP_OLDEST -> evictOldestAndOffer(record);
+            case SAMPLE -> {
+                if (overflowCount.incrementAndGet() % sampleRate == 0) {
+                    evictOldestAndOffer(record);
+                } else {
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the entries spilled to local disk, oldest segment first, in batches.
+     * A segment is deleted once each of its entries is stored or quarantined; if the database fails midway, the
+     * segment is replayed again on the next call and the entries already stored are skipped by their event ID.
+     *
+     * @return The number of entries replayed.
+     */
+    public int replaySpilled() {
+        int count = 0;
+        for (Path segment : auditSpillLog.sealSegments()) {
+            try {
+                List<AuditRecord> records = auditSpillLog.read(segment);
+                int stored = 0;
+                for (int from = 0; from < records.size(); from += batchSize) {
+                    stored += store(records.subList(from, Math.min(records.size(), from + batchSize)));
+                }
+                auditSpillLog.delete(segment);
+                count += stored;
+            } catch (IOException e) {
+                logger.error("Could not replay audit spill segment {}: {}", segment.getFileName(), e.getMessage(), e);
+                break;
+            } catch (RuntimeException e) {
+                logger.warn("Audit logs could not be replayed yet, retrying later: {}", e.getMessage());
+                break;
+            }
+        }
+        replayed.increment(count);
+        return count;
+    }
+
+    /**
+     * Waits for space in the queue for at most the block timeout, dropping the entry if none frees up.
+     *
+     * @param record The entry to queue.
+     */
+    private void offerWithTimeout(AuditRecord record) {
+        try {
+            if (queue.offer(record, blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.increment();
+    }
+
+    /**
+     * Makes room by dropping the oldest queued entries until the new one fits.
+     *
+     * @param record The entry to queue.
+     */
+    private void evictOldestAndOffer(AuditRecord record) {
+        while (!queue.offer(record)) {
+            if (queue.poll() != null) {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * The writer loop: waits for a first entry, then keeps collecting until the batch is full or the flush
+     * interval since that first entry has passed, and writes the batch.
+     */
+    private void run() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditRecord first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remainingNanos <= 0) {
+                        break;
+                    }
+                    AuditRecord next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // The writer owns this thread: treat an interrupt as a shutdown and drain what is queued.
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch of entries. A batch the database cannot take right now is spilled to local disk; if that fails
+     * as well, it is logged and counted as lost, and the writer moves on.
+     *
+     * @param batch The entries to write.
+     */
+    private void flush(List<AuditRecord> batch) {
+        long startedAt = System.nanoTime();
+        try {
+            int stored = store(batch);
+            written.increment(stored);
+            logger.debug("Flushed {} audit logs.", stored);
+        } catch (RuntimeException e) {
+            if (auditSpillLog.appendAll(batch)) {
+                spilled.increment(batch.size());
+                logger.warn("Spilled {} audit logs to local disk: {}", batch.size(), e.getMessage());
+            } else {
+                failed.increment(batch.size());
+                logger.error("Failed to write {} audit logs: {}", batch.size(), e.getMessage(), e);
+            }
+        } finally {
+            flushDuration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            flushSize.record(batch.size());
+        }
+    }
+
+    /**
+     * Inserts entries, quarantining those the database rejects for good. A rejected batch is split in halves
+     * until each rejected entry is on its own, so one bad entry costs a logarithmic number of extra inserts.
+     *
+     * @param records The entries to insert.
+     * @return The number of entries stored.
+     * @throws RuntimeException If the database failed in a way that may pass, so the entries should be retried.
+     */
+    private int store(List<AuditRecord> records) {
+        try {
+            auditLogBatchRepository.insertAll(records);
+            return records.size();
+        } catch (RuntimeException e) {
+            if (!isPermanent(e)) {
+                throw e;
+            }
+            if (records.size() > 1) {
+                int middle = records.size() / 2;
+                return store(records.subList(0, middle)) + store(records.subList(middle, records.size()));
+            }
+            if (auditSpillLog.quarantine(records)) {
+                quarantined.increment();
+                logger.error("Quarantined audit log {} rejected by the database: {}", records.get(0).eventId(), e.getMessage());
+            } else {
+                failed.increment();
+                logger.error("Failed to write audit log {} rejected by the database: {}", records.get(0).eventId(), e.getMessage(), e);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Tells a failure caused by the entries themselves, which fails again on every retry, from one the database
+     * may recover from.
+     *
+     * @param e The failure of an insert.
+     * @return {@code true} if retrying the same entries is pointless.
+     */
+    private static boolean isPermanent(RuntimeException e) {
+        // Anything but a DataAccessException was thrown while binding the entries, not by the database.
+        return e instanceof DataIntegrityViolationException || !(e instanceof DataAccessException);
+    }
+}
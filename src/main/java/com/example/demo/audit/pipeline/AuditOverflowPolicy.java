@@ -0,0 +1,21 @@
+package com.example.demo.audit.pipeline;
+
+/**
+ * What the {@link AuditLogPipeline} does with a new entry when its queue is full.
+ */
+public enum AuditOverflowPolicy {
+    /**
+     * Waits up to the configured timeout for space, then drops the new entry.
+     * Slows down producers instead of losing entries during short bursts.
+     */
+    BLOCK,
+    /**
+     * Drops the oldest queued entry to make room, so producers never wait.
+     */
+    DROP_OLDEST,
+    /**
+     * Keeps one in every {@code sample-rate} overflowing entries by dropping the oldest queued entry,
+     * and drops the others. Producers never wait, and a long overload still leaves a trace of every kind of event.
+     */
+    SAMPLE
+}
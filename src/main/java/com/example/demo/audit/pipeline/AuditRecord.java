@@ -0,0 +1,20 @@
+package com.example.demo.audit.pipeline;
+
+import java.time.LocalDateTime;
+
+/**
+ * An audit log entry waiting in the {@link AuditLogPipeline} to be written.
+ * It is created on the thread that raised the event, so the timestamp is the time of the event
+ * rather than the time of the write, and the details are already serialized.
+ * The event ID is unique per entry and lets an entry that is written twice, such as one replayed
+ * from the {@link AuditSpillLog}, be stored once.
+ *
+ * @param eventId     The unique ID of the entry.
+ * @param dateCreated The time of the event.
+ * @param username    The username of the actor who performed the action.
+ * @param ipAddress   The IP address of the actor who performed the action.
+ * @param eventType   The name of the event type.
+ * @param details     The serialized JSON details, may be {@code null}.
+ */
+public record AuditRecord(String eventId, LocalDateTime dateCreated, String username, String ipAddress, String eventType, String details) {
+}
@@ -0,0 +1,541 @@
+package com.example.demo.audit.pipeline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log on local disk holding the audit entries the database could not take in time.
+ * <p>
+ * The log is a directory of fixed-size, memory-mapped segment files. Each entry is written as a record of
+ * {@code [length][CRC32][payload]}; a zero length marks the end of the written part of a segment. Writes go to the
+ * page cache through the mapping, so an entry survives a crash of the process as soon as it is appended, and a
+ * batch is forced to disk before {@link #appendAll} returns. A record cut short by a crash fails its checksum and
+ * ends the segment when it is read back.
+ * <p>
+ * Only the active segment is written. {@link #append} runs on request threads, so it never touches the file system:
+ * the next segment is created and mapped ahead of time by the {@code audit-spill} thread, an append that fills the
+ * active segment only swaps in that standby segment, and the full segment is forced to disk by the same thread.
+ * If no standby segment is ready, the append fails instead of waiting for one.
+ * <p>
+ * The replayer seals the active segment, reads sealed segments oldest first and deletes each segment once its
+ * entries are stored, so an entry is replayed at least once; duplicates are discarded by the entry's event ID.
+ * Entries the database rejects for good are moved to the {@value #DEAD_LETTER_DIRECTORY} subdirectory in the same
+ * format, where they wait for an operator instead of blocking the segments after them.
+ * <p>
+ * The segments together never take more than {@code max-bytes} of disk; once that is reached, appends fail until
+ * the replayer has freed a segment, and each rejected entry is counted.
+ */
+@Component
+public class AuditSpillLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSpillLog.class);
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int NULL_LENGTH = -1;
+    private static final String DEAD_LETTER_DIRECTORY = "dead-letter";
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final Path deadLetterDirectory;
+    private final int segmentSize;
+    private final long maxBytes;
+    private final Counter rejected;
+    private final ExecutorService maintenance;
+    private final AtomicLong nextDeadLetterSequence = new AtomicLong(1);
+
+    // Guarded by this; only in-memory work is done while holding the monitor.
+    private long nextSequence;
+    private long firstOpenSequence;
+    private volatile int segmentCount;
+    private boolean full;
+    private boolean preparing;
+    private boolean closed;
+    private Segment active;
+    private Segment standby;
+
+    public AuditSpillLog(MeterRegistry meterRegistry,
+                         @Value("${audit.spill.enabled:true}") boolean enabled,
+                         @Value("${audit.spill.directory:audit-spill}") String directory,
+                         @Value("${audit.spill.segment-size-bytes:16777216}") int segmentSize,
+                         @Value("${audit.spill.max-bytes:1073741824}") long maxBytes) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.deadLetterDirectory = this.directory.resolve(DEAD_LETTER_DIRECTORY);
+        this.segmentSize = segmentSize;
+        this.maxBytes = maxBytes;
+        this.rejected = Counter.builder("audit.spill.rejected").register(meterRegistry);
+        this.maintenance = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-spill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            try {
+                Files.createDirectories(this.deadLetterDirectory);
+                List<Path> existing = listSegments(this.directory);
+                this.segmentCount = existing.size();
+                this.nextSequence = existing.isEmpty() ? 1 : sequenceOf(existing.get(existing.size() - 1)) + 1;
+                this.firstOpenSequence = nextSequence;
+                // Dead-letter segments outlive the main ones, so they are numbered on their own.
+                List<Path> deadLetters = listSegments(this.deadLetterDirectory);
+                if (!deadLetters.isEmpty()) {
+                    nextDeadLetterSequence.set(sequenceOf(deadLetters.get(deadLetters.size() - 1)) + 1);
+                }
+                if (!existing.isEmpty()) {
+                    logger.info("Found {} audit spill segments to replay in {}.", existing.size(), this.directory.toAbsolutePath());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open the audit spill directory " + directory, e);
+            }
+            Gauge.builder("audit.spill.segments", this, spillLog -> spillLog.segmentCount).register(meterRegistry);
+            Gauge.builder("audit.spill.bytes", this, spillLog -> (double) spillLog.segmentCount * spillLog.segmentSize)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (enabled) {
+            requestStandby();
+        }
+    }
+
+    /**
+     * Forces the active segment to disk and stops the {@code audit-spill} thread.
+     * Called by Spring when the context closes, after the pipeline has spilled what it could not store.
+     */
+    @PreDestroy
+    public void shutdown() {
+        // Nothing is submitted to the audit-spill thread once closed, and later appends fail.
+        Segment last;
+        synchronized (this) {
+            closed = true;
+            last = active;
+            active = null;
+        }
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (last != null) {
+            force(last);
+        }
+    }
+
+    /**
+     * Checks whether entries can be spilled to disk.
+     *
+     * @return {@code true} if the spill log is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Checks whether the maximum spill size is reached, so that no further segment will be prepared until the
+     * replayer deletes one.
+     *
+     * @return {@code true} if the spill log is full.
+     */
+    synchronized boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Appends an entry to the active segment without doing any disk I/O on the caller's thread.
+     * The entry is safe from a process crash once this returns, but may be lost on a power failure.
+     *
+     * @param record The entry.
+     * @return {@code true} if the entry was appended, {@code false} if it could not be written.
+     */
+    public boolean append(AuditRecord record) {
+        if (!enabled) {
+            return false;
+        }
+        byte[] payload = encode(record);
+        synchronized (this) {
+            return write(record, payload);
+        }
+    }
+
+    /**
+     * Appends entries to the active segment and forces them to disk.
+     *
+     * @param records The entries.
+     * @return {@code true} if all entries were appended, {@code false} if any could not be written.
+     */
+    public boolean appendAll(List<AuditRecord> records) {
+        if (!enabled) {
+            return false;
+        }
+        List<byte[]> payloads = records.stream().map(AuditSpillLog::encode).toList();
+        boolean appended = true;
+        List<Segment> written = new ArrayList<>(2);
+        synchronized (this) {
+            for (int i = 0; i < records.size(); i++) {
+                appended &= write(records.get(i), payloads.get(i));
+                if (active != null && (written.isEmpty() || written.get(written.size() - 1) != active)) {
+                    written.add(active);
+                }
+            }
+        }
+        // Forced outside the monitor, so producers keep appending to the same segment meanwhile.
+        written.forEach(AuditSpillLog::force);
+        return appended;
+    }
+
+    /**
+     * Seals the active segment, so that everything appended so far can be replayed, and lists the sealed segments.
+     *
+     * @return The sealed segments, oldest first.
+     */
+    public List<Path> sealSegments() {
+        if (!enabled) {
+            return List.of();
+        }
+        Segment sealed = null;
+        long limit;
+        synchronized (this) {
+            if (active != null && active.buffer().position() > 0) {
+                sealed = active;
+                active = null;
+                firstOpenSequence = sealed.sequence() + 1;
+            }
+            limit = firstOpenSequence;
+        }
+        if (sealed != null) {
+            force(sealed);
+        }
+        try {
+            // Segments from the limit on are the active one and those prepared as standby.
+            return listSegments(directory).stream()
+                    .filter(segment -> sequenceOf(segment) < limit)
+                    .toList();
+        } catch (IOException e) {
+            logger.error("Could not list audit spill segments: {}", e.getMessage(), e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Reads the entries of a sealed segment, stopping at the first torn or corrupt record.
+     *
+     * @param segment The segment file.
+     * @return The entries in the order they were appended.
+     * @throws IOException If the segment cannot be read.
+     */
+    public List<AuditRecord> read(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<AuditRecord> records = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            int length = buffer.getInt();
+            if (length == 0) {
+                break;
+            }
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                logger.warn("Audit spill segment {} ends with a torn record.", segment.getFileName());
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                logger.warn("Audit spill segment {} holds a corrupt record, skipping the rest of it.", segment.getFileName());
+                break;
+            }
+            try {
+                records.add(decode(payload));
+            } catch (BufferUnderflowException e) {
+                logger.warn("Audit spill segment {} holds an unreadable record, skipping the rest of it.", segment.getFileName());
+                break;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Deletes a segment whose entries have all been stored.
+     *
+     * @param segment The segment file.
+     * @throws IOException If the segment cannot be deleted.
+     */
+    public void delete(Path segment) throws IOException {
+        if (Files.deleteIfExists(segment)) {
+            synchronized (this) {
+                segmentCount--;
+                if (full) {
+                    // There may be room for a standby segment again.
+                    prepareStandbyAsync();
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves entries the database rejects for good into a new dead-letter segment and forces it to disk.
+     * Dead-letter segments are never replayed and do not count towards the maximum spill size.
+     *
+     * @param records The rejected entries.
+     * @return {@code true} if the entries were written.
+     */
+    public boolean quarantine(List<AuditRecord> records) {
+        if (!enabled) {
+            return false;
+        }
+        List<byte[]> payloads = records.stream().map(AuditSpillLog::encode).toList();
+        ByteBuffer buffer = ByteBuffer.allocate(payloads.stream().mapToInt(payload -> RECORD_HEADER_BYTES + payload.length).sum());
+        CRC32 crc = new CRC32();
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        }
+        buffer.flip();
+        Path path = deadLetterDirectory.resolve(segmentName(nextDeadLetterSequence.getAndIncrement()));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+            return true;
+        } catch (IOException e) {
+            logger.error("Could not write audit dead-letter segment {}: {}", path.getFileName(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Writes one record to the active segment, switching to the standby segment when the record does not fit.
+     * Must be called while holding the monitor.
+     *
+     * @param record  The entry.
+     * @param payload The encoded entry.
+     * @return {@code true} if the record was written.
+     */
+    private boolean write(AuditRecord record, byte[] payload) {
+        int size = RECORD_HEADER_BYTES + payload.length;
+        // Keep room for the zero length that terminates a segment.
+        if (size + Integer.BYTES > segmentSize) {
+            logger.error("Audit log entry {} of {} bytes does not fit in a spill segment.", record.eventId(), size);
+            return false;
+        }
+        if ((active == null || active.buffer().remaining() < size + Integer.BYTES) && !switchToStandby()) {
+            rejected.increment();
+            return false;
+        }
+        MappedByteBuffer buffer = active.buffer();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        // The length is written last, so a reader never sees a length without its payload.
+        int start = buffer.position();
+        buffer.position(start + Integer.BYTES);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        buffer.putInt(start, payload.length);
+        return true;
+    }
+
+    /**
+     * Makes the standby segment the active one and hands the previous active segment to the {@code audit-spill}
+     * thread to be forced to disk. Must be called while holding the monitor.
+     *
+     * @return {@code true} if a standby segment was ready, {@code false} if none was.
+     */
+    private boolean switchToStandby() {
+        if (closed) {
+            return false;
+        }
+        if (standby == null) {
+            requestStandby();
+            return false;
+        }
+        Segment previous = active;
+        active = standby;
+        standby = null;
+        firstOpenSequence = active.sequence();
+        if (previous != null) {
+            maintenance.execute(() -> force(previous));
+        }
+        requestStandby();
+        return true;
+    }
+
+    /**
+     * Asks the {@code audit-spill} thread for a new standby segment, unless the spill log is known to be full.
+     * Must be called while holding the monitor.
+     */
+    private void requestStandby() {
+        if (!full) {
+            prepareStandbyAsync();
+        }
+    }
+
+    private void prepareStandbyAsync() {
+        if (!closed && standby == null && !preparing) {
+            preparing = true;
+            maintenance.execute(this::prepareStandby);
+        }
+    }
+
+    /**
+     * Creates and maps the next segment file on the {@code audit-spill} thread, unless that would exceed the
+     * maximum spill size.
+     */
+    private void prepareStandby() {
+        long sequence;
+        synchronized (this) {
+            if ((long) (segmentCount + 1) * segmentSize > maxBytes) {
+                if (!full) {
+                    full = true;
+                    logger.error("The audit spill log has reached its maximum size of {} bytes in {}; audit logs are no longer spilled.",
+                            maxBytes, directory.toAbsolutePath());
+                }
+                preparing = false;
+                return;
+            }
+            sequence = nextSequence++;
+            segmentCount++;
+        }
+        Path path = directory.resolve(segmentName(sequence));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            logger.error("Could not open a new audit spill segment: {}", e.getMessage(), e);
+            synchronized (this) {
+                segmentCount--;
+                preparing = false;
+            }
+            return;
+        }
+        synchronized (this) {
+            standby = new Segment(sequence, buffer);
+            preparing = false;
+            if (full) {
+                full = false;
+                logger.info("The audit spill log has room again.");
+            }
+        }
+    }
+
+    private static void force(Segment segment) {
+        try {
+            segment.buffer().force();
+        } catch (UncheckedIOException e) {
+            logger.error("Could not force audit spill segment {} to disk: {}", segment.sequence(), e.getMessage(), e);
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String segmentName(long sequence) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(AuditRecord record) {
+        byte[][] fields = {
+                bytesOf(record.eventId()), bytesOf(record.username()), bytesOf(record.ipAddress()),
+                bytesOf(record.eventType()), bytesOf(record.details())
+        };
+        int size = Long.BYTES + Integer.BYTES;
+        for (byte[] field : fields) {
+            size += Integer.BYTES + (field != null ? field.length : 0);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(record.dateCreated().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(record.dateCreated().getNano());
+        for (byte[] field : fields) {
+            if (field == null) {
+                buffer.putInt(NULL_LENGTH);
+            } else {
+                buffer.putInt(field.length);
+                buffer.put(field);
+            }
+        }
+        return buffer.array();
+    }
+
+    private static AuditRecord decode(ByteBuffer payload) {
+        LocalDateTime dateCreated = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+        String eventId = stringOf(payload);
+        String username = stringOf(payload);
+        String ipAddress = stringOf(payload);
+        String eventType = stringOf(payload);
+        String details = stringOf(payload);
+        return new AuditRecord(eventId, dateCreated, username, ipAddress, eventType, details);
+    }
+
+    private static byte[] bytesOf(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String stringOf(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A mapped segment file.
+     *
+     * @param sequence The number of the segment, which orders segments by age.
+     * @param buffer   The mapping of the whole file.
+     */
+    private record Segment(long sequence, MappedByteBuffer buffer) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.audit.repository;
+
+import com.example.demo.audit.pipeline.AuditRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Writes audit log entries in batches, bypassing the persistence context.
+ * With {@code rewriteBatchedStatements} enabled on the connection, the MySQL driver sends a batch as
+ * multi-row INSERT statements, so a batch costs one round trip instead of one per entry.
+ * An entry whose event ID is already stored is skipped, so writing a batch again is harmless.
+ */
+@Repository
+public class AuditLogBatchRepository {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO audit_logs (event_id, date_created, username, ip_address, event_type, details)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE event_id = event_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditLogBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts audit log entries as a single JDBC batch, skipping those already stored.
+     *
+     * @param records The entries to insert.
+     */
+    public void insertAll(List<AuditRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (ps, record) -> {
+            ps.setString(1, record.eventId());
+            ps.setTimestamp(2, Timestamp.valueOf(record.dateCreated()));
+            ps.setString(3, record.username());
+            ps.setString(4, record.ipAddress());
+            ps.setString(5, record.eventType());
+            ps.setString(6, record.details());
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.demo.audit.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and changes the range partitions of the {@code audit_logs} table.
+ * <p>
+ * A partitioned table holds one partition per period, named after the period's start, and a trailing
+ * {@value #FUTURE_PARTITION} partition bounded by {@code MAXVALUE}. The migration script creates the partitions of
+ * the current and the next period, and new periods are split off the trailing partition before any row is written to
+ * them, so a split finds the trailing partition empty and moves no rows. If the partitions fall behind, e.g. after the
+ * application was down for longer than the periods created ahead, rows land in the trailing partition and the next
+ * split copies them. Dropping a partition removes its rows as a metadata operation, without deleting them one by one.
+ */
+@Repository
+public class AuditLogPartitionRepository {
+
+    /**
+     * The trailing partition holding rows beyond the last period.
+     */
+    public static final String FUTURE_PARTITION = "p_future";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("p_?[a-z0-9_]+");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String LIST_SQL = """
+            SELECT PARTITION_NAME, PARTITION_DESCRIPTION, TABLE_ROWS
+            FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND PARTITION_NAME IS NOT NULL
+            ORDER BY PARTITION_ORDINAL_POSITION""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AuditLogPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lists the partitions of the audit log table in range order.
+     *
+     * @return The partitions, or an empty list if the table is not partitioned.
+     */
+    public List<AuditLogPartition> findAll() {
+        return jdbcTemplate.query(LIST_SQL, (rs, rowNum) -> new AuditLogPartition(
+                rs.getString("PARTITION_NAME"),
+                parseBound(rs.getString("PARTITION_DESCRIPTION")),
+                rs.getLong("TABLE_ROWS")));
+    }
+
+    /**
+     * Splits a new partition off the trailing partition.
+     *
+     * @param name       The name of the new partition.
+     * @param upperBound The exclusive upper bound of the new partition.
+     */
+    public void add(String name, LocalDateTime upperBound) {
+        jdbcTemplate.execute(String.format(
+                "ALTER TABLE audit_logs REORGANIZE PARTITION %s INTO (PARTITION %s VALUES LESS THAN ('%s'), PARTITION %s VALUES LESS THAN (MAXVALUE))",
+                FUTURE_PARTITION, checkName(name), BOUND_FORMAT.format(upperBound), FUTURE_PARTITION));
+    }
+
+    /**
+     * Drops a partition together with all its rows.
+     *
+     * @param name The name of the partition.
+     */
+    public void drop(String name) {
+        jdbcTemplate.execute("ALTER TABLE audit_logs DROP PARTITION " + checkName(name));
+    }
+
+    /**
+     * Guards the partition names spliced into DDL, which cannot take bind parameters.
+     */
+    private static String checkName(String name) {
+        if (!PARTITION_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid partition name: " + name);
+        }
+        return name;
+    }
+
+    private static LocalDateTime parseBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        return LocalDateTime.parse(description.replace("'", "").trim(), BOUND_FORMAT);
+    }
+
+    /**
+     * A range partition of the audit log table.
+     *
+     * @param name          The partition name.
+     * @param upperBound    The exclusive upper bound of {@code date_created}, or {@code null} for {@code MAXVALUE}.
+     * @param estimatedRows The number of rows in the partition as estimated by the table statistics.
+     */
+    public record AuditLogPartition(String name, LocalDateTime upperBound, long estimatedRows) {
+    }
+}
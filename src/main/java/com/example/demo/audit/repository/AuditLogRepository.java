@@ -2,10 +2,12 @@ package com.example.demo.audit.repository;
 
 import com.example.demo.audit.entity.AuditLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.Optional;
 
 /**
  * Spring Data JPA repository for the AuditLog entity.
@@ -14,11 +16,25 @@ import java.util.List;
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
 
     /**
-     * Finds the IDs of the oldest audit log records.
+     * Finds the ID of the audit log at a given position from the newest one, walking the primary key backwards.
+     * IDs increase with every insert, so every audit log with this ID or a lower one is older than the
+     * {@code offset} newest audit logs.
      *
-     * @param limit The maximum number of IDs to return.
-     * @return A list of IDs of the oldest audit logs.
+     * @param offset The number of newer audit logs to skip.
+     * @return The ID, or empty if the table holds no more than {@code offset} audit logs.
      */
-    @Query(value = "SELECT al.id FROM AuditLog al ORDER BY al.dateCreated ASC LIMIT :limit")
-    List<Long> findOldestAuditLogIds(int limit);
+    @Query(value = "SELECT id FROM audit_logs ORDER BY id DESC LIMIT 1 OFFSET :offset", nativeQuery = true)
+    Optional<Long> findIdAtOffsetFromNewest(long offset);
+
+    /**
+     * Deletes a bounded chunk of the audit logs with an ID up to the cutoff, in its own transaction.
+     *
+     * @param cutoffId The highest ID to delete.
+     * @param limit    The maximum number of audit logs to delete.
+     * @return The number of audit logs deleted.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM audit_logs WHERE id <= :cutoffId ORDER BY id LIMIT :limit", nativeQuery = true)
+    int deleteChunkUpTo(long cutoffId, int limit);
 }
@@ -0,0 +1,58 @@
+package com.example.demo.audit.service;
+
+import com.example.demo.exception.InvalidInputException;
+import com.example.demo.util.constants.ValidationMessages;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * The position of an audit log in the search order, newest first by creation time and then by ID.
+ * It is handed to clients as an opaque, URL-safe token, so the keys it is made of can change without
+ * changing the API.
+ *
+ * @param dateCreated The creation time of the last audit log returned.
+ * @param id          The ID of the last audit log returned, breaking ties between equal creation times.
+ */
+public record AuditLogCursor(LocalDateTime dateCreated, long id) {
+
+    private static final int ENCODED_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    /**
+     * Encodes the cursor as an opaque token.
+     *
+     * @return The URL-safe Base64 token.
+     */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES);
+        buffer.putLong(dateCreated.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(dateCreated.getNano());
+        buffer.putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}.
+     *
+     * @param token The token.
+     * @return The cursor.
+     * @throws InvalidInputException If the token was not created by {@link #encode()}.
+     */
+    public static AuditLogCursor decode(String token) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+            if (bytes.length != ENCODED_BYTES) {
+                throw new InvalidInputException(ValidationMessages.CURSOR_INVALID);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            LocalDateTime dateCreated = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            return new AuditLogCursor(dateCreated, buffer.getLong());
+        } catch (IllegalArgumentException | BufferUnderflowException | DateTimeException e) {
+            throw new InvalidInputException(ValidationMessages.CURSOR_INVALID);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.audit.service;
+
+import com.example.demo.audit.repository.AuditLogPartitionRepository;
+import com.example.demo.audit.repository.AuditLogPartitionRepository.AuditLogPartition;
+import com.example.demo.util.enums.AuditLogPartitioning;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service keeping the partitions of a partitioned {@code audit_logs} table in shape.
+ * It creates the partitions of the coming periods ahead of time, and enforces retention by dropping whole
+ * partitions: those older than the retention period, then the oldest ones while the table exceeds its maximum size.
+ * The partition holding the current period is never dropped.
+ */
+@Service
+public class AuditLogPartitionManager {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogPartitionManager.class);
+
+    /**
+     * The number of periods after the current one that have a partition at all times.
+     */
+    private static final int PERIODS_AHEAD = 3;
+
+    private static final DateTimeFormatter DAILY_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+    private static final DateTimeFormatter MONTHLY_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final AuditLogPartitionRepository auditLogPartitionRepository;
+
+    public AuditLogPartitionManager(AuditLogPartitionRepository auditLogPartitionRepository) {
+        this.auditLogPartitionRepository = auditLogPartitionRepository;
+    }
+
+    /**
+     * Checks whether the audit log table has been migrated to range partitions.
+     *
+     * @return {@code true} if the table is partitioned and ends with the trailing {@code MAXVALUE} partition.
+     */
+    public boolean isPartitioned() {
+        List<AuditLogPartition> partitions = auditLogPartitionRepository.findAll();
+        return !partitions.isEmpty()
+                && AuditLogPartitionRepository.FUTURE_PARTITION.equals(partitions.get(partitions.size() - 1).name());
+    }
+
+    /**
+     * Creates the partitions of the coming periods.
+     *
+     * @param partitioning The length of a period.
+     * @param now          The current time.
+     * @return The names of the partitions created.
+     */
+    public List<String> createUpcomingPartitions(AuditLogPartitioning partitioning, LocalDateTime now) {
+        LocalDateTime lastBound = null;
+        for (AuditLogPartition partition : auditLogPartitionRepository.findAll()) {
+            if (partition.upperBound() != null) {
+                lastBound = partition.upperBound();
+            }
+        }
+
+        LocalDate target = periodStart(partitioning, now.toLocalDate());
+        for (int i = 0; i <= PERIODS_AHEAD; i++) {
+            target = nextPeriod(partitioning, target);
+        }
+
+        List<String> created = new ArrayList<>();
+        LocalDateTime bound = lastBound != null ? lastBound : periodStart(partitioning, now.toLocalDate()).atStartOfDay();
+        while (bound.isBefore(target.atStartOfDay())) {
+            // A bound off the period grid, e.g. after a change of partitioning, is extended to the next period boundary.
+            LocalDate start = periodStart(partitioning, bound.toLocalDate());
+            LocalDate end = nextPeriod(partitioning, start);
+            String name = nameOf(partitioning, start);
+            auditLogPartitionRepository.add(name, end.atStartOfDay());
+            created.add(name);
+            bound = end.atStartOfDay();
+        }
+        if (!created.isEmpty()) {
+            logger.info("Created audit log partitions {}.", created);
+        }
+        return created;
+    }
+
+    /**
+     * Drops the partitions beyond the retention period, then the oldest partitions while the estimated number of rows
+     * exceeds the maximum size.
+     *
+     * @param partitioning  The length of a period.
+     * @param retentionDays The number of days to keep, or 0 to keep partitions until the size limit is reached.
+     * @param maxSize       The maximum number of rows to keep.
+     * @param now           The current time.
+     * @return The names of the partitions dropped.
+     */
+    public List<String> dropExpiredPartitions(AuditLogPartitioning partitioning, int retentionDays, long maxSize, LocalDateTime now) {
+        LocalDateTime currentStart = periodStart(partitioning, now.toLocalDate()).atStartOfDay();
+        LocalDateTime cutoff = retentionDays > 0 ? now.minusDays(retentionDays) : null;
+
+        List<AuditLogPartition> partitions = auditLogPartitionRepository.findAll();
+        long totalRows = partitions.stream().mapToLong(AuditLogPartition::estimatedRows).sum();
+
+        List<String> dropped = new ArrayList<>();
+        for (AuditLogPartition partition : partitions) {
+            // Only partitions ending before the current period are candidates, in range order.
+            if (partition.upperBound() == null || partition.upperBound().isAfter(currentStart)) {
+                break;
+            }
+            boolean expired = cutoff != null && !partition.upperBound().isAfter(cutoff);
+            boolean oversized = totalRows > maxSize;
+            if (!expired && !oversized) {
+                break;
+            }
+            auditLogPartitionRepository.drop(partition.name());
+            dropped.add(partition.name());
+            totalRows -= partition.estimatedRows();
+        }
+        if (!dropped.isEmpty()) {
+            logger.info("Dropped audit log partitions {}.", dropped);
+        }
+        return dropped;
+    }
+
+    private static LocalDate periodStart(AuditLogPartitioning partitioning, LocalDate date) {
+        return partitioning == AuditLogPartitioning.MONTHLY ? date.withDayOfMonth(1) : date;
+    }
+
+    private static LocalDate nextPeriod(AuditLogPartitioning partitioning, LocalDate start) {
+        return partitioning == AuditLogPartitioning.MONTHLY ? start.plusMonths(1) : start.plusDays(1);
+    }
+
+    private static String nameOf(AuditLogPartitioning partitioning, LocalDate start) {
+        return (partitioning == AuditLogPartitioning.MONTHLY ? MONTHLY_NAME : DAILY_NAME).format(start);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.audit.service;
 
 import com.example.demo.audit.dto.AuditLogDto;
+import com.example.demo.audit.dto.CursorPage;
 import com.example.demo.audit.dto.QueryAuditLogDto;
 import com.example.demo.util.enums.EventType;
 import org.springframework.data.domain.Page;
@@ -24,17 +25,31 @@ public interface AuditService {
      */
     Page<AuditLogDto> getAll(QueryAuditLogDto queryAuditLogDto, Pageable pageable);
 
+    /**
+     * Retrieves a slice of audit logs based on search criteria, newest first, continuing after a cursor.
+     * Unlike {@link #getAll}, the cost of a slice does not grow with its depth, and no count query is run
+     * unless the total is requested.
+     *
+     * @param queryAuditLogDto DTO containing fields for filtering the search.
+     * @param cursor           The cursor returned with the previous slice, or {@code null} for the first slice.
+     * @param size             The maximum number of audit logs to return.
+     * @param includeTotal     Whether to count all matching audit logs.
+     * @return A slice of audit log DTOs with the cursor of the next slice.
+     */
+    CursorPage<AuditLogDto> scroll(QueryAuditLogDto queryAuditLogDto, String cursor, int size, boolean includeTotal);
+
     /**
      * Logs an audit event asynchronously.
      * <p>
      * This method is designed to be non-blocking, allowing the calling thread to
      * continue its work without waiting for the audit log to be persisted.
+     * The event is queued and written later in a batch with other events.
      *
      * @param username The username of the user who performed the action.
      * @param ipAddress     The IP address of the user who performed the action.
      * @param eventType     The type of the event (e.g., CREATE_USER).
      * @param details       A map of details to be serialized into a JSON string.
-     * @return A CompletableFuture that completes when the event has been logged.
+     * @return A CompletableFuture that completes when the event has been queued.
      */
     CompletableFuture<Void> logEvent(String username, String ipAddress, EventType eventType, Map<String, Object> details);
 
@@ -48,7 +63,7 @@ public interface AuditService {
      * @param ipAddress     The IP address of the user who performed the actions.
      * @param eventType     The type of the event (e.g., ACCOUNT_EXPIRED).
      * @param detailsList   A list of maps, where each map contains details for a specific event.
-     * @return A CompletableFuture that completes when all events have been logged.
+     * @return A CompletableFuture that completes when all events have been queued.
      */
     CompletableFuture<Void> logEvents(String username, String ipAddress, EventType eventType, List<Map<String, Object>> detailsList);
 }
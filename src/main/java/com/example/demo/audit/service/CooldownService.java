@@ -1,6 +1,5 @@
 package com.example.demo.audit.service;
 
-import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.service.ApplicationConfigService;
 import com.example.demo.util.enums.EventType;
 import org.springframework.stereotype.Service;
@@ -9,7 +8,6 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Iterator;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -22,7 +20,6 @@ import java.util.stream.Stream;
  */
 @Service
 public class CooldownService {
-    private static final int AUDIT_LOG_COOLDOWN_MINUTES_DEFAULT = 5;
     private final ConcurrentHashMap<String, LocalDateTime> lastLoggedTime = new ConcurrentHashMap<>();
 
     private final ApplicationConfigService applicationConfigService;
@@ -69,9 +66,7 @@ public class CooldownService {
      * @return The configured or default cooldown period in minutes.
      */
     private int getCooldownMinutes() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.AUDIT_LOG_COOLDOWN_MINUTES))
-                .map(Integer::parseInt)
-                .orElse(AUDIT_LOG_COOLDOWN_MINUTES_DEFAULT);
+        return applicationConfigService.getSnapshot().getAuditLogCooldownMinutes();
     }
 
     /**
@@ -1,13 +1,18 @@
 package com.example.demo.audit.service.impl;
 
 import com.example.demo.audit.dto.AuditLogDto;
+import com.example.demo.audit.dto.CursorPage;
 import com.example.demo.audit.dto.QueryAuditLogDto;
 import com.example.demo.audit.entity.AuditLog;
 import com.example.demo.audit.mapper.AuditLogMapper;
+import com.example.demo.audit.pipeline.AuditLogPipeline;
+import com.example.demo.audit.pipeline.AuditRecord;
 import com.example.demo.audit.repository.AuditLogRepository;
+import com.example.demo.audit.service.AuditLogCursor;
 import com.example.demo.audit.service.AuditService;
-import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.exception.InvalidInputException;
+import com.example.demo.util.constants.ValidationMessages;
 import com.example.demo.util.enums.EventType;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,42 +20,45 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 /**
  * Service for managing the application's audit trail.
- * This service is designed to be called asynchronously to avoid blocking the main thread.
+ * Events are not written by the caller: they are serialized and handed to the {@link AuditLogPipeline},
+ * whose single writer inserts them in batches, so logging an event never waits for the database.
  */
 @Service
 public class AuditServiceImpl implements AuditService {
     private static final Logger logger = LoggerFactory.getLogger(AuditServiceImpl.class);
-    private static final int DETAILS_MAX_SIZE_DEFAULT = 2000;
-    private static final int AUDIT_LOG_COOLDOWN_MINUTES_DEFAULT = 5;
-    private final ConcurrentHashMap<String, LocalDateTime> lastLoggedAuditTime = new ConcurrentHashMap<>();
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final Sort SCROLL_SORT = Sort.by(Sort.Order.desc("dateCreated"), Sort.Order.desc("id"));
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogPipeline auditLogPipeline;
     private final AuditLogMapper auditLogMapper;
     private final ApplicationConfigService applicationConfigService;
     private final ObjectMapper objectMapper;
 
     public AuditServiceImpl(AuditLogRepository auditLogRepository,
+                            AuditLogPipeline auditLogPipeline,
                             AuditLogMapper auditLogMapper,
                             ApplicationConfigService applicationConfigService,
                             ObjectMapper objectMapper) {
         this.auditLogRepository = auditLogRepository;
+        this.auditLogPipeline = auditLogPipeline;
         this.auditLogMapper = auditLogMapper;
         this.applicationConfigService = applicationConfigService;
         this.objectMapper = objectMapper;
@@ -67,6 +75,57 @@ public class AuditServiceImpl implements AuditService {
     @Override
     @Transactional(readOnly = true)
     public Page<AuditLogDto> getAll(QueryAuditLogDto queryAuditLogDto, Pageable pageable) {
+        return auditLogRepository.findAll(buildExample(queryAuditLogDto), pageable)
+                .map(auditLogMapper::toDto);
+    }
+
+    /**
+     * Retrieves a slice of audit logs based on search criteria, newest first, continuing after a cursor.
+     * The slice is read with a keyset predicate on {@code (date_created, id)}, which the matching index serves
+     * without skipping rows, so deep slices cost the same as the first one.
+     *
+     * @param queryAuditLogDto DTO containing fields for filtering the search.
+     * @param cursor           The cursor returned with the previous slice, or {@code null} for the first slice.
+     * @param size             The maximum number of audit logs to return.
+     * @param includeTotal     Whether to count all matching audit logs.
+     * @return A slice of audit log DTOs with the cursor of the next slice.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<AuditLogDto> scroll(QueryAuditLogDto queryAuditLogDto, String cursor, int size, boolean includeTotal) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new InvalidInputException(ValidationMessages.PAGE_SIZE_INVALID);
+        }
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        if (cursor != null && !cursor.isBlank()) {
+            AuditLogCursor decoded = AuditLogCursor.decode(cursor);
+            position = ScrollPosition.forward(Map.of("dateCreated", decoded.dateCreated(), "id", decoded.id()));
+        }
+
+        Example<AuditLog> example = buildExample(queryAuditLogDto);
+        KeysetScrollPosition start = position;
+        Window<AuditLog> window = auditLogRepository.findBy(example, query -> query
+                .sortBy(SCROLL_SORT)
+                .limit(size)
+                .scroll(start));
+
+        List<AuditLog> content = window.getContent();
+        String nextCursor = null;
+        if (window.hasNext() && !content.isEmpty()) {
+            AuditLog last = content.get(content.size() - 1);
+            nextCursor = new AuditLogCursor(last.getDateCreated(), last.getId()).encode();
+        }
+        Long totalElements = includeTotal ? auditLogRepository.count(example) : null;
+        return new CursorPage<>(auditLogMapper.toDtoList(content), nextCursor, size, totalElements);
+    }
+
+    /**
+     * Builds the query-by-example probe for the search criteria.
+     *
+     * @param queryAuditLogDto DTO containing fields for filtering the search.
+     * @return The example matching audit logs whose fields contain the given values, ignoring case.
+     */
+    private Example<AuditLog> buildExample(QueryAuditLogDto queryAuditLogDto) {
         AuditLog auditLogExample = new AuditLog();
         if (queryAuditLogDto.getUsername() != null) {
             auditLogExample.setUsername(queryAuditLogDto.getUsername());
@@ -78,52 +137,55 @@ public class AuditServiceImpl implements AuditService {
         ExampleMatcher matcher = ExampleMatcher.matching()
                 .withIgnoreCase()
                 .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING);
-        Example<AuditLog> example = Example.of(auditLogExample, matcher);
-
-        return auditLogRepository.findAll(example, pageable)
-                .map(auditLogMapper::toDto);
+        return Example.of(auditLogExample, matcher);
     }
 
     /**
-     * Logs an audit event asynchronously.
+     * Queues an audit event for the {@link AuditLogPipeline}, which writes it with other events in a batch.
      *
      * @param username  The username of the user performing the action.
      * @param ipAddress The IP address of the user.
      * @param eventType The type of event (e.g., "CREATE_USER").
      * @param details   A map of details to be serialized into a JSON string.
+     * @return A completed CompletableFuture; the event is written later by the pipeline.
      */
-    @Async
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     @Override
     public CompletableFuture<Void> logEvent(String username, String ipAddress, EventType eventType, Map<String, Object> details) {
-        String detailsJson = serializeAndTrimDetails(eventType, details);
-        AuditLog auditLog = new AuditLog(username, ipAddress, eventType.name(), detailsJson);
-        auditLogRepository.save(auditLog);
-        logger.info("Audit log saved successfully for eventType: {}, username: {}, ipAddress: {}, details: {}", eventType, username, ipAddress, detailsJson);
+        auditLogPipeline.submit(toRecord(username, ipAddress, eventType, details, LocalDateTime.now()));
         return CompletableFuture.completedFuture(null);
     }
 
     /**
-     * Logs multiple audit events in a single batch asynchronously.
+     * Queues multiple audit events for the {@link AuditLogPipeline}.
      *
      * @param username    The username of the user who performed the actions.
      * @param ipAddress   The IP address of the user.
      * @param eventType   The type of the event (e.g., ACCOUNT_EXPIRED).
      * @param detailsList A list of maps, where each map contains details for a specific event.
-     * @return A CompletableFuture that completes when all events have been logged.
+     * @return A completed CompletableFuture; the events are written later by the pipeline.
      */
-    @Async
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     @Override
     public CompletableFuture<Void> logEvents(String username, String ipAddress, EventType eventType, List<Map<String, Object>> detailsList) {
-        List<AuditLog> auditLogs = detailsList.stream()
-                .map(details -> new AuditLog(username, ipAddress, eventType.name(), serializeAndTrimDetails(eventType, details)))
-                .collect(Collectors.toList());
-        auditLogRepository.saveAll(auditLogs);
-        logger.info("Audit logs saved successfully for {} events of type: {}", auditLogs.size(), eventType);
+        LocalDateTime now = LocalDateTime.now();
+        detailsList.forEach(details -> auditLogPipeline.submit(toRecord(username, ipAddress, eventType, details, now)));
+        logger.info("Queued {} audit logs of type: {}", detailsList.size(), eventType);
         return CompletableFuture.completedFuture(null);
     }
 
+    /**
+     * Builds a queued audit entry, serializing its details on the calling thread.
+     *
+     * @param username    The username of the user who performed the action.
+     * @param ipAddress   The IP address of the user.
+     * @param eventType   The type of the event.
+     * @param details     The details of the event.
+     * @param dateCreated The time of the event.
+     * @return The entry to queue.
+     */
+    private AuditRecord toRecord(String username, String ipAddress, EventType eventType, Map<String, Object> details, LocalDateTime dateCreated) {
+        return new AuditRecord(UUID.randomUUID().toString(), dateCreated, username, ipAddress, eventType.name(), serializeAndTrimDetails(eventType, details));
+    }
+
     /**
      * Serializes a map of details to a JSON string and trims it if it exceeds the max size.
      *
@@ -152,19 +214,6 @@ public class AuditServiceImpl implements AuditService {
      * @return The configured or default maximum size.
      */
     private int getDetailsMaxSize() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.AUDIT_LOG_DETAILS_MAX_SIZE))
-                .map(Integer::parseInt)
-                .orElse(DETAILS_MAX_SIZE_DEFAULT);
-    }
-
-    /**
-     * Retrieves the configured cooldown period for audit logging, with a fallback to a default value.
-     *
-     * @return The configured or default cooldown period in minutes.
-     */
-    private int getCooldownMinutes() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.AUDIT_LOG_COOLDOWN_MINUTES))
-                .map(Integer::parseInt)
-                .orElse(AUDIT_LOG_COOLDOWN_MINUTES_DEFAULT);
+        return applicationConfigService.getSnapshot().getAuditLogDetailsMaxSize();
     }
 }
@@ -30,6 +30,22 @@ public final class ApplicationConfigKeys {
      * Configuration key for the JWT expiration time in milliseconds.
      */
     public static final String JWT_EXPIRATION = "application.security.jwt.expiration";
+    /**
+     * Configuration key for the number of days a refresh token stays valid.
+     */
+    public static final String REFRESH_TOKEN_EXPIRATION_DAYS = "application.security.refresh-token.expiration-days";
+    /**
+     * Configuration key to enable stateless JWT authentication, where the principal is built from the token's claims.
+     */
+    public static final String JWT_STATELESS_ENABLED = "application.security.jwt.stateless-enabled";
+    /**
+     * Configuration key for the time-to-live in seconds of cached authenticated principals.
+     */
+    public static final String PRINCIPAL_CACHE_TTL_SECONDS = "security.principal.cache.ttl-seconds";
+    /**
+     * Configuration key for the maximum number of cached authenticated principals.
+     */
+    public static final String PRINCIPAL_CACHE_MAX_SIZE = "security.principal.cache.max-size";
     /**
      * Configuration key to enable or disable rate limiting.
      */
@@ -44,6 +60,10 @@ public final class ApplicationConfigKeys {
      * Configuration key for a comma-separated list of URLs to be excluded from rate-limiting.
      */
     public static final String RATE_LIMIT_EXCLUDED_URLS = "rate.limit.excluded-urls";
+    /**
+     * Configuration key for a comma-separated list of per-route limits, each as {@code prefix=capacity/minutes}.
+     */
+    public static final String RATE_LIMIT_ROUTE_OVERRIDES = "rate.limit.route-overrides";
     /**
      * Configuration key for the rate limit capacity.
      */
@@ -52,6 +72,51 @@ public final class ApplicationConfigKeys {
      * Configuration key for the rate limit refill duration in minutes.
      */
     public static final String RATE_LIMIT_REFILL_DURATION_MINUTES = "rate.limit.refill.duration-minutes";
+    /**
+     * Configuration key for the number of rate-limited requests allowed per client IP address, or 0 for no per-IP budget.
+     */
+    public static final String RATE_LIMIT_IP_CAPACITY = "rate.limit.ip.capacity";
+    /**
+     * Configuration key for the refill duration in minutes of the per-IP budget.
+     */
+    public static final String RATE_LIMIT_IP_REFILL_DURATION_MINUTES = "rate.limit.ip.refill.duration-minutes";
+    /**
+     * Configuration key for the prefix length IPv4 addresses are aggregated to for the per-IP budget.
+     */
+    public static final String RATE_LIMIT_IPV4_PREFIX_LENGTH = "rate.limit.ip.ipv4-prefix-length";
+    /**
+     * Configuration key for the prefix length IPv6 addresses are aggregated to for the per-IP budget.
+     */
+    public static final String RATE_LIMIT_IPV6_PREFIX_LENGTH = "rate.limit.ip.ipv6-prefix-length";
+    /**
+     * Configuration key for a comma-separated list of address range rules, each as {@code cidr=ALLOW},
+     * {@code cidr=BLOCK} or {@code cidr=capacity/minutes}, optionally followed by {@code @expiry-instant}.
+     */
+    public static final String RATE_LIMIT_IP_RULES = "rate.limit.ip.rules";
+    /**
+     * Configuration key for the number of rate-limited requests allowed per authenticated user, or 0 for no per-user budget.
+     */
+    public static final String RATE_LIMIT_USER_CAPACITY = "rate.limit.user.capacity";
+    /**
+     * Configuration key for the refill duration in minutes of the per-user budget.
+     */
+    public static final String RATE_LIMIT_USER_REFILL_DURATION_MINUTES = "rate.limit.user.refill.duration-minutes";
+    /**
+     * Configuration key for the maximum number of rate limit buckets kept in memory.
+     */
+    public static final String RATE_LIMIT_MAX_BUCKETS = "rate.limit.max-buckets";
+    /**
+     * Configuration key for the policy applied to new clients once the bucket limit is reached (SHARED, REJECT or ALLOW).
+     */
+    public static final String RATE_LIMIT_OVERFLOW_POLICY = "rate.limit.overflow-policy";
+    /**
+     * Configuration key for a boolean flag sharing rate limit budgets across all nodes through the database.
+     */
+    public static final String RATE_LIMIT_CLUSTER_ENABLED = "rate.limit.cluster.enabled";
+    /**
+     * Configuration key for the number of tokens a node leases from a shared rate limit budget at once.
+     */
+    public static final String RATE_LIMIT_CLUSTER_LEASE_SIZE = "rate.limit.cluster.lease-size";
     /**
      * Configuration key for the base URL used in password reset emails.
      */
@@ -100,6 +165,14 @@ public final class ApplicationConfigKeys {
      * Configuration key for the maximum number of audit log records to retain in the database.
      */
     public static final String AUDIT_LOG_MAX_SIZE = "audit.log.max-size";
+    /**
+     * Configuration key for the partitioning of the audit log table: NONE, DAILY or MONTHLY.
+     */
+    public static final String AUDIT_LOG_PARTITIONING = "audit.log.partitioning";
+    /**
+     * Configuration key for the number of days audit log partitions are kept. 0 keeps them until the maximum size is reached.
+     */
+    public static final String AUDIT_LOG_RETENTION_DAYS = "audit.log.retention-days";
 
     // Prevent instantiation of this utility class.
     private ApplicationConfigKeys() {
@@ -0,0 +1,71 @@
+package com.example.demo.config.event;
+
+import com.example.demo.config.snapshot.ConfigSnapshot;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Custom event fired when a new configuration snapshot is published with at least one changed value.
+ * It is published synchronously and in order, after the change has been committed, so listeners can rebuild whatever they derive from the changed keys
+ * once per change instead of re-deriving it on every call.
+ */
+public class ConfigChangedEvent extends ApplicationEvent {
+    private final ConfigSnapshot previous;
+    private final ConfigSnapshot current;
+    private final Set<String> changedKeys;
+
+    public ConfigChangedEvent(Object source, ConfigSnapshot previous, ConfigSnapshot current) {
+        super(source);
+        this.previous = previous;
+        this.current = current;
+        Set<String> keys = new HashSet<>(previous.getValues().keySet());
+        keys.addAll(current.getValues().keySet());
+        keys.removeIf(key -> Objects.equals(previous.getValue(key), current.getValue(key)));
+        this.changedKeys = Set.copyOf(keys);
+    }
+
+    public ConfigSnapshot getPrevious() {
+        return previous;
+    }
+
+    public ConfigSnapshot getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return The keys whose value was added, changed or removed.
+     */
+    public Set<String> getChangedKeys() {
+        return changedKeys;
+    }
+
+    /**
+     * Checks whether any of the given keys changed.
+     *
+     * @param keys The configuration keys a listener derives its state from.
+     * @return {@code true} if at least one of them changed.
+     */
+    public boolean affects(Collection<String> keys) {
+        for (String key : keys) {
+            if (changedKeys.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any of the given keys changed.
+     *
+     * @param keys The configuration keys a listener derives its state from.
+     * @return {@code true} if at least one of them changed.
+     */
+    public boolean affects(String... keys) {
+        return affects(Arrays.asList(keys));
+    }
+}
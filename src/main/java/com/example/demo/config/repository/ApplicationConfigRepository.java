@@ -2,8 +2,10 @@ package com.example.demo.config.repository;
 
 import com.example.demo.config.entity.ApplicationConfig;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,4 +32,28 @@ public interface ApplicationConfigRepository extends JpaRepository<ApplicationCo
      * @return A list of {@link ApplicationConfig} entities that match the criteria.
      */
     List<ApplicationConfig> findAllByEnabled(Boolean enabled);
+
+    /**
+     * Finds all configuration settings, enabled or not, updated after a point in time.
+     *
+     * @param dateUpdated The exclusive lower bound of the update time.
+     * @return A list of {@link ApplicationConfig} entities changed since then.
+     */
+    List<ApplicationConfig> findAllByDateUpdatedAfter(LocalDateTime dateUpdated);
+
+    /**
+     * Counts the configuration settings with the given enabled status that have a value.
+     *
+     * @param enabled A boolean flag to filter by the enabled status.
+     * @return The number of matching settings.
+     */
+    long countByEnabledAndConfigValueIsNotNull(Boolean enabled);
+
+    /**
+     * Finds the most recent update time of any configuration setting.
+     *
+     * @return An Optional containing the latest update time, or empty if the table is empty.
+     */
+    @Query("SELECT MAX(c.dateUpdated) FROM ApplicationConfig c")
+    Optional<LocalDateTime> findMaxDateUpdated();
 }
@@ -1,10 +1,11 @@
 package com.example.demo.config.service;
 
 import com.example.demo.config.dto.ApplicationConfigDto;
+import com.example.demo.config.snapshot.ConfigSnapshot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
 
 /**
  * Service for managing dynamic application configurations.
@@ -62,7 +63,7 @@ public interface ApplicationConfigService {
     ApplicationConfigDto getById(Long id);
 
     /**
-     * Retrieves a configuration value from the in-memory cache.
+     * Retrieves a configuration value from the current snapshot.
      *
      * @param key The key of the configuration to retrieve.
      * @return The configuration value as a String, or null if not found.
@@ -70,14 +71,28 @@ public interface ApplicationConfigService {
     String getValue(String key);
 
     /**
-     * Refreshes the in-memory cache with all enabled configurations from the database.
+     * Retrieves the current typed configuration snapshot. The returned snapshot never changes;
+     * callers needing several consistent values should read them all from one snapshot.
+     *
+     * @return The current snapshot.
+     */
+    ConfigSnapshot getSnapshot();
+
+    /**
+     * Reloads all enabled configurations from the database and publishes them as a new snapshot.
      */
     void refreshCache();
 
     /**
-     * Loads all enabled configurations from the database into a cache.
+     * Applies the configurations changed since the last refresh to the snapshot, falling back to a full reload
+     * when the changes cannot account for the current state of the table.
+     */
+    void refreshChanges();
+
+    /**
+     * Loads all enabled configurations from the database.
      *
-     * @param configCache A thread-safe map to store the configurations.
+     * @return The configuration values by key.
      */
-    void loadAllEnabledConfigsToCache(ConcurrentHashMap<String, String> configCache);
+    Map<String, String> loadAllEnabledConfigs();
 }
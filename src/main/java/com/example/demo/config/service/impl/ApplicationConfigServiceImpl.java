@@ -3,9 +3,11 @@ package com.example.demo.config.service.impl;
 import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.dto.ApplicationConfigDto;
 import com.example.demo.config.entity.ApplicationConfig;
+import com.example.demo.config.event.ConfigChangedEvent;
 import com.example.demo.config.mapper.ApplicationConfigMapper;
 import com.example.demo.config.repository.ApplicationConfigRepository;
 import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.config.snapshot.ConfigSnapshot;
 import com.example.demo.audit.event.AuditLogEvent;
 import com.example.demo.exception.InvalidInputException;
 import com.example.demo.exception.ResourceNotFoundException;
@@ -21,12 +23,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -35,7 +40,23 @@ import java.util.stream.Collectors;
 @Service
 public class ApplicationConfigServiceImpl implements ApplicationConfigService {
     private static final Logger logger = LoggerFactory.getLogger(ApplicationConfigServiceImpl.class);
-    private final ConcurrentHashMap<String, String> configCache = new ConcurrentHashMap<>();
+
+    /**
+     * How far before the high-water mark each delta starts. Covers transactions that commit after a later one
+     * and clock differences between the nodes stamping {@code date_updated}.
+     */
+    private static final Duration DELTA_SAFETY_WINDOW = Duration.ofSeconds(30);
+
+    /**
+     * The published configuration. Replaced as a whole, under this service's lock, whenever a value changes.
+     */
+    private volatile ConfigSnapshot snapshot = ConfigSnapshot.EMPTY;
+
+    /**
+     * The latest update time of any row reflected in the snapshot. Guarded by this service's lock.
+     */
+    private LocalDateTime highWaterMark;
+    private boolean fullyLoaded;
 
     private final ApplicationConfigRepository applicationConfigRepository;
     private final ApplicationConfigMapper applicationConfigMapper;
@@ -70,6 +91,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
                 .ifPresent(config -> {
                     throw new InvalidInputException("Configuration with key '" + applicationConfigDto.getConfigKey() + "' already exists.");
                 });
+        validate(applicationConfigDto.getConfigKey(), applicationConfigDto.getConfigValue());
 
         ApplicationConfig applicationConfig = applicationConfigMapper.toEntity(applicationConfigDto);
         applicationConfig.setId(null);
@@ -77,9 +99,9 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
         applicationConfig.setUpdatedBy(identityService.getAuthenticatedUsername());
         ApplicationConfig savedConfig = applicationConfigRepository.save(applicationConfig);
 
-        // Add the new configuration to the cache if enabled
+        // Add the new configuration to the snapshot if enabled
         if (Boolean.TRUE.equals(savedConfig.getEnabled())) {
-            configCache.put(savedConfig.getConfigKey(), savedConfig.getConfigValue());
+            publish(values -> values.put(savedConfig.getConfigKey(), savedConfig.getConfigValue()));
         }
 
         // Publish the event instead of direct call
@@ -97,8 +119,8 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
         ApplicationConfig configToDelete = applicationConfigRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Configuration not found with ID: " + id));
 
-        // Remove the configuration from the cache
-        configCache.remove(configToDelete.getConfigKey());
+        // Remove the configuration from the snapshot
+        publish(values -> values.remove(configToDelete.getConfigKey()));
         applicationConfigRepository.delete(configToDelete);
 
         // Publish the event instead of direct call
@@ -112,6 +134,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
     public ApplicationConfigDto update(ApplicationConfigDto applicationConfigDto) {
         ApplicationConfig existingConfig = applicationConfigRepository.findById(applicationConfigDto.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Configuration not found with ID: " + applicationConfigDto.getId()));
+        validate(applicationConfigDto.getConfigKey(), applicationConfigDto.getConfigValue());
 
         if (applicationConfigDto.getConfigKey() != null && !existingConfig.getConfigKey().equals(applicationConfigDto.getConfigKey())) {
             // Check if the new key already exists for another configuration
@@ -119,15 +142,20 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
                     .ifPresent(config -> {
                         throw new InvalidInputException("Configuration with key '" + applicationConfigDto.getConfigKey() + "' already exists.");
                     });
-            // Update the cache with the new key
-            configCache.remove(existingConfig.getConfigKey());
-            if (Boolean.TRUE.equals(existingConfig.getEnabled())) {
-                configCache.put(applicationConfigDto.getConfigKey(), applicationConfigDto.getConfigValue());
-            }
+            // Update the snapshot with the new key; the entity is changed below, before the snapshot is published
+            String previousKey = existingConfig.getConfigKey();
+            boolean enabled = Boolean.TRUE.equals(existingConfig.getEnabled());
+            publish(values -> {
+                values.remove(previousKey);
+                if (enabled) {
+                    values.put(applicationConfigDto.getConfigKey(), applicationConfigDto.getConfigValue());
+                }
+            });
         } else if (applicationConfigDto.getConfigValue() != null && !existingConfig.getConfigValue().equals(applicationConfigDto.getConfigValue())) {
-            // Update the cache if the value changes
+            // Update the snapshot if the value changes
             if (Boolean.TRUE.equals(existingConfig.getEnabled())) {
-                configCache.put(existingConfig.getConfigKey(), applicationConfigDto.getConfigValue());
+                String key = existingConfig.getConfigKey();
+                publish(values -> values.put(key, applicationConfigDto.getConfigValue()));
             }
         }
 
@@ -150,16 +178,19 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
     public void updateEnabledStatus(Long id, Boolean enabled) {
         ApplicationConfig configToUpdate = applicationConfigRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Configuration not found with ID: " + id));
+        if (Boolean.TRUE.equals(enabled)) {
+            validate(configToUpdate.getConfigKey(), configToUpdate.getConfigValue());
+        }
 
         configToUpdate.setEnabled(enabled);
         configToUpdate.setUpdatedBy(identityService.getAuthenticatedUsername());
         applicationConfigRepository.save(configToUpdate);
 
-        // Update the cache based on the new status
+        // Update the snapshot based on the new status
         if (enabled) {
-            configCache.put(configToUpdate.getConfigKey(), configToUpdate.getConfigValue());
+            publish(values -> values.put(configToUpdate.getConfigKey(), configToUpdate.getConfigValue()));
         } else {
-            configCache.remove(configToUpdate.getConfigKey());
+            publish(values -> values.remove(configToUpdate.getConfigKey()));
         }
 
         // Publish the event instead of direct call
@@ -196,36 +227,154 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
 
     @Override
     public String getValue(String key) {
-        return configCache.get(key);
+        return snapshot.getValue(key);
+    }
+
+    @Override
+    public ConfigSnapshot getSnapshot() {
+        return snapshot;
     }
 
     @Override
     @Transactional(readOnly = true)
     public void refreshCache() {
         logger.info("Refreshing application configuration cache...");
-        ConcurrentHashMap<String, String> tempCache = new ConcurrentHashMap<>();
-        loadAllEnabledConfigsToCache(tempCache);
-
-        List<String> definedKeys = ApplicationConfigKeys.getAllKeys();
-        Set<String> loadedKeys = tempCache.keySet();
+        // Read the high-water mark first: a row changed during the load is then seen again by the next delta.
+        LocalDateTime loadedUpTo = applicationConfigRepository.findMaxDateUpdated().orElse(null);
+        Map<String, String> loaded = loadAllEnabledConfigs();
 
-        List<String> missingKeys = definedKeys.stream()
-                .filter(key -> !loadedKeys.contains(key))
+        List<String> missingKeys = ApplicationConfigKeys.getAllKeys().stream()
+                .filter(key -> !loaded.containsKey(key))
                 .collect(Collectors.toList());
 
         if (!missingKeys.isEmpty()) {
             logger.warn("The following application configuration keys are missing from the database: {}", missingKeys);
         }
 
-        configCache.clear();
-        configCache.putAll(tempCache);
-        logger.info("Application configuration cache refreshed. Loaded {} entries.", configCache.size());
+        ConfigSnapshot refreshed = new ConfigSnapshot(loaded);
+        synchronized (this) {
+            swap(refreshed);
+            this.highWaterMark = loadedUpTo;
+            this.fullyLoaded = true;
+        }
+        logger.info("Application configuration cache refreshed. Loaded {} entries.", refreshed.getValues().size());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public void loadAllEnabledConfigsToCache(ConcurrentHashMap<String, String> cache) {
+    public void refreshChanges() {
+        LocalDateTime since;
+        synchronized (this) {
+            // Without a high-water mark, a full reload of the (empty) table is as cheap as a delta.
+            since = fullyLoaded && highWaterMark != null ? highWaterMark.minus(DELTA_SAFETY_WINDOW) : null;
+        }
+        if (since == null) {
+            refreshCache();
+            return;
+        }
+
+        List<ApplicationConfig> changed = applicationConfigRepository.findAllByDateUpdatedAfter(since);
+        long enabledCount = applicationConfigRepository.countByEnabledAndConfigValueIsNotNull(true);
+
+        boolean consistent;
+        synchronized (this) {
+            Map<String, String> values = new HashMap<>(snapshot.getValues());
+            LocalDateTime newHighWaterMark = highWaterMark;
+            for (ApplicationConfig config : changed) {
+                if (Boolean.TRUE.equals(config.getEnabled()) && config.getConfigValue() != null) {
+                    values.put(config.getConfigKey(), config.getConfigValue());
+                } else {
+                    values.remove(config.getConfigKey());
+                }
+                if (newHighWaterMark == null || config.getDateUpdated().isAfter(newHighWaterMark)) {
+                    newHighWaterMark = config.getDateUpdated();
+                }
+            }
+            // Deleted or renamed rows leave no trace in the delta; they only show up as a count mismatch.
+            consistent = values.size() == enabledCount;
+            if (consistent) {
+                if (!values.equals(snapshot.getValues())) {
+                    swap(new ConfigSnapshot(values));
+                    logger.info("Applied {} changed application configuration entries.", changed.size());
+                }
+                // Only advanced once the changes are published, so a failed swap is retried by the next delta.
+                this.highWaterMark = newHighWaterMark;
+            }
+        }
+        if (!consistent) {
+            logger.info("Application configuration changes do not match the enabled entry count, reloading all entries.");
+            refreshCache();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, String> loadAllEnabledConfigs() {
+        Map<String, String> values = new HashMap<>();
         applicationConfigRepository.findAllByEnabled(true)
-                .forEach(config -> cache.put(config.getConfigKey(), config.getConfigValue()));
+                .forEach(config -> values.put(config.getConfigKey(), config.getConfigValue()));
+        return values;
+    }
+
+    /**
+     * Rejects a configuration value that would not parse, before it is stored.
+     *
+     * @param key   The configuration key.
+     * @param value The raw value.
+     * @throws InvalidInputException If the value is invalid for the key.
+     */
+    private void validate(String key, String value) {
+        try {
+            ConfigSnapshot.validate(key, value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("Invalid value for configuration '" + key + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes a new snapshot derived from the current one once the surrounding transaction commits, so a
+     * rolled-back change is never published. Without a transaction, the snapshot is published immediately.
+     *
+     * @param change The modification of the raw configuration values.
+     */
+    private void publish(Consumer<Map<String, String>> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    /**
+     * Applies a change to the current snapshot. Changes are applied one at a time,
+     * so concurrent updates cannot overwrite each other.
+     *
+     * @param change The modification of the raw configuration values.
+     */
+    private synchronized void apply(Consumer<Map<String, String>> change) {
+        Map<String, String> values = new HashMap<>(snapshot.getValues());
+        change.accept(values);
+        if (!values.equals(snapshot.getValues())) {
+            swap(new ConfigSnapshot(values));
+        }
+    }
+
+    /**
+     * Publishes a snapshot and notifies listeners of the keys that changed.
+     * Called under this service's lock, so listeners see changes one at a time and in order.
+     *
+     * @param next The snapshot to publish.
+     */
+    private void swap(ConfigSnapshot next) {
+        ConfigSnapshot previous = this.snapshot;
+        this.snapshot = next;
+        if (!previous.getValues().equals(next.getValues())) {
+            eventPublisher.publishEvent(new ConfigChangedEvent(this, previous, next));
+        }
     }
 }
@@ -0,0 +1,291 @@
+package com.example.demo.config.snapshot;
+
+import com.example.demo.config.constants.ApplicationConfigKeys;
+import com.example.demo.security.ratelimit.RateLimitRules;
+import com.example.demo.util.UrlUtil;
+import com.example.demo.util.enums.AuditLogPartitioning;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * An immutable, typed view of all enabled application configurations at one point in time.
+ * <p>
+ * Every value is parsed and validated once, when the snapshot is built; callers read primitive fields without
+ * parsing or boxing. A missing or invalid value falls back to its default, and invalid values are logged;
+ * {@link #validate} rejects such values before they are stored.
+ * A new snapshot is built whenever the configuration changes and replaces the previous one as a whole, so a
+ * reader never sees a mix of old and new values, nor an empty configuration while it is being reloaded.
+ */
+public final class ConfigSnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(ConfigSnapshot.class);
+
+    /**
+     * A snapshot with no configuration values, holding only the defaults.
+     */
+    public static final ConfigSnapshot EMPTY = new ConfigSnapshot(Map.of());
+
+    private static final int DEFAULT_ACCOUNT_EXPIRATION_YEARS = 3;
+    private static final int DEFAULT_CREDENTIAL_EXPIRATION_DAYS = 90;
+    private static final long DEFAULT_ACCOUNT_UNLOCK_TIME_MINUTES = 30;
+    private static final int DEFAULT_MAX_FAILED_LOGIN_ATTEMPTS = 10;
+    private static final long DEFAULT_LOCKOUT_RESET_MINUTES = 30;
+    private static final int DEFAULT_REFRESH_TOKEN_EXPIRATION_DAYS = 14;
+    private static final int DEFAULT_PASSWORD_RESET_TOKEN_EXPIRATION_MINUTES = 15;
+    private static final String DEFAULT_PASSWORD_RESET_TOKEN_TYPE = "alphanumeric";
+    private static final int DEFAULT_AUDIT_LOG_DETAILS_MAX_SIZE = 2000;
+    private static final int DEFAULT_AUDIT_LOG_COOLDOWN_MINUTES = 5;
+    private static final int DEFAULT_AUDIT_LOG_MAX_SIZE = 999_999;
+    private static final int DEFAULT_AUDIT_LOG_RETENTION_DAYS = 0;
+    private static final long DEFAULT_PRINCIPAL_CACHE_TTL_SECONDS = 60;
+    private static final int DEFAULT_PRINCIPAL_CACHE_MAX_SIZE = 10_000;
+    private static final List<String> DEFAULT_PUBLIC_URLS = List.of("/api/auth/**", "/api/public/password-reset/request");
+
+    private final Map<String, String> values;
+    private final boolean strict;
+
+    private final List<String> publicUrls;
+    private final List<String> privateUrls;
+    private final String jwtSecretKey;
+    private final long jwtExpirationMillis;
+    private final boolean jwtStatelessEnabled;
+    private final int refreshTokenExpirationDays;
+    private final int accountExpirationYears;
+    private final int credentialExpirationDays;
+    private final long accountUnlockTimeMinutes;
+    private final int maxFailedLoginAttempts;
+    private final long lockoutResetMinutes;
+    private final int passwordResetTokenExpirationMinutes;
+    private final String passwordResetTokenType;
+    private final String passwordResetBaseUrl;
+    private final int auditLogDetailsMaxSize;
+    private final int auditLogCooldownMinutes;
+    private final int auditLogMaxSize;
+    private final AuditLogPartitioning auditLogPartitioning;
+    private final int auditLogRetentionDays;
+    private final long principalCacheTtlSeconds;
+    private final int principalCacheMaxSize;
+
+    /**
+     * Parses a snapshot from raw configuration values.
+     *
+     * @param values The enabled configuration values by key. Keys without a value are left out.
+     */
+    public ConfigSnapshot(Map<String, String> values) {
+        this(values, false);
+    }
+
+    /**
+     * Parses a snapshot from raw configuration values.
+     *
+     * @param values The enabled configuration values by key. Keys without a value are left out.
+     * @param strict Whether an invalid value fails the parse instead of falling back to its default.
+     */
+    private ConfigSnapshot(Map<String, String> values, boolean strict) {
+        this.strict = strict;
+        Map<String, String> copy = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (value != null) {
+                copy.put(key, value);
+            }
+        });
+        this.values = Collections.unmodifiableMap(copy);
+
+        this.publicUrls = parseUrls(ApplicationConfigKeys.SECURITY_PUBLIC_URLS, DEFAULT_PUBLIC_URLS);
+        this.privateUrls = parseUrls(ApplicationConfigKeys.SECURITY_PRIVATE_URLS, List.of());
+        this.jwtSecretKey = this.values.get(ApplicationConfigKeys.JWT_SECRET_KEY);
+        this.jwtExpirationMillis = parse(ApplicationConfigKeys.JWT_EXPIRATION, Long::parseLong, 0L);
+        this.jwtStatelessEnabled = Boolean.parseBoolean(this.values.get(ApplicationConfigKeys.JWT_STATELESS_ENABLED));
+        this.refreshTokenExpirationDays = parse(ApplicationConfigKeys.REFRESH_TOKEN_EXPIRATION_DAYS, Integer::parseInt, DEFAULT_REFRESH_TOKEN_EXPIRATION_DAYS);
+        this.accountExpirationYears = parse(ApplicationConfigKeys.ACCOUNT_EXPIRATION_YEARS, Integer::parseInt, DEFAULT_ACCOUNT_EXPIRATION_YEARS);
+        this.credentialExpirationDays = parse(ApplicationConfigKeys.CREDENTIAL_EXPIRATION_DAYS, Integer::parseInt, DEFAULT_CREDENTIAL_EXPIRATION_DAYS);
+        this.accountUnlockTimeMinutes = parse(ApplicationConfigKeys.ACCOUNT_UNLOCK_TIME_MINUTES, Long::parseLong, DEFAULT_ACCOUNT_UNLOCK_TIME_MINUTES);
+        this.maxFailedLoginAttempts = parse(ApplicationConfigKeys.MAX_FAILED_LOGIN_ATTEMPTS, Integer::parseInt, DEFAULT_MAX_FAILED_LOGIN_ATTEMPTS);
+        this.lockoutResetMinutes = parse(ApplicationConfigKeys.LOCKOUT_RESET_MINUTES, Long::parseLong, DEFAULT_LOCKOUT_RESET_MINUTES);
+        this.passwordResetTokenExpirationMinutes = parse(ApplicationConfigKeys.PASSWORD_RESET_TOKEN_EXPIRATION_MINUTES, Integer::parseInt,
+                DEFAULT_PASSWORD_RESET_TOKEN_EXPIRATION_MINUTES);
+        this.passwordResetTokenType = this.values.getOrDefault(ApplicationConfigKeys.PASSWORD_RESET_TOKEN_TYPE, DEFAULT_PASSWORD_RESET_TOKEN_TYPE);
+        this.passwordResetBaseUrl = this.values.get(ApplicationConfigKeys.PASSWORD_RESET_BASE_URL);
+        this.auditLogDetailsMaxSize = parse(ApplicationConfigKeys.AUDIT_LOG_DETAILS_MAX_SIZE, Integer::parseInt, DEFAULT_AUDIT_LOG_DETAILS_MAX_SIZE);
+        this.auditLogCooldownMinutes = parse(ApplicationConfigKeys.AUDIT_LOG_COOLDOWN_MINUTES, Integer::parseInt, DEFAULT_AUDIT_LOG_COOLDOWN_MINUTES);
+        this.auditLogMaxSize = parse(ApplicationConfigKeys.AUDIT_LOG_MAX_SIZE, Integer::parseInt, DEFAULT_AUDIT_LOG_MAX_SIZE);
+        this.auditLogPartitioning = parse(ApplicationConfigKeys.AUDIT_LOG_PARTITIONING,
+                value -> AuditLogPartitioning.valueOf(value.toUpperCase()), AuditLogPartitioning.NONE);
+        this.auditLogRetentionDays = parse(ApplicationConfigKeys.AUDIT_LOG_RETENTION_DAYS, Integer::parseInt, DEFAULT_AUDIT_LOG_RETENTION_DAYS);
+        this.principalCacheTtlSeconds = parse(ApplicationConfigKeys.PRINCIPAL_CACHE_TTL_SECONDS, Long::parseLong, DEFAULT_PRINCIPAL_CACHE_TTL_SECONDS);
+        this.principalCacheMaxSize = parse(ApplicationConfigKeys.PRINCIPAL_CACHE_MAX_SIZE, Integer::parseInt, DEFAULT_PRINCIPAL_CACHE_MAX_SIZE);
+    }
+
+    /**
+     * Checks a configuration value before it is stored: typed values must parse, the JWT secret must be a
+     * Base64-encoded key of at least 256 bits, and rate-limit values must compile.
+     *
+     * @param key   The configuration key.
+     * @param value The raw value, or {@code null} if it is unset.
+     * @throws IllegalArgumentException If the value is invalid for the key.
+     */
+    public static void validate(String key, String value) {
+        if (key == null || value == null) {
+            return;
+        }
+        new ConfigSnapshot(Map.of(key, value), true);
+        if (ApplicationConfigKeys.JWT_SECRET_KEY.equals(key)) {
+            try {
+                Keys.hmacShaKeyFor(Decoders.BASE64.decode(value));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("The JWT secret must be a Base64-encoded key of at least 256 bits", e);
+            }
+        }
+        RateLimitRules.validate(key, value);
+    }
+
+    /**
+     * Retrieves the raw value of a configuration key.
+     *
+     * @param key The configuration key.
+     * @return The raw value, or {@code null} if the key is missing or disabled.
+     */
+    public String getValue(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * @return All raw configuration values by key, unmodifiable.
+     */
+    public Map<String, String> getValues() {
+        return values;
+    }
+
+    /**
+     * @return The public URL patterns, each ending in {@code /**}.
+     */
+    public List<String> getPublicUrls() {
+        return publicUrls;
+    }
+
+    /**
+     * @return The private URL patterns, each ending in {@code /**}.
+     */
+    public List<String> getPrivateUrls() {
+        return privateUrls;
+    }
+
+    /**
+     * @return The configured JWT secret, or {@code null} to use the one from the application properties.
+     */
+    public String getJwtSecretKey() {
+        return jwtSecretKey;
+    }
+
+    /**
+     * @return The configured JWT lifetime in milliseconds, or {@code 0} to use the one from the application properties.
+     */
+    public long getJwtExpirationMillis() {
+        return jwtExpirationMillis;
+    }
+
+    public boolean isJwtStatelessEnabled() {
+        return jwtStatelessEnabled;
+    }
+
+    public int getRefreshTokenExpirationDays() {
+        return refreshTokenExpirationDays;
+    }
+
+    public int getAccountExpirationYears() {
+        return accountExpirationYears;
+    }
+
+    public int getCredentialExpirationDays() {
+        return credentialExpirationDays;
+    }
+
+    public long getAccountUnlockTimeMinutes() {
+        return accountUnlockTimeMinutes;
+    }
+
+    public int getMaxFailedLoginAttempts() {
+        return maxFailedLoginAttempts;
+    }
+
+    public long getLockoutResetMinutes() {
+        return lockoutResetMinutes;
+    }
+
+    public int getPasswordResetTokenExpirationMinutes() {
+        return passwordResetTokenExpirationMinutes;
+    }
+
+    public String getPasswordResetTokenType() {
+        return passwordResetTokenType;
+    }
+
+    /**
+     * @return The base URL of password reset links, or {@code null} if it is not configured.
+     */
+    public String getPasswordResetBaseUrl() {
+        return passwordResetBaseUrl;
+    }
+
+    public int getAuditLogDetailsMaxSize() {
+        return auditLogDetailsMaxSize;
+    }
+
+    public int getAuditLogCooldownMinutes() {
+        return auditLogCooldownMinutes;
+    }
+
+    public int getAuditLogMaxSize() {
+        return auditLogMaxSize;
+    }
+
+    public AuditLogPartitioning getAuditLogPartitioning() {
+        return auditLogPartitioning;
+    }
+
+    /**
+     * @return The number of days audit log partitions are kept, or 0 to keep them until the maximum size is reached.
+     */
+    public int getAuditLogRetentionDays() {
+        return auditLogRetentionDays;
+    }
+
+    public long getPrincipalCacheTtlSeconds() {
+        return principalCacheTtlSeconds;
+    }
+
+    public int getPrincipalCacheMaxSize() {
+        return principalCacheMaxSize;
+    }
+
+    private <T> T parse(String key, Function<String, T> parser, T defaultValue) {
+        try {
+            return Optional.ofNullable(values.get(key)).map(String::trim).map(parser).orElse(defaultValue);
+        } catch (RuntimeException e) {
+            if (strict) {
+                throw new IllegalArgumentException("Invalid value: " + values.get(key), e);
+            }
+            logger.warn("Ignoring invalid application configuration {}={}, using default {}", key, values.get(key), defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private List<String> parseUrls(String key, List<String> defaultValue) {
+        return Optional.ofNullable(values.get(key))
+                .map(s -> Arrays.stream(s.split(","))
+                        .map(String::trim)
+                        .filter(UrlUtil::isValidUrlPath)
+                        .map(url -> url.endsWith("/**") ? url : url + "/**")
+                        .toList())
+                .orElse(defaultValue);
+    }
+}
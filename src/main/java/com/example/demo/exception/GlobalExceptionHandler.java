@@ -4,6 +4,7 @@ import com.example.demo.audit.event.AuditLogEvent;
 import com.example.demo.audit.service.CooldownService;
 import com.example.demo.security.dto.ApiResponse;
 import com.example.demo.security.service.IdentityService;
+import com.example.demo.security.service.RequestContextService;
 import com.example.demo.util.constants.ValidationMessages;
 import com.example.demo.util.enums.EventType;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,6 +12,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -36,12 +38,14 @@ public class GlobalExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
     private final IdentityService identityService;
+    private final RequestContextService requestContextService;
     private final CooldownService cooldownService;
 
     private final ApplicationEventPublisher eventPublisher;
 
-    public GlobalExceptionHandler(IdentityService identityService, CooldownService cooldownService, ApplicationEventPublisher eventPublisher) {
+    public GlobalExceptionHandler(IdentityService identityService, RequestContextService requestContextService, CooldownService cooldownService, ApplicationEventPublisher eventPublisher) {
         this.identityService = identityService;
+        this.requestContextService = requestContextService;
         this.cooldownService = cooldownService;
         this.eventPublisher = eventPublisher;
     }
@@ -58,7 +62,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Void>> handleAccessDeniedException(AccessDeniedException ex, NativeWebRequest request) {
         HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
         String username = identityService.getAuthenticatedUsername();
-        String ipAddress = identityService.getClientIpAddress(servletRequest);
+        String ipAddress = requestContextService.resolve(servletRequest).getIpAddress();
 
         if (cooldownService.canLog(EventType.ACCESS_DENIED, username, ipAddress)) {
             Map<String, Object> details = new HashMap<>();
@@ -117,7 +121,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<Void>> handleInvalidInputException(InvalidInputException ex, NativeWebRequest request) {
         HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
         String username = identityService.getAuthenticatedUsername();
-        String ipAddress = identityService.getClientIpAddress(servletRequest);
+        String ipAddress = requestContextService.resolve(servletRequest).getIpAddress();
 
         if (cooldownService.canLog(EventType.INVALID_INPUT, username, ipAddress)) {
             logger.warn("Invalid input provided: {} For user: {}, ipAddress: {}", ex.getMessage(), username, ipAddress);
@@ -125,6 +129,20 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    /**
+     * Handles {@link ServiceOverloadedException} when a request is shed because a bounded resource is saturated.
+     *
+     * @param ex The caught exception.
+     * @return A structured {@link ApiResponse} with a 503 Service Unavailable status and a Retry-After header.
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        logger.warn("Request shed due to overload: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage(), null));
+    }
+
     // --- Validation Exception Handlers ---
 
     /**
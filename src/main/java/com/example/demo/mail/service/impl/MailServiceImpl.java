@@ -1,7 +1,6 @@
 package com.example.demo.mail.service.impl;
 
 import com.example.demo.audit.event.AuditLogEvent;
-import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.service.ApplicationConfigService;
 import com.example.demo.mail.dto.SmtpConfigDto;
 import com.example.demo.mail.service.MailService;
@@ -30,8 +29,6 @@ import java.util.*;
 public class MailServiceImpl implements MailService {
     private static final Logger logger = LoggerFactory.getLogger(MailServiceImpl.class);
 
-    private final static int DEFAULT_TOKEN_EXPIRATION_MINUTES = 15;
-
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final ApplicationConfigService applicationConfigService;
     private final SmtpConfigService smtpConfigService;
@@ -111,8 +108,6 @@ public class MailServiceImpl implements MailService {
      * @return The configured expiration minutes.
      */
     private int getPasswordResetTokenExpirationMinutes() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.PASSWORD_RESET_TOKEN_EXPIRATION_MINUTES))
-                .map(Integer::parseInt)
-                .orElse(DEFAULT_TOKEN_EXPIRATION_MINUTES);
+        return applicationConfigService.getSnapshot().getPasswordResetTokenExpirationMinutes();
     }
 }
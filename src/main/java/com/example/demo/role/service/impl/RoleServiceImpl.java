@@ -10,7 +10,9 @@ import com.example.demo.role.entity.Role;
 import com.example.demo.role.mapper.RoleMapper;
 import com.example.demo.role.repository.RoleRepository;
 import com.example.demo.role.service.RoleService;
+import com.example.demo.security.event.RoleSecurityChangedEvent;
 import com.example.demo.security.service.IdentityService;
+import com.example.demo.user.repository.UserRepository;
 import com.example.demo.util.constants.ValidationMessages;
 import com.example.demo.util.enums.EventType;
 import org.springframework.context.ApplicationEventPublisher;
@@ -28,17 +30,20 @@ import java.util.Map;
 public class RoleServiceImpl implements RoleService {
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final UserRepository userRepository;
     private final RoleMapper roleMapper;
     private final IdentityService identityService;
     private final ApplicationEventPublisher eventPublisher;
 
     public RoleServiceImpl(RoleRepository roleRepository,
                            PermissionRepository permissionRepository,
+                           UserRepository userRepository,
                            RoleMapper roleMapper,
                            IdentityService identityService,
                            ApplicationEventPublisher eventPublisher) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
+        this.userRepository = userRepository;
         this.roleMapper = roleMapper;
         this.identityService = identityService;
         this.eventPublisher = eventPublisher;
@@ -55,6 +60,7 @@ public class RoleServiceImpl implements RoleService {
 
         role.getPermissions().add(permission);
         roleRepository.save(role);
+        userRepository.incrementSecurityVersionByRoleId(role.getId());
 
         // Publish the event
         String username = identityService.getAuthenticatedUsername();
@@ -64,6 +70,7 @@ public class RoleServiceImpl implements RoleService {
         details.put("permissionId", permission.getId());
         details.put("permissionName", permission.getName());
         eventPublisher.publishEvent(new AuditLogEvent(this, username, null, EventType.ASSIGN_PERMISSION_TO_ROLE, details));
+        eventPublisher.publishEvent(new RoleSecurityChangedEvent(this, role.getId(), role.getName()));
     }
 
     @Override
@@ -119,6 +126,7 @@ public class RoleServiceImpl implements RoleService {
 
         role.getPermissions().remove(permission);
         roleRepository.save(role);
+        userRepository.incrementSecurityVersionByRoleId(role.getId());
 
         // Publish the event
         String username = identityService.getAuthenticatedUsername();
@@ -128,5 +136,6 @@ public class RoleServiceImpl implements RoleService {
         details.put("permissionId", permission.getId());
         details.put("permissionName", permission.getName());
         eventPublisher.publishEvent(new AuditLogEvent(this, username, null, EventType.REMOVE_PERMISSION_FROM_ROLE, details));
+        eventPublisher.publishEvent(new RoleSecurityChangedEvent(this, role.getId(), role.getName()));
     }
 }
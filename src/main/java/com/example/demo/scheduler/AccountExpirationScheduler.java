@@ -1,6 +1,8 @@
 package com.example.demo.scheduler;
 
 import com.example.demo.audit.event.BatchAuditLogEvent;
+import com.example.demo.security.event.UserSecurityChangedEvent;
+import com.example.demo.token.service.RefreshTokenService;
 import com.example.demo.user.entity.User;
 import com.example.demo.user.repository.UserRepository;
 import com.example.demo.util.enums.EventType;
@@ -26,10 +28,12 @@ public class AccountExpirationScheduler {
 
     private final UserRepository userRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final RefreshTokenService refreshTokenService;
 
-    public AccountExpirationScheduler(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
+    public AccountExpirationScheduler(UserRepository userRepository, ApplicationEventPublisher eventPublisher, RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.eventPublisher = eventPublisher;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
@@ -53,6 +57,7 @@ public class AccountExpirationScheduler {
         List<Map<String, Object>> auditDetailsList = usersToExpire.stream()
                 .map(user -> {
                     user.setAccountExpired(true);
+                    user.incrementSecurityVersion();
                     Map<String, Object> details = new HashMap<>();
                     details.put("userId", user.getId());
                     details.put("username", user.getUsername());
@@ -61,8 +66,10 @@ public class AccountExpirationScheduler {
                 .collect(Collectors.toList());
 
         userRepository.saveAll(usersToExpire);
+        refreshTokenService.revokeAllForUsers(usersToExpire.stream().map(User::getId).toList());
 
         eventPublisher.publishEvent(new BatchAuditLogEvent(this, "System", null, EventType.ACCOUNT_EXPIRED, auditDetailsList));
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(this, usersToExpire.stream().map(User::getUsername).toList()));
 
         logger.info("Scheduled job finished: Expired {} user accounts.", usersToExpire.size());
     }
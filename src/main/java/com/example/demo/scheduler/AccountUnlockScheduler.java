@@ -1,8 +1,8 @@
 package com.example.demo.scheduler;
 
 import com.example.demo.audit.event.BatchAuditLogEvent;
-import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.security.event.UserSecurityChangedEvent;
 import com.example.demo.user.entity.User;
 import com.example.demo.user.repository.UserRepository;
 import com.example.demo.util.enums.EventType;
@@ -16,7 +16,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -27,7 +26,6 @@ import java.util.stream.Collectors;
 public class AccountUnlockScheduler {
 
     private static final Logger logger = LoggerFactory.getLogger(AccountUnlockScheduler.class);
-    private static final long DEFAULT_UNLOCK_TIME_MINUTES = 30;
 
     private final UserRepository userRepository;
     private final ApplicationConfigService applicationConfigService;
@@ -59,6 +57,7 @@ public class AccountUnlockScheduler {
         userRepository.saveAll(lockedUsers);
 
         eventPublisher.publishEvent(new BatchAuditLogEvent(this, "System", null, EventType.ACCOUNT_UNLOCKED, auditDetailsList));
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(this, lockedUsers.stream().map(User::getUsername).toList()));
 
         logger.info("Scheduled job finished: {} accounts were unlocked.", lockedUsers.size());
     }
@@ -76,6 +75,7 @@ public class AccountUnlockScheduler {
                     user.setAccountLocked(false);
                     user.setFailedLoginAttempts(0);
                     user.setLastFailedLoginTime(null);
+                    user.incrementSecurityVersion();
                     return Map.<String, Object>of("userId", user.getId(), "username", user.getUsername());
                 })
                 .collect(Collectors.toList());
@@ -87,8 +87,6 @@ public class AccountUnlockScheduler {
      * @return The configured unlock time in minutes or the default value.
      */
     private long getUnlockTimeMinutes() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.ACCOUNT_UNLOCK_TIME_MINUTES))
-                .map(Long::parseLong)
-                .orElse(DEFAULT_UNLOCK_TIME_MINUTES);
+        return applicationConfigService.getSnapshot().getAccountUnlockTimeMinutes();
     }
 }
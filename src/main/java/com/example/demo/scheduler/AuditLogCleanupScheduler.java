@@ -2,84 +2,126 @@ package com.example.demo.scheduler;
 
 import com.example.demo.audit.event.AuditLogEvent;
 import com.example.demo.audit.repository.AuditLogRepository;
-import com.example.demo.config.constants.ApplicationConfigKeys;
+import com.example.demo.audit.service.AuditLogPartitionManager;
 import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.util.enums.AuditLogPartitioning;
 import com.example.demo.util.enums.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 /**
  * A scheduled task to automatically clean up old audit log records.
  * This helps in managing database size and maintaining performance.
+ * When the audit log table is partitioned, retention is enforced by {@link AuditLogPartitionScheduler} instead,
+ * and this task only serves as the fallback for an unpartitioned table.
  */
 @Component
 public class AuditLogCleanupScheduler {
     private static final Logger logger = LoggerFactory.getLogger(AuditLogCleanupScheduler.class);
-    private static final int DEFAULT_MAX_SIZE = 999_999;
+    private static final int PROGRESS_LOG_INTERVAL_CHUNKS = 10;
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogPartitionManager auditLogPartitionManager;
     private final ApplicationConfigService applicationConfigService;
     private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final long chunkPauseMillis;
 
-    public AuditLogCleanupScheduler(AuditLogRepository auditLogRepository, ApplicationConfigService applicationConfigService, ApplicationEventPublisher eventPublisher) {
+    public AuditLogCleanupScheduler(AuditLogRepository auditLogRepository, AuditLogPartitionManager auditLogPartitionManager,
+                                    ApplicationConfigService applicationConfigService, ApplicationEventPublisher eventPublisher,
+                                    @Value("${audit.cleanup.chunk-size:1000}") int chunkSize,
+                                    @Value("${audit.cleanup.chunk-pause-ms:100}") long chunkPauseMillis) {
         this.auditLogRepository = auditLogRepository;
+        this.auditLogPartitionManager = auditLogPartitionManager;
         this.applicationConfigService = applicationConfigService;
         this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.chunkPauseMillis = chunkPauseMillis;
     }
 
     /**
      * This scheduled job runs daily to delete the oldest audit log records.
+     * It finds the ID of the newest record beyond the max size, then deletes it and all older records in bounded chunks,
+     * each in its own short transaction and followed by a pause, so that lock time and replication lag stay bounded.
      */
     @Scheduled(cron = "${scheduler.audit.cleanup.cron:0 0 0 */7 * ?}")
-    @Transactional
     public void cleanupOldLogs() {
+        if (applicationConfigService.getSnapshot().getAuditLogPartitioning() != AuditLogPartitioning.NONE
+                && auditLogPartitionManager.isPartitioned()) {
+            logger.info("Skipping scheduled job: Audit log retention is enforced by dropping partitions.");
+            return;
+        }
         int maxSize = getMaxSize();
         logger.info("Starting scheduled job: Cleaning up old audit logs with a max size of {}.", maxSize);
 
-        long totalLogs = auditLogRepository.count();
-        long recordsToDeleteCount = totalLogs - maxSize;
-
-        if (recordsToDeleteCount > 0) {
-            performCleanup(recordsToDeleteCount, maxSize);
+        Optional<Long> cutoffId = auditLogRepository.findIdAtOffsetFromNewest(maxSize);
+        if (cutoffId.isPresent()) {
+            performCleanup(cutoffId.get(), maxSize);
         } else {
-            logger.info("No cleanup needed. Total logs ({}) are within the max size limit ({}).", totalLogs, maxSize);
+            logger.info("No cleanup needed. Total logs are within the max size limit ({}).", maxSize);
         }
     }
 
     /**
      * Performs the actual cleanup operation and logs the event.
      *
-     * @param recordsToDeleteCount The number of records to delete.
-     * @param maxSize              The maximum number of records to keep.
+     * @param cutoffId The highest ID to delete.
+     * @param maxSize  The maximum number of records to keep.
      */
-    private void performCleanup(long recordsToDeleteCount, int maxSize) {
-        logger.info("Found {} logs to delete to enforce the max size limit.", recordsToDeleteCount);
+    private void performCleanup(long cutoffId, int maxSize) {
+        logger.info("Deleting audit logs with an ID up to {} in chunks of {} to enforce the max size limit.", cutoffId, chunkSize);
 
-        List<Long> oldestLogIds = auditLogRepository.findOldestAuditLogIds((int) recordsToDeleteCount);
-        auditLogRepository.deleteAllById(oldestLogIds);
+        long deletedCount = 0;
+        int chunks = 0;
+        int deleted;
+        do {
+            deleted = auditLogRepository.deleteChunkUpTo(cutoffId, chunkSize);
+            deletedCount += deleted;
+            chunks++;
+            if (chunks % PROGRESS_LOG_INTERVAL_CHUNKS == 0) {
+                logger.info("Audit log cleanup in progress: Deleted {} records in {} chunks.", deletedCount, chunks);
+            }
+        } while (deleted == chunkSize && pause());
 
-        int deletedCount = oldestLogIds.size();
-        logger.info("Scheduled job finished: Successfully deleted {} old audit log records.", deletedCount);
+        logger.info("Scheduled job finished: Successfully deleted {} old audit log records in {} chunks.", deletedCount, chunks);
 
         logCleanupEvent(deletedCount, maxSize);
     }
 
+    /**
+     * Waits between two chunks so that other transactions and replicas can catch up.
+     *
+     * @return {@code true} to continue with the next chunk, {@code false} if the thread was interrupted.
+     */
+    private boolean pause() {
+        if (chunkPauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(chunkPauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Audit log cleanup interrupted; the remaining records are deleted on the next run.");
+            return false;
+        }
+    }
+
     /**
      * Logs the audit log cleanup event to the audit trail.
      *
      * @param deletedCount The number of records that were deleted.
      * @param maxSize      The maximum size the audit log table is being capped at.
      */
-    private void logCleanupEvent(int deletedCount, int maxSize) {
+    private void logCleanupEvent(long deletedCount, int maxSize) {
         Map<String, Object> details = new HashMap<>();
         details.put("message", String.format("Deleted %d oldest audit log records to enforce max size limit of %d.", deletedCount, maxSize));
         details.put("records_deleted", deletedCount);
@@ -93,8 +135,6 @@ public class AuditLogCleanupScheduler {
      * @return The configured max size or the default value.
      */
     private int getMaxSize() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.AUDIT_LOG_MAX_SIZE))
-                .map(Integer::parseInt)
-                .orElse(DEFAULT_MAX_SIZE);
+        return applicationConfigService.getSnapshot().getAuditLogMaxSize();
     }
 }
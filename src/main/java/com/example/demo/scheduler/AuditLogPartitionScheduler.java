@@ -0,0 +1,87 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.audit.event.AuditLogEvent;
+import com.example.demo.audit.service.AuditLogPartitionManager;
+import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.config.snapshot.ConfigSnapshot;
+import com.example.demo.util.enums.AuditLogPartitioning;
+import com.example.demo.util.enums.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A scheduled task maintaining the partitions of the audit log table when it is partitioned by date.
+ * It creates the partitions of the coming periods and enforces retention by dropping whole partitions,
+ * which replaces the row-by-row cleanup of {@link AuditLogCleanupScheduler}.
+ */
+@Component
+public class AuditLogPartitionScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogPartitionScheduler.class);
+
+    private final AuditLogPartitionManager auditLogPartitionManager;
+    private final ApplicationConfigService applicationConfigService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AuditLogPartitionScheduler(AuditLogPartitionManager auditLogPartitionManager, ApplicationConfigService applicationConfigService,
+                                      ApplicationEventPublisher eventPublisher) {
+        this.auditLogPartitionManager = auditLogPartitionManager;
+        this.applicationConfigService = applicationConfigService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Creates upcoming partitions and drops expired ones.
+     * The cron expression is configured in application.properties. It also runs once at startup, so partitions
+     * exist ahead of the current period even after the application was down past the last of them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${scheduler.audit.partition.cron:0 15 0 * * *}")
+    public void maintainPartitions() {
+        ConfigSnapshot config = applicationConfigService.getSnapshot();
+        AuditLogPartitioning partitioning = config.getAuditLogPartitioning();
+        if (partitioning == AuditLogPartitioning.NONE) {
+            return;
+        }
+        try {
+            if (!auditLogPartitionManager.isPartitioned()) {
+                logger.warn("Audit log partitioning is set to {} but the audit_logs table is not partitioned; old logs are deleted by row count instead.", partitioning);
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            auditLogPartitionManager.createUpcomingPartitions(partitioning, now);
+            List<String> dropped = auditLogPartitionManager.dropExpiredPartitions(partitioning, config.getAuditLogRetentionDays(),
+                    config.getAuditLogMaxSize(), now);
+            if (!dropped.isEmpty()) {
+                logCleanupEvent(dropped, config);
+            }
+        } catch (DataAccessException e) {
+            logger.error("Audit log partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Logs the dropped partitions to the audit trail.
+     *
+     * @param dropped The names of the partitions dropped.
+     * @param config  The configuration the retention was enforced with.
+     */
+    private void logCleanupEvent(List<String> dropped, ConfigSnapshot config) {
+        Map<String, Object> details = new HashMap<>();
+        details.put("message", String.format("Dropped %d audit log partitions to enforce retention.", dropped.size()));
+        details.put("partitions_dropped", dropped);
+        details.put("retention_days", config.getAuditLogRetentionDays());
+        details.put("max_size", config.getAuditLogMaxSize());
+        eventPublisher.publishEvent(new AuditLogEvent(this, "System", null, EventType.AUDIT_LOG_CLEANUP, details));
+    }
+}
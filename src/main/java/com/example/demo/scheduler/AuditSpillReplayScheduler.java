@@ -0,0 +1,33 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.audit.pipeline.AuditLogPipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * A scheduled task that writes the audit logs spilled to local disk into the database once it accepts them again.
+ */
+@Component
+public class AuditSpillReplayScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(AuditSpillReplayScheduler.class);
+
+    private final AuditLogPipeline auditLogPipeline;
+
+    public AuditSpillReplayScheduler(AuditLogPipeline auditLogPipeline) {
+        this.auditLogPipeline = auditLogPipeline;
+    }
+
+    /**
+     * Replays the spilled audit logs.
+     * The delay is configured in application.properties.
+     */
+    @Scheduled(fixedDelayString = "${scheduler.audit.spill.replay.delay-ms:10000}")
+    public void replaySpilledAuditLogs() {
+        int replayed = auditLogPipeline.replaySpilled();
+        if (replayed > 0) {
+            logger.info("Scheduled job finished: Replayed {} spilled audit logs.", replayed);
+        }
+    }
+}
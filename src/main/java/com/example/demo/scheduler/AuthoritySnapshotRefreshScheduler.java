@@ -0,0 +1,32 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.security.service.AuthoritySnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * A scheduled task that periodically rebuilds the role-to-authority snapshot.
+ * Local role and permission changes rebuild it immediately; this picks up changes made on other nodes.
+ */
+@Component
+public class AuthoritySnapshotRefreshScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(AuthoritySnapshotRefreshScheduler.class);
+
+    private final AuthoritySnapshotService authoritySnapshotService;
+
+    public AuthoritySnapshotRefreshScheduler(AuthoritySnapshotService authoritySnapshotService) {
+        this.authoritySnapshotService = authoritySnapshotService;
+    }
+
+    /**
+     * Rebuilds the authority snapshot at a scheduled interval.
+     * The cron expression is configured in application.properties.
+     */
+    @Scheduled(cron = "${scheduler.authority.snapshot.refresh.cron:0 * * * * *}")
+    public void refreshSnapshot() {
+        authoritySnapshotService.rebuild();
+        logger.debug("Authority snapshot rebuilt.");
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.demo.scheduler;
 
-import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.service.ApplicationConfigService;
 import com.example.demo.mail.dto.SmtpConfigDto;
 import com.example.demo.mail.service.MailService;
@@ -54,7 +53,7 @@ public class PasswordResetEmailScheduler {
             return;
         }
 
-        String passwordResetBaseUrl = applicationConfigService.getValue(ApplicationConfigKeys.PASSWORD_RESET_BASE_URL);
+        String passwordResetBaseUrl = applicationConfigService.getSnapshot().getPasswordResetBaseUrl();
         if (passwordResetBaseUrl == null || !UrlUtil.isValidUrl(passwordResetBaseUrl)) {
             logger.error("Password reset base URL is not configured or is invalid. Skipping email sending.");
             return;
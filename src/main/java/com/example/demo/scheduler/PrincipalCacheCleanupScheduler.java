@@ -0,0 +1,32 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.security.service.PrincipalCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * A scheduled task that periodically removes expired entries from the PrincipalCacheService.
+ * Expired entries are otherwise only dropped when touched or when the cache reaches its size bound.
+ */
+@Component
+public class PrincipalCacheCleanupScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCacheCleanupScheduler.class);
+
+    private final PrincipalCacheService principalCacheService;
+
+    public PrincipalCacheCleanupScheduler(PrincipalCacheService principalCacheService) {
+        this.principalCacheService = principalCacheService;
+    }
+
+    /**
+     * Removes expired principals at a scheduled interval.
+     * The cron expression is configured in application.properties.
+     */
+    @Scheduled(cron = "${scheduler.principal.cache.cleanup.cron:0 */5 * * * *}")
+    public void cleanupCache() {
+        int removed = principalCacheService.removeExpiredEntries();
+        logger.debug("Removed {} expired principals from PrincipalCacheService, {} remain cached.", removed, principalCacheService.size());
+    }
+}
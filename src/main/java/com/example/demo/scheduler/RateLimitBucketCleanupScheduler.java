@@ -0,0 +1,33 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.security.service.RateLimitingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * A scheduled task that removes idle rate limit buckets, keeping memory proportional to the number of active clients.
+ */
+@Component
+public class RateLimitBucketCleanupScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitBucketCleanupScheduler.class);
+
+    private final RateLimitingService rateLimitingService;
+
+    public RateLimitBucketCleanupScheduler(RateLimitingService rateLimitingService) {
+        this.rateLimitingService = rateLimitingService;
+    }
+
+    /**
+     * Removes buckets that have refilled completely.
+     * The cron expression is configured in application.properties.
+     */
+    @Scheduled(cron = "${scheduler.rate.limit.cleanup.cron:0 * * * * *}")
+    public void cleanupIdleBuckets() {
+        int removed = rateLimitingService.removeIdleBuckets();
+        if (removed > 0) {
+            logger.debug("Scheduled job finished: Removed {} idle rate limit buckets.", removed);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.token.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * A scheduled task to delete expired refresh tokens from the database.
+ * Rotated and revoked tokens are kept until they expire, so a replayed token is still recognized as reuse.
+ */
+@Component
+public class RefreshTokenCleanupScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenCleanupScheduler.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    public RefreshTokenCleanupScheduler(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    /**
+     * Periodically deletes expired refresh tokens.
+     * The cron expression is configured in application.properties.
+     */
+    @Scheduled(cron = "${scheduler.refresh.token.cleanup.cron:0 30 * * * *}")
+    @Transactional
+    public void cleanupExpiredTokens() {
+        int deleted = refreshTokenRepository.deleteAllByExpiryDateBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Scheduled job finished: Deleted {} expired refresh tokens.", deleted);
+        }
+    }
+}
@@ -1,8 +1,9 @@
 package com.example.demo.scheduler;
 
 import com.example.demo.audit.event.BatchAuditLogEvent;
-import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.security.event.UserSecurityChangedEvent;
+import com.example.demo.token.service.RefreshTokenService;
 import com.example.demo.user.entity.User;
 import com.example.demo.user.repository.UserRepository;
 import com.example.demo.util.enums.EventType;
@@ -17,7 +18,6 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * A scheduled task to manage user account and credential expiration.
@@ -25,18 +25,20 @@ import java.util.Optional;
 @Component
 public class UserCredentialScheduler {
     private static final Logger logger = LoggerFactory.getLogger(UserCredentialScheduler.class);
-    private static final int DEFAULT_CREDENTIAL_EXPIRATION_DAYS = 90;
 
     private final UserRepository userRepository;
     private final ApplicationConfigService applicationConfigService;
     private final ApplicationEventPublisher eventPublisher;
+    private final RefreshTokenService refreshTokenService;
 
     public UserCredentialScheduler(UserRepository userRepository,
                                    ApplicationConfigService applicationConfigService,
-                                   ApplicationEventPublisher eventPublisher) {
+                                   ApplicationEventPublisher eventPublisher,
+                                   RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.applicationConfigService = applicationConfigService;
         this.eventPublisher = eventPublisher;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
@@ -58,8 +60,10 @@ public class UserCredentialScheduler {
         List<Map<String, Object>> auditDetailsList = processAndPrepareForAudit(usersToExpire);
 
         userRepository.saveAll(usersToExpire);
+        refreshTokenService.revokeAllForUsers(usersToExpire.stream().map(User::getId).toList());
 
         eventPublisher.publishEvent(new BatchAuditLogEvent(this, "System", null, EventType.CREDENTIALS_EXPIRED, auditDetailsList));
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(this, usersToExpire.stream().map(User::getUsername).toList()));
 
         logger.info("Scheduled job finished: Expired {} user credentials.", usersToExpire.size());
     }
@@ -74,6 +78,7 @@ public class UserCredentialScheduler {
         List<Map<String, Object>> auditDetailsList = new ArrayList<>();
         for (User user : usersToExpire) {
             user.setCredentialsExpired(true);
+            user.incrementSecurityVersion();
             auditDetailsList.add(Map.of("userId", user.getId(), "username", user.getUsername()));
         }
         return auditDetailsList;
@@ -85,8 +90,6 @@ public class UserCredentialScheduler {
      * @return The configured number of days or the default value.
      */
     private int getCredentialExpirationDays() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.CREDENTIAL_EXPIRATION_DAYS))
-                .map(Integer::parseInt)
-                .orElse(DEFAULT_CREDENTIAL_EXPIRATION_DAYS);
+        return applicationConfigService.getSnapshot().getCredentialExpirationDays();
     }
 }
@@ -0,0 +1,59 @@
+package com.example.demo.security;
+
+import java.util.Map;
+
+/**
+ * Immutable, dense mapping from authority names to bit positions.
+ * Permissions take the lowest bits in ascending id order, followed by roles.
+ * Roles are indexed under their full authority name only; {@code hasRole} checks add the role prefix before the
+ * lookup, see {@link AuthoritySet#hasAnyRole}.
+ */
+public final class AuthorityBitIndex {
+
+    /**
+     * The prefix Spring Security adds to role names in {@code hasRole} checks.
+     */
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    private final Map<String, Integer> bitByAuthority;
+    private final int size;
+
+    public AuthorityBitIndex(Map<String, Integer> bitByAuthority) {
+        this.bitByAuthority = Map.copyOf(bitByAuthority);
+        this.size = bitByAuthority.size();
+    }
+
+    /**
+     * Returns the bit assigned to an authority.
+     *
+     * @param authority The authority name, e.g. {@code READ_USERS} or {@code ROLE_ADMIN}.
+     * @return The bit position, or {@code -1} if the authority is unknown.
+     */
+    public int bitOf(String authority) {
+        Integer bit = bitByAuthority.get(authority);
+        return bit != null ? bit : -1;
+    }
+
+    /**
+     * @return The number of bits in use.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AuthorityBitIndex that)) {
+            return false;
+        }
+        return bitByAuthority.equals(that.bitByAuthority);
+    }
+
+    @Override
+    public int hashCode() {
+        return bitByAuthority.hashCode();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Set;
+
+/**
+ * Immutable set of granted authorities paired with its bitset encoding.
+ * Instances are shared by every principal holding the same combination of roles, and the bitset
+ * turns an authority check into a single bit test against the {@link AuthorityBitIndex} it was built with.
+ */
+public final class AuthoritySet {
+
+    private final Set<GrantedAuthority> authorities;
+    private final AuthorityBitIndex index;
+    private final long[] bits;
+
+    public AuthoritySet(Set<GrantedAuthority> authorities, AuthorityBitIndex index) {
+        this.authorities = Set.copyOf(authorities);
+        this.index = index;
+        this.bits = new long[(index.size() + 63) >>> 6];
+        for (GrantedAuthority authority : this.authorities) {
+            int bit = index.bitOf(authority.getAuthority());
+            if (bit >= 0) {
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    /**
+     * @return The granted authorities.
+     */
+    public Set<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    /**
+     * Checks whether any of the given authorities is granted.
+     *
+     * @param authorities The authority names to test.
+     * @return {@code true} if at least one of them is granted.
+     */
+    public boolean hasAnyAuthority(String... authorities) {
+        for (String authority : authorities) {
+            if (test(index.bitOf(authority))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any of the given roles is granted, resolving role names the way Spring Security's
+     * {@code hasAnyRole} does: the prefix is added unless the name already starts with it, so with the default
+     * prefix {@code hasRole('ADMIN')} and {@code hasRole('ROLE_ADMIN')} both test {@code ROLE_ADMIN}.
+     *
+     * @param rolePrefix The prefix added to role names, or {@code null} or empty to use them as they are.
+     * @param roles      The role names.
+     * @return {@code true} if at least one of them is granted.
+     */
+    public boolean hasAnyRole(String rolePrefix, String... roles) {
+        for (String role : roles) {
+            if (role != null && test(index.bitOf(withRolePrefix(rolePrefix, role)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean test(int bit) {
+        return bit >= 0 && (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private static String withRolePrefix(String rolePrefix, String role) {
+        if (rolePrefix == null || rolePrefix.isEmpty() || role.startsWith(rolePrefix)) {
+            return role;
+        }
+        return rolePrefix + role;
+    }
+}
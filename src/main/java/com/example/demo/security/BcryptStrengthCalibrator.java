@@ -0,0 +1,67 @@
+package com.example.demo.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+
+/**
+ * Utility class that picks a BCrypt strength (log2 of the number of rounds) for the hardware the application runs on.
+ * Each candidate strength is timed on a sample password, and the highest strength whose hash stays within
+ * the latency target is chosen. Since each step doubles the cost, benchmarking stops at the first strength
+ * over the target.
+ */
+public final class BcryptStrengthCalibrator {
+    private static final Logger logger = LoggerFactory.getLogger(BcryptStrengthCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "Calibration#Sample1";
+    private static final int SAMPLES_PER_STRENGTH = 3;
+
+    private BcryptStrengthCalibrator() {
+        // Private constructor to prevent instantiation of this utility class.
+    }
+
+    /**
+     * Benchmarks candidate strengths and returns the highest one whose hash takes at most {@code targetMillis}.
+     *
+     * @param targetMillis The per-hash latency budget in milliseconds.
+     * @param minStrength  The lowest acceptable strength, returned even if it exceeds the budget.
+     * @param maxStrength  The highest strength to consider.
+     * @return The calibrated strength.
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        // Warm up the JIT so the first measurement is not inflated.
+        new BCryptPasswordEncoder(minStrength).encode(SAMPLE_PASSWORD);
+
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long millis = measureMillis(strength);
+            logger.info("BCrypt calibration: strength {} takes {} ms per hash.", strength, millis);
+            if (millis > targetMillis) {
+                break;
+            }
+            chosen = strength;
+        }
+        logger.info("BCrypt calibration: using strength {} for a target of {} ms per hash.", chosen, targetMillis);
+        return chosen;
+    }
+
+    /**
+     * Measures the median time of hashing the sample password at the given strength.
+     *
+     * @param strength The BCrypt strength.
+     * @return The median hash time in milliseconds.
+     */
+    private static long measureMillis(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long[] samples = new long[SAMPLES_PER_STRENGTH];
+        for (int i = 0; i < SAMPLES_PER_STRENGTH; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES_PER_STRENGTH / 2];
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * Method security expression handler that evaluates {@code @PreAuthorize} expressions against a
+ * {@link BitsetMethodSecurityExpressionRoot}.
+ * Spring Security parses each method's expression once and caches it; this handler additionally compiles the
+ * parsed expression to bytecode after its first evaluation, so later checks skip the SpEL interpreter.
+ */
+public class BitsetMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    public BitsetMethodSecurityExpressionHandler() {
+        setExpressionParser(new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader())));
+    }
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        BitsetMethodSecurityExpressionRoot root = createRoot(authentication, invocation);
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(root, getSpecificMethod(invocation),
+                invocation.getArguments(), getParameterNameDiscoverer());
+        context.setBeanResolver(getBeanResolver());
+        return context;
+    }
+
+    @Override
+    protected MethodSecurityExpressionOperations createSecurityExpressionRoot(Authentication authentication, MethodInvocation invocation) {
+        return createRoot(() -> authentication, invocation);
+    }
+
+    /**
+     * Creates the expression root, configuring the fallback root the same way Spring Security would.
+     *
+     * @param authentication The supplier of the current authentication.
+     * @param invocation     The secured method invocation.
+     * @return The expression root.
+     */
+    private BitsetMethodSecurityExpressionRoot createRoot(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        SecurityExpressionRoot delegate = new SecurityExpressionRoot(authentication) {
+        };
+        delegate.setTrustResolver(getTrustResolver());
+        delegate.setPermissionEvaluator(getPermissionEvaluator());
+        delegate.setDefaultRolePrefix(getDefaultRolePrefix());
+        if (getRoleHierarchy() != null) {
+            delegate.setRoleHierarchy(getRoleHierarchy());
+        }
+
+        BitsetMethodSecurityExpressionRoot root = new BitsetMethodSecurityExpressionRoot(authentication, delegate,
+                getDefaultRolePrefix(), getRoleHierarchy() != null);
+        root.setThis(invocation.getThis());
+        return root;
+    }
+
+    private static Method getSpecificMethod(MethodInvocation invocation) {
+        Object target = invocation.getThis();
+        return target != null ? AopUtils.getMostSpecificMethod(invocation.getMethod(), AopProxyUtils.ultimateTargetClass(target)) : invocation.getMethod();
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.demo.security;
+
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Root object for {@code @PreAuthorize} expressions.
+ * Authority and role checks against a {@link CustomUserDetails} principal are answered with a bit test on its
+ * {@link AuthoritySet}, resolving role names with the same default prefix as Spring; every other operation, and
+ * principals of other types, fall back to Spring's standard root.
+ * The bitset only holds the authorities granted directly, so when a {@code RoleHierarchy} is configured all
+ * authority and role checks go to Spring's root, which expands the hierarchy.
+ */
+public class BitsetMethodSecurityExpressionRoot implements MethodSecurityExpressionOperations {
+
+    private final Supplier<Authentication> authentication;
+    private final SecurityExpressionRoot delegate;
+    private final String defaultRolePrefix;
+    private final boolean roleHierarchy;
+
+    private Object filterObject;
+    private Object returnObject;
+    private Object target;
+
+    /**
+     * @param authentication    The supplier of the current authentication.
+     * @param delegate          Spring's standard root, configured with the same prefix and role hierarchy.
+     * @param defaultRolePrefix The prefix added to role names in role checks.
+     * @param roleHierarchy     Whether a role hierarchy is configured, in which case the bitset is not used.
+     */
+    public BitsetMethodSecurityExpressionRoot(Supplier<Authentication> authentication, SecurityExpressionRoot delegate,
+                                              String defaultRolePrefix, boolean roleHierarchy) {
+        this.authentication = authentication;
+        this.delegate = delegate;
+        this.defaultRolePrefix = defaultRolePrefix;
+        this.roleHierarchy = roleHierarchy;
+    }
+
+    @Override
+    public boolean hasAuthority(String authority) {
+        return hasAnyAuthority(authority);
+    }
+
+    @Override
+    public boolean hasAnyAuthority(String... authorities) {
+        AuthoritySet authoritySet = getAuthoritySet();
+        return authoritySet != null ? authoritySet.hasAnyAuthority(authorities) : delegate.hasAnyAuthority(authorities);
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        return hasAnyRole(role);
+    }
+
+    @Override
+    public boolean hasAnyRole(String... roles) {
+        AuthoritySet authoritySet = getAuthoritySet();
+        return authoritySet != null ? authoritySet.hasAnyRole(defaultRolePrefix, roles) : delegate.hasAnyRole(roles);
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return authentication.get();
+    }
+
+    public Object getPrincipal() {
+        return delegate.getPrincipal();
+    }
+
+    @Override
+    public boolean permitAll() {
+        return true;
+    }
+
+    @Override
+    public boolean denyAll() {
+        return false;
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return delegate.isAnonymous();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return delegate.isAuthenticated();
+    }
+
+    @Override
+    public boolean isRememberMe() {
+        return delegate.isRememberMe();
+    }
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        return delegate.isFullyAuthenticated();
+    }
+
+    @Override
+    public boolean hasPermission(Object target, Object permission) {
+        return delegate.hasPermission(target, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object targetId, String targetType, Object permission) {
+        return delegate.hasPermission(targetId, targetType, permission);
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        this.filterObject = filterObject;
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return filterObject;
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        this.returnObject = returnObject;
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return returnObject;
+    }
+
+    void setThis(Object target) {
+        this.target = target;
+    }
+
+    @Override
+    public Object getThis() {
+        return target;
+    }
+
+    /**
+     * Returns the bitset-backed authorities of the current principal.
+     *
+     * @return The principal's authority set, or {@code null} if the principal is not a {@link CustomUserDetails} or a
+     * role hierarchy is configured.
+     */
+    private AuthoritySet getAuthoritySet() {
+        if (roleHierarchy) {
+            return null;
+        }
+        Authentication current = authentication.get();
+        if (current != null && current.getPrincipal() instanceof CustomUserDetails principal) {
+            return principal.authoritySet();
+        }
+        return null;
+    }
+}
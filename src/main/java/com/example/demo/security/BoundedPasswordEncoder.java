@@ -0,0 +1,141 @@
+package com.example.demo.security;
+
+import com.example.demo.exception.ServiceOverloadedException;
+import com.example.demo.util.constants.ValidationMessages;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password encoder that runs the expensive hashing of its delegate on a dedicated, bounded worker pool.
+ * Request threads wait for the result, but at most {@code poolSize} hashes run at once and at most
+ * {@code queueCapacity} wait; further calls fail immediately with a {@link ServiceOverloadedException}
+ * instead of tying up more request threads.
+ * <p>
+ * The time each thread spends waiting for hashes is tracked, so that callers measuring request latency can tell
+ * requests dominated by hashing from the rest; see {@link #takeHashingNanos()}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final ThreadLocal<long[]> HASHING_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+
+    private final Timer encodeQueueWait;
+    private final Timer matchesQueueWait;
+    private final Timer encodeDuration;
+    private final Timer matchesDuration;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+
+        this.encodeQueueWait = Timer.builder("security.password.hash.queue.wait").tag("operation", "encode").register(meterRegistry);
+        this.matchesQueueWait = Timer.builder("security.password.hash.queue.wait").tag("operation", "matches").register(meterRegistry);
+        this.encodeDuration = Timer.builder("security.password.hash.duration").tag("operation", "encode").register(meterRegistry);
+        this.matchesDuration = Timer.builder("security.password.hash.duration").tag("operation", "matches").register(meterRegistry);
+        this.rejected = Counter.builder("security.password.hash.rejected").register(meterRegistry);
+        Gauge.builder("security.password.hash.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeQueueWait, encodeDuration);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesQueueWait, matchesDuration);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Returns the time the current thread has spent waiting for hashes since the last call, and resets it.
+     *
+     * @return The time in nanoseconds, including the time the hashes waited for a worker.
+     */
+    public static long takeHashingNanos() {
+        long[] nanos = HASHING_NANOS.get();
+        long taken = nanos[0];
+        nanos[0] = 0;
+        return taken;
+    }
+
+    /**
+     * Stops the worker pool. Called by Spring when the context closes.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs a hashing task on the worker pool and waits for its result.
+     *
+     * @param task      The hashing task.
+     * @param queueWait The timer recording how long the task waited for a worker.
+     * @param duration  The timer recording how long the task ran.
+     * @param <T>       The type of the result.
+     * @return The result of the task.
+     */
+    private <T> T submit(Callable<T> task, Timer queueWait, Timer duration) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    duration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceOverloadedException(ValidationMessages.SERVICE_OVERLOADED, retryAfterSeconds);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed.", e.getCause());
+        } finally {
+            HASHING_NANOS.get()[0] += System.nanoTime() - submittedAt;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.security;
+
+import com.example.demo.security.concurrency.AdaptiveConcurrencyLimiter;
+import com.example.demo.security.concurrency.RequestPriority;
+import com.example.demo.security.service.JwtService;
+import com.example.demo.security.service.PrincipalCacheService;
+import com.example.demo.security.service.RequestContextService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Spring Web filter bounding the number of requests processed at once with an {@link AdaptiveConcurrencyLimiter}.
+ * It runs before {@link JwtAuthenticationFilter}, so a rejected request never loads a principal. Requests are
+ * classified from the verified claims of the {@link RequestAuthenticationContext}: health checks and administrators
+ * come first, then other valid tokens, then anonymous traffic. The admin role is read from the authorities of a
+ * stateless token, or else from the user's principal if the {@link PrincipalCacheService} holds it; the principal is
+ * never loaded here, so an administrator whose principal is not cached yet is classified as an authenticated user
+ * until the request has loaded it.
+ * A request beyond the share of its class is answered with an immediate 503 instead of waiting for a thread
+ * or a database connection, which keeps latency bounded for the requests that are admitted.
+ * Requests that waited for the {@link BoundedPasswordEncoder}, such as logins, do not steer the limit: their latency
+ * is set by the hashing pool, which sheds its own load, and would otherwise drown out that of other requests.
+ */
+@Component
+public class ConcurrencyLimitingFilter extends OncePerRequestFilter {
+    private static final String HEALTH_PATH = "/actuator/health";
+    private static final String ADMIN_AUTHORITY = AuthorityBitIndex.ROLE_PREFIX + "ADMIN";
+
+    private final RequestContextService requestContextService;
+    private final PrincipalCacheService principalCacheService;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final boolean enabled;
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    private final Map<RequestPriority, Counter> rejected = new EnumMap<>(RequestPriority.class);
+
+    public ConcurrencyLimitingFilter(RequestContextService requestContextService,
+                                     PrincipalCacheService principalCacheService,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${security.concurrency.enabled:true}") boolean enabled,
+                                     @Value("${security.concurrency.initial-limit:20}") int initialLimit,
+                                     @Value("${security.concurrency.min-limit:4}") int minLimit,
+                                     @Value("${security.concurrency.max-limit:200}") int maxLimit,
+                                     @Value("${security.concurrency.latency-tolerance:2.0}") double latencyTolerance,
+                                     @Value("${security.concurrency.backoff-ratio:0.9}") double backoffRatio,
+                                     @Value("${security.concurrency.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.requestContextService = requestContextService;
+        this.principalCacheService = principalCacheService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyTolerance, backoffRatio);
+        Gauge.builder("security.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("security.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejected.put(priority, Counter.builder("security.concurrency.rejected")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestPriority priority = classify(request);
+        int inFlight = limiter.tryAcquire(priority);
+        if (inFlight < 0) {
+            rejected.get(priority).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType("application/json");
+            objectMapper.writeValue(response.getWriter(), Map.of("error", "Service Unavailable",
+                    "message", "The service is busy. Please try again later."));
+            return;
+        }
+
+        BoundedPasswordEncoder.takeHashingNanos();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (BoundedPasswordEncoder.takeHashingNanos() > 0) {
+                limiter.release();
+            } else {
+                limiter.release(System.nanoTime() - start, inFlight);
+            }
+        }
+    }
+
+    /**
+     * Determines the priority class of a request from its path, the verified claims of its bearer token and, for a
+     * token without authorities, the cached principal of its subject.
+     *
+     * @param request The HTTP request.
+     * @return The priority class.
+     */
+    private RequestPriority classify(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith(HEALTH_PATH)) {
+            return RequestPriority.CRITICAL;
+        }
+        Claims claims = requestContextService.resolve(request).getClaims();
+        if (claims == null) {
+            return RequestPriority.ANONYMOUS;
+        }
+        if (claims.get(JwtService.AUTHORITIES_CLAIM) instanceof List<?> authorities) {
+            return authorities.contains(ADMIN_AUTHORITY) ? RequestPriority.CRITICAL : RequestPriority.AUTHENTICATED;
+        }
+        boolean admin = claims.getSubject() != null && principalCacheService.getIfPresent(claims.getSubject())
+                .map(principal -> principal.authoritySet().hasAnyAuthority(ADMIN_AUTHORITY))
+                .orElse(false);
+        return admin ? RequestPriority.CRITICAL : RequestPriority.AUTHENTICATED;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.security;
+
+import com.example.demo.config.constants.ApplicationConfigKeys;
+import com.example.demo.config.event.ConfigChangedEvent;
+import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.config.snapshot.ConfigSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Decides URL access from the public URL list of the application configuration.
+ * Public URLs are open to everyone; private URLs, like every other URL, require an authenticated user.
+ * The matchers are compiled once per change of the URL list, so a change applies without restarting
+ * the application and the security filter chain never parses configuration on a request.
+ */
+@Component
+public class ConfigurableUrlAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigurableUrlAuthorizationManager.class);
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    private volatile List<RequestMatcher> publicMatchers;
+
+    public ConfigurableUrlAuthorizationManager(ApplicationConfigService applicationConfigService) {
+        this.publicMatchers = compile(applicationConfigService.getSnapshot());
+    }
+
+    /**
+     * Recompiles the matchers when the public or private URL list changes.
+     *
+     * @param event The configuration change.
+     */
+    @EventListener
+    public void onConfigChanged(ConfigChangedEvent event) {
+        if (event.affects(ApplicationConfigKeys.SECURITY_PUBLIC_URLS, ApplicationConfigKeys.SECURITY_PRIVATE_URLS)) {
+            try {
+                this.publicMatchers = compile(event.getCurrent());
+            } catch (RuntimeException e) {
+                logger.error("Could not compile the changed public URLs, keeping the previous ones: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        for (RequestMatcher matcher : publicMatchers) {
+            if (matcher.matches(context.getRequest())) {
+                return GRANTED;
+            }
+        }
+        return trustResolver.isAuthenticated(authentication.get()) ? GRANTED : DENIED;
+    }
+
+    private static List<RequestMatcher> compile(ConfigSnapshot config) {
+        PathPatternRequestMatcher.Builder builder = PathPatternRequestMatcher.withDefaults();
+        return config.getPublicUrls().stream()
+                .<RequestMatcher>map(builder::matcher)
+                .toList();
+    }
+}
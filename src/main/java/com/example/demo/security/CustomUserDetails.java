@@ -1,43 +1,71 @@
 package com.example.demo.security;
 
+import com.example.demo.role.entity.Role;
 import com.example.demo.user.entity.User;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
- * A custom implementation of the UserDetails interface.
- * It wraps the User entity to provide Spring Security with the necessary information for authentication and authorization.
+ * A custom, immutable implementation of the UserDetails interface.
+ * It copies what Spring Security needs out of the User entity, so a principal can be cached and shared
+ * without keeping a JPA entity or its role graph alive. The authority set is shared with every user
+ * holding the same roles.
+ *
+ * @param id                    The user's ID, or {@code null} for principals built from a stateless token.
+ * @param username              The user's username.
+ * @param password              The user's hashed password, or an empty string for stateless principals.
+ * @param enabled               Whether the user is enabled.
+ * @param accountNonExpired     Whether the user's account is still valid.
+ * @param accountNonLocked      Whether the user is not locked.
+ * @param credentialsNonExpired Whether the user's credentials are still valid.
+ * @param securityVersion       The user's security version when the principal was built.
+ * @param roles                 The names of the user's roles.
+ * @param authoritySet          The roles and permissions granted to the user, with their bitset encoding.
  */
-public class CustomUserDetails implements UserDetails {
+public record CustomUserDetails(Long id,
+                                String username,
+                                String password,
+                                boolean enabled,
+                                boolean accountNonExpired,
+                                boolean accountNonLocked,
+                                boolean credentialsNonExpired,
+                                long securityVersion,
+                                Set<String> roles,
+                                AuthoritySet authoritySet) implements UserDetails {
 
-    private final User user;
-
-    public CustomUserDetails(User user) {
-        this.user = user;
+    /**
+     * Creates a principal from a User entity.
+     *
+     * @param user         The user entity.
+     * @param authoritySet The shared authority set for the user's roles.
+     * @return The principal.
+     */
+    public static CustomUserDetails of(User user, AuthoritySet authoritySet) {
+        return new CustomUserDetails(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                Boolean.TRUE.equals(user.getEnabled()),
+                !Boolean.TRUE.equals(user.getAccountExpired()),
+                !Boolean.TRUE.equals(user.getAccountLocked()),
+                !Boolean.TRUE.equals(user.getCredentialsExpired()),
+                user.getSecurityVersion(),
+                user.getRoles().stream().map(Role::getName).collect(Collectors.toUnmodifiableSet()),
+                authoritySet);
     }
 
     /**
-     * Retrieves the authorities (permissions) granted to the user.
+     * Retrieves the authorities (roles and permissions) granted to the user.
      *
      * @return A collection of GrantedAuthority objects.
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        user.getRoles().forEach(role -> {
-            // Add the role itself (e.g., ROLE_ADMIN)
-            authorities.add(new SimpleGrantedAuthority(role.getName()));
-            // Add the permissions associated with the role
-            role.getPermissions().forEach(permission ->
-                    authorities.add(new SimpleGrantedAuthority(permission.getName()))
-            );
-        });
-        return authorities;
+        return authoritySet.getAuthorities();
     }
 
     /**
@@ -47,7 +75,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     /**
@@ -57,7 +85,16 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
+    }
+
+    /**
+     * Retrieves the user's security version, which changes whenever the account state or authorities change.
+     *
+     * @return The user's security version.
+     */
+    public long getSecurityVersion() {
+        return securityVersion;
     }
 
     /**
@@ -67,7 +104,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public boolean isAccountNonExpired() {
-        return !user.getAccountExpired();
+        return accountNonExpired;
     }
 
     /**
@@ -77,7 +114,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public boolean isAccountNonLocked() {
-        return !user.getAccountLocked();
+        return accountNonLocked;
     }
 
     /**
@@ -87,7 +124,7 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public boolean isCredentialsNonExpired() {
-        return !user.getCredentialsExpired();
+        return credentialsNonExpired;
     }
 
     /**
@@ -97,6 +134,24 @@ public class CustomUserDetails implements UserDetails {
      */
     @Override
     public boolean isEnabled() {
-        return user.getEnabled();
+        return enabled;
+    }
+
+    /**
+     * Describes the principal without its password hash, which would otherwise end up in security debug logs.
+     *
+     * @return A description of the principal with the password redacted.
+     */
+    @Override
+    public String toString() {
+        return getClass().getName() + " [Id=" + id
+                + ", Username=" + username
+                + ", Password=[PROTECTED]"
+                + ", Enabled=" + enabled
+                + ", AccountNonExpired=" + accountNonExpired
+                + ", CredentialsNonExpired=" + credentialsNonExpired
+                + ", AccountNonLocked=" + accountNonLocked
+                + ", SecurityVersion=" + securityVersion
+                + ", Granted Authorities=" + getAuthorities() + "]";
     }
 }
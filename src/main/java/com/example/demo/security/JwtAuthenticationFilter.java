@@ -3,10 +3,11 @@ package com.example.demo.security;
 import com.example.demo.audit.event.AuditLogEvent;
 import com.example.demo.audit.service.CooldownService;
 import com.example.demo.security.service.CustomUserDetailsService;
-import com.example.demo.security.service.IdentityService;
 import com.example.demo.security.service.JwtService;
+import com.example.demo.security.service.RequestContextService;
 import com.example.demo.util.enums.EventType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,7 +25,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * Filters incoming requests to validate JWTs and authenticate users.
@@ -33,15 +33,15 @@ import java.util.Optional;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final IdentityService identityService;
+    private final RequestContextService requestContextService;
     private final CustomUserDetailsService userDetailsService;
     private final ApplicationEventPublisher publisher;
     private final ObjectMapper objectMapper;
     private final CooldownService cooldownService;
 
-    public JwtAuthenticationFilter(JwtService jwtService, IdentityService identityService, CustomUserDetailsService userDetailsService, ApplicationEventPublisher publisher, ObjectMapper objectMapper, CooldownService cooldownService) {
+    public JwtAuthenticationFilter(JwtService jwtService, RequestContextService requestContextService, CustomUserDetailsService userDetailsService, ApplicationEventPublisher publisher, ObjectMapper objectMapper, CooldownService cooldownService) {
         this.jwtService = jwtService;
-        this.identityService = identityService;
+        this.requestContextService = requestContextService;
         this.userDetailsService = userDetailsService;
         this.publisher = publisher;
         this.objectMapper = objectMapper;
@@ -55,23 +55,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        final String authHeader = request.getHeader("Authorization");
-        final String jwt;
+        RequestAuthenticationContext context = requestContextService.resolve(request);
         String username = null;
-        String ipAddress = identityService.getClientIpAddress(request);
+        String ipAddress = context.getIpAddress();
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (!context.hasBearerToken()) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
-        Optional<String> usernameOptional = jwtService.extractUsernameFromToken(request);
-
         // JWT token is malformed or expired
-        if (usernameOptional.isEmpty()) {
+        if (!context.isTokenValid()) {
             Map<String, Object> details = new HashMap<>();
-            details.put("request_uri", request.getRequestURI());
+            details.put("request_uri", context.getRequestUri());
             details.put("reason", "Invalid or expired JWT token");
 
             if (cooldownService.canLog(EventType.AUTHENTICATION_FAILURE, username, ipAddress)) {
@@ -84,10 +80,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        username = usernameOptional.get();
+        username = context.getUsername();
         if (SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtService.validateToken(jwt, userDetails)) {
+            UserDetails userDetails = resolvePrincipal(context);
+            if (userDetails != null && jwtService.isTokenValid(context.getClaims(), userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -96,4 +92,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Resolves the principal for a verified token. Stateless tokens are turned into a principal directly,
+     * after checking that the user's security version has not moved on since the token was issued.
+     *
+     * @param context The authentication context of the current request.
+     * @return The principal, or {@code null} if a stateless token has been superseded.
+     */
+    private UserDetails resolvePrincipal(RequestAuthenticationContext context) {
+        Claims claims = context.getClaims();
+        if (!jwtService.isStatelessToken(claims)) {
+            return this.userDetailsService.loadUserByUsername(context.getUsername());
+        }
+
+        long tokenVersion = jwtService.extractSecurityVersion(claims);
+        return this.userDetailsService.getSecurityVersion(context.getUsername())
+                .filter(currentVersion -> currentVersion == tokenVersion)
+                .map(currentVersion -> jwtService.buildPrincipal(claims))
+                .orElse(null);
+    }
 }
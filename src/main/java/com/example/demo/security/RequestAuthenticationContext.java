@@ -0,0 +1,138 @@
+package com.example.demo.security;
+
+import com.example.demo.security.ratelimit.IpAddress;
+import com.example.demo.security.ratelimit.RateLimitRoute;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Immutable, per-request view of the caller's identity.
+ * It is resolved once at the front of the filter chain and stored as a request attribute,
+ * so the bearer token is verified and parsed only once per request. The rate-limited route and the bucket keys
+ * of the request are derived at the same time, so rate limiting builds no keys of its own.
+ */
+public final class RequestAuthenticationContext {
+
+    /**
+     * The request attribute under which the context is stored.
+     */
+    public static final String ATTRIBUTE = RequestAuthenticationContext.class.getName();
+
+    private final String bearerToken;
+    private final Claims claims;
+    private final String username;
+    private final IpAddress clientIp;
+    private final String ipAddress;
+    private final String requestUri;
+    private final String userRateLimitKey;
+    private final String ipRateLimitKey;
+    private final RateLimitRoute rateLimitRoute;
+    private final String routeRateLimitKey;
+
+    /**
+     * @param bearerToken    The bearer token of the request, or {@code null} if it carried none.
+     * @param claims         The verified claims of the token, or {@code null} if it is missing or invalid.
+     * @param clientIp       The client address.
+     * @param requestUri     The request URI, or {@code null} outside a servlet request.
+     * @param rateLimitRoute The rate-limited route of the request URI, or {@code null} if it is not rate-limited.
+     * @param ipRateLimitKey The bucket key of the client's per-IP budget, or {@code null} if there is no such budget.
+     */
+    public RequestAuthenticationContext(String bearerToken, Claims claims, IpAddress clientIp, String requestUri,
+                                        RateLimitRoute rateLimitRoute, String ipRateLimitKey) {
+        this.bearerToken = bearerToken;
+        this.claims = claims;
+        this.username = claims != null ? claims.getSubject() : null;
+        this.clientIp = clientIp;
+        this.ipAddress = clientIp.toString();
+        this.requestUri = requestUri;
+        this.userRateLimitKey = username != null ? "user:" + username : null;
+        this.ipRateLimitKey = ipRateLimitKey;
+        this.rateLimitRoute = rateLimitRoute;
+        // Authenticated callers are identified by username, anonymous ones by IP address.
+        this.routeRateLimitKey = rateLimitRoute != null
+                ? "route:" + rateLimitRoute.prefix() + ":" + (username != null ? username : ipAddress)
+                : null;
+    }
+
+    /**
+     * Retrieves the context previously resolved for the given request.
+     *
+     * @param request The HTTP request.
+     * @return The stored context, or {@code null} if none has been resolved yet.
+     */
+    public static RequestAuthenticationContext from(HttpServletRequest request) {
+        Object attribute = request.getAttribute(ATTRIBUTE);
+        return attribute instanceof RequestAuthenticationContext context ? context : null;
+    }
+
+    /**
+     * @return {@code true} if the request carried a bearer token, whether or not it was valid.
+     */
+    public boolean hasBearerToken() {
+        return bearerToken != null;
+    }
+
+    /**
+     * @return {@code true} if the request carried a bearer token whose signature and expiry were verified.
+     */
+    public boolean isTokenValid() {
+        return claims != null;
+    }
+
+    public String getBearerToken() {
+        return bearerToken;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public String getRequestUri() {
+        return requestUri;
+    }
+
+    /**
+     * @return The binary form of the client's IP address.
+     */
+    public IpAddress getClientIp() {
+        return clientIp;
+    }
+
+    /**
+     * @return The rate limit bucket key of the authenticated user, or {@code null} for anonymous requests.
+     */
+    public String getUserRateLimitKey() {
+        return userRateLimitKey;
+    }
+
+    /**
+     * @return The rate limit bucket key of the client's address, aggregated to its configured prefix,
+     * or {@code null} if addresses have no budget of their own.
+     */
+    public String getIpRateLimitKey() {
+        return ipRateLimitKey;
+    }
+
+    /**
+     * @return The rate-limited route of the request, or {@code null} if the request is not rate-limited.
+     */
+    public RateLimitRoute getRateLimitRoute() {
+        return rateLimitRoute;
+    }
+
+    /**
+     * @return The rate limit bucket key of the caller on the route group of the request,
+     * or {@code null} if the request is not rate-limited.
+     */
+    public String getRouteRateLimitKey() {
+        return routeRateLimitKey;
+    }
+}
@@ -1,11 +1,11 @@
 package com.example.demo.security;
 
-import com.example.demo.config.constants.ApplicationConfigKeys;
-import com.example.demo.config.service.ApplicationConfigService;
 import com.example.demo.security.service.CustomUserDetailsService;
-import com.example.demo.util.UrlUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -14,16 +14,18 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
-import java.util.Arrays;
-import java.util.Optional;
+import java.util.Map;
 
 /**
  * Spring Security configuration class.
  * This class configures the security filter chain, authentication provider, and access rules.
+ * URL access is decided by {@link ConfigurableUrlAuthorizationManager}, which follows configuration changes at runtime,
+ * except for the management endpoints: health is open to load balancers, and the others are reserved to administrators.
  */
 @Configuration
 @EnableWebSecurity
@@ -33,13 +35,26 @@ public class SecurityConfiguration {
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final CustomUserDetailsService userDetailsService;
     private final RateLimitingFilter rateLimitingFilter;
-    private final ApplicationConfigService applicationConfigService;
+    private final ConcurrencyLimitingFilter concurrencyLimitingFilter;
+    private final ConfigurableUrlAuthorizationManager urlAuthorizationManager;
 
-    public SecurityConfiguration(JwtAuthenticationFilter jwtAuthFilter, CustomUserDetailsService userDetailsService, RateLimitingFilter rateLimitingFilter, ApplicationConfigService applicationConfigService) {
+    public SecurityConfiguration(JwtAuthenticationFilter jwtAuthFilter, CustomUserDetailsService userDetailsService, RateLimitingFilter rateLimitingFilter, ConcurrencyLimitingFilter concurrencyLimitingFilter, ConfigurableUrlAuthorizationManager urlAuthorizationManager) {
         this.jwtAuthFilter = jwtAuthFilter;
         this.userDetailsService = userDetailsService;
         this.rateLimitingFilter = rateLimitingFilter;
-        this.applicationConfigService = applicationConfigService;
+        this.concurrencyLimitingFilter = concurrencyLimitingFilter;
+        this.urlAuthorizationManager = urlAuthorizationManager;
+    }
+
+    /**
+     * Registers the expression handler that answers {@code hasRole}/{@code hasAuthority} checks with bit tests.
+     * Declared static so method security can pick it up without initializing this configuration early.
+     *
+     * @return The method security expression handler.
+     */
+    @Bean
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        return new BitsetMethodSecurityExpressionHandler();
     }
 
     /**
@@ -51,46 +66,58 @@ public class SecurityConfiguration {
      */
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        String[] publicUrls = Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.SECURITY_PUBLIC_URLS))
-                .map(s -> Arrays.stream(s.split(","))
-                        .map(String::trim)
-                        .filter(UrlUtil::isValidUrlPath)
-                        .map(url -> url.endsWith("/**") ? url : url + "/**")
-                        .toArray(String[]::new))
-                .orElse(new String[]{"/api/auth/**", "/api/public/password-reset/request"});
-
-        String[] privateUrls = Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.SECURITY_PRIVATE_URLS))
-                .map(s -> Arrays.stream(s.split(","))
-                        .map(String::trim)
-                        .filter(UrlUtil::isValidUrlPath)
-                        .map(url -> url.endsWith("/**") ? url : url + "/**")
-                        .toArray(String[]::new))
-                .orElse(new String[]{});
-
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
-                        .requestMatchers(publicUrls).permitAll()
-                        .requestMatchers(privateUrls).authenticated()
-                        .anyRequest().authenticated()
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        .anyRequest().access(urlAuthorizationManager)
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .userDetailsService(userDetailsService)
                 .addFilterBefore(rateLimitingFilter, UsernamePasswordAuthenticationFilter.class)
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(concurrencyLimitingFilter, JwtAuthenticationFilter.class);
         return http.build();
     }
 
     /**
-     * Provides a BCryptPasswordEncoder bean for password hashing.
+     * Provides a BCrypt-based password encoder bean for password hashing.
+     * New hashes are prefixed with {@code {bcrypt}} and use the configured strength, or one calibrated at startup
+     * against the latency target. Hashes without a prefix, stored before this encoder was introduced, still verify
+     * and report that they need upgrading.
+     * Hashing runs on a dedicated worker pool sized to the available cores, so a burst of logins cannot
+     * occupy every request thread; once the pool's queue is full, callers are rejected with a 503.
      *
+     * @param meterRegistry     The registry receiving the queue wait and hash latency metrics.
+     * @param strength          The fixed BCrypt strength, or 0 to calibrate it at startup.
+     * @param targetMillis      The per-hash latency target used by the calibration.
+     * @param minStrength       The lowest strength the calibration may pick.
+     * @param maxStrength       The highest strength the calibration may pick.
+     * @param poolSize          The number of hashing threads, or 0 to use the number of available processors.
+     * @param queueCapacity     The maximum number of hashes waiting for a thread.
+     * @param retryAfterSeconds The Retry-After value returned to rejected callers.
      * @return An instance of PasswordEncoder.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${security.password.hashing.strength:0}") int strength,
+                                           @Value("${security.password.hashing.target-millis:250}") long targetMillis,
+                                           @Value("${security.password.hashing.min-strength:10}") int minStrength,
+                                           @Value("${security.password.hashing.max-strength:16}") int maxStrength,
+                                           @Value("${security.password.hashing.pool-size:0}") int poolSize,
+                                           @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        int finalStrength = strength > 0 ? strength : BcryptStrengthCalibrator.calibrate(targetMillis, minStrength, maxStrength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(finalStrength);
+
+        DelegatingPasswordEncoder delegatingEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegatingEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(delegatingEncoder, threads, queueCapacity, retryAfterSeconds, meterRegistry);
     }
 
     /**
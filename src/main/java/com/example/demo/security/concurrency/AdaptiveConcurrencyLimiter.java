@@ -0,0 +1,146 @@
+package com.example.demo.security.concurrency;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrency limit that adapts to observed latency using additive increase and multiplicative decrease.
+ * <p>
+ * Two moving averages of the request latency are kept: a short one following the last few requests, and a long
+ * one standing in for the latency of a healthy service. While the short average stays within {@code tolerance}
+ * times the long one and the limit is actually being used, the limit grows by one per round trip. Once
+ * requests start queueing somewhere downstream, such as on the connection pool, the short average rises above
+ * that band and the limit is cut by {@code backoffRatio}, at most once per round trip.
+ * <p>
+ * Latency samples are recorded without a lock, into a window of about one round trip: as many samples as the
+ * current limit. The thread completing a window folds it into the averages and the limit while other requests
+ * keep recording into the next one. Requests beyond the limit are not queued: {@link #tryAcquire} fails immediately.
+ * <p>
+ * Requests whose latency is dominated by work the limit cannot relieve, such as password hashing on its own
+ * bounded pool, are released without a sample, so that a burst of them does not cut the limit for everyone.
+ */
+public final class AdaptiveConcurrencyLimiter {
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double LONG_SMOOTHING = 0.005;
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+
+    private final LongAdder windowRttNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private final AtomicBoolean updating = new AtomicBoolean();
+
+    private volatile double limit;
+
+    // Guarded by updating.
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Claims a slot for a request if its priority class still has room under the current limit.
+     *
+     * @param priority The priority class of the request.
+     * @return The number of requests in flight when the slot was claimed, or {@code -1} if the request is rejected.
+     */
+    public int tryAcquire(RequestPriority priority) {
+        double allowed = Math.max(1, limit * priority.getLimitShare());
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Releases the slot of a completed request and feeds its latency into the limit.
+     *
+     * @param rttNanos          The time the request took.
+     * @param inFlightAtAcquire The value returned by {@link #tryAcquire} for the request.
+     */
+    public void release(long rttNanos, int inFlightAtAcquire) {
+        inFlight.decrementAndGet();
+        onSample(rttNanos, inFlightAtAcquire);
+    }
+
+    /**
+     * Releases the slot of a completed request without feeding its latency into the limit.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return The current concurrency limit.
+     */
+    public double getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return The number of requests currently in flight.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void onSample(long rttNanos, int inFlightAtAcquire) {
+        windowRttNanos.add(rttNanos);
+        windowSamples.increment();
+        windowMaxInFlight.accumulateAndGet(inFlightAtAcquire, Math::max);
+        if (windowSamples.sum() >= Math.max(MIN_WINDOW_SAMPLES, limit) && updating.compareAndSet(false, true)) {
+            try {
+                closeWindow();
+            } finally {
+                updating.set(false);
+            }
+        }
+    }
+
+    /**
+     * Folds the samples of the completed window into the averages and adjusts the limit once.
+     * A sample recorded while the window is being reset may be counted in the next window; the averages
+     * tolerate that.
+     */
+    private void closeWindow() {
+        long samples = windowSamples.sumThenReset();
+        long rttSum = windowRttNanos.sumThenReset();
+        int maxInFlight = windowMaxInFlight.getAndSet(0);
+        if (samples == 0) {
+            return;
+        }
+        double rttNanos = (double) rttSum / samples;
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        // Same decay as applying each sample of the window in turn.
+        shortRttNanos += (rttNanos - shortRttNanos) * (1 - Math.pow(1 - SHORT_SMOOTHING, samples));
+        longRttNanos += (rttNanos - longRttNanos) * (1 - Math.pow(1 - LONG_SMOOTHING, samples));
+
+        double current = limit;
+        if (shortRttNanos > longRttNanos * tolerance) {
+            limit = Math.max(minLimit, current * backoffRatio);
+        } else if (maxInFlight * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1);
+        }
+    }
+}
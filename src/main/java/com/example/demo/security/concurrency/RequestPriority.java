@@ -0,0 +1,33 @@
+package com.example.demo.security.concurrency;
+
+/**
+ * The priority classes of the adaptive concurrency limit. Each class may only use a share of the current limit,
+ * so lower classes are turned away first and the remaining headroom is kept for higher ones.
+ */
+public enum RequestPriority {
+    /**
+     * Health checks and administrators, which may use the whole limit.
+     */
+    CRITICAL(1.0),
+    /**
+     * Other authenticated users.
+     */
+    AUTHENTICATED(0.9),
+    /**
+     * Anonymous traffic such as authentication and password-reset requests.
+     */
+    ANONYMOUS(0.7);
+
+    private final double limitShare;
+
+    RequestPriority(double limitShare) {
+        this.limitShare = limitShare;
+    }
+
+    /**
+     * @return The fraction of the concurrency limit requests of this class may occupy.
+     */
+    public double getLimitShare() {
+        return limitShare;
+    }
+}
@@ -4,8 +4,10 @@ import com.example.demo.controller.BaseController;
 import com.example.demo.security.dto.ApiResponse;
 import com.example.demo.security.dto.AuthenticationRequest;
 import com.example.demo.security.dto.AuthenticationResponse;
+import com.example.demo.security.dto.RefreshTokenRequest;
 import com.example.demo.security.service.AuthenticationService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -15,7 +17,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 /**
  * REST controller for handling authentication-related requests.
- * This controller provides endpoints for user login.
+ * This controller provides endpoints for user login and access token refresh.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -38,4 +40,16 @@ public class AuthenticationController extends BaseController {
         AuthenticationResponse response = authenticationService.authenticate(request, httpRequest);
         return buildSuccessResponse(HttpStatus.OK, "Authentication successful.", response);
     }
+
+    /**
+     * Exchanges a refresh token for a new JWT token and a new refresh token.
+     *
+     * @param request The refresh request containing the refresh token.
+     * @return A ResponseEntity with the new tokens and user details in the body.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<AuthenticationResponse>> refresh(@RequestBody @Valid RefreshTokenRequest request) {
+        AuthenticationResponse response = authenticationService.refresh(request);
+        return buildSuccessResponse(HttpStatus.OK, "Token refresh successful.", response);
+    }
 }
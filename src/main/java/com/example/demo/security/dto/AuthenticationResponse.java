@@ -4,7 +4,7 @@ import com.example.demo.user.dto.UserDto;
 
 /**
  * Represents the response object for user authentication.
- * This class includes the JWT token and the user's details upon successful authentication.
+ * This class includes the JWT token, the refresh token and the user's details upon successful authentication.
  */
 public class AuthenticationResponse {
 
@@ -13,13 +13,19 @@ public class AuthenticationResponse {
      */
     private String jwtToken;
 
+    /**
+     * The refresh token used to obtain a new JWT token once the current one expires.
+     */
+    private String refreshToken;
+
     /**
      * The user details associated with the JWT token.
      */
     private UserDto userDto;
 
-    public AuthenticationResponse(String jwtToken, UserDto userDto) {
+    public AuthenticationResponse(String jwtToken, String refreshToken, UserDto userDto) {
         this.jwtToken = jwtToken;
+        this.refreshToken = refreshToken;
         this.userDto = userDto;
     }
 
@@ -31,6 +37,14 @@ public class AuthenticationResponse {
         this.jwtToken = jwtToken;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public UserDto getUserDto() {
         return userDto;
     }
@@ -0,0 +1,31 @@
+package com.example.demo.security.dto;
+
+import com.example.demo.util.constants.ValidationMessages;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Data Transfer Object (DTO) for exchanging a refresh token for a new access token.
+ */
+public class RefreshTokenRequest {
+
+    /**
+     * The refresh token issued by a previous login or refresh.
+     */
+    @NotBlank(message = ValidationMessages.REFRESH_TOKEN_CANNOT_BE_BLANK)
+    private String refreshToken;
+
+    public RefreshTokenRequest() {
+    }
+
+    public RefreshTokenRequest(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.security.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Custom event fired when the permissions granted by a role change.
+ * Every user holding the role is affected.
+ */
+public class RoleSecurityChangedEvent extends ApplicationEvent {
+    private final Long roleId;
+    private final String roleName;
+
+    public RoleSecurityChangedEvent(Object source, Long roleId, String roleName) {
+        super(source);
+        this.roleId = roleId;
+        this.roleName = roleName;
+    }
+
+    public Long getRoleId() {
+        return roleId;
+    }
+
+    public String getRoleName() {
+        return roleName;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.security.event;
+
+import com.example.demo.security.service.AuthoritySnapshotService;
+import com.example.demo.security.service.PrincipalCacheService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts cached security state once a change to a user or role has been committed.
+ * Listening after commit guarantees that the next load sees the new state.
+ */
+@Component
+public class SecurityChangeEventHandler {
+
+    private final PrincipalCacheService principalCacheService;
+    private final AuthoritySnapshotService authoritySnapshotService;
+
+    public SecurityChangeEventHandler(PrincipalCacheService principalCacheService, AuthoritySnapshotService authoritySnapshotService) {
+        this.principalCacheService = principalCacheService;
+        this.authoritySnapshotService = authoritySnapshotService;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserSecurityChangedEvent(UserSecurityChangedEvent event) {
+        event.getUsernames().forEach(principalCacheService::evict);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleRoleSecurityChangedEvent(RoleSecurityChangedEvent event) {
+        // Drop the snapshot first, so principals reloaded after the eviction see the new permissions.
+        authoritySnapshotService.invalidate();
+        principalCacheService.evictByRole(event.getRoleName());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.security.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Custom event fired when a change to one or more users affects their authentication state,
+ * such as a password change, a lock, an expiry or a role assignment.
+ * Listeners use it to drop anything derived from the users' previous state.
+ */
+public class UserSecurityChangedEvent extends ApplicationEvent {
+    private final Collection<String> usernames;
+
+    public UserSecurityChangedEvent(Object source, String username) {
+        this(source, List.of(username));
+    }
+
+    public UserSecurityChangedEvent(Object source, Collection<String> usernames) {
+        super(source);
+        this.usernames = List.copyOf(usernames);
+    }
+
+    public Collection<String> getUsernames() {
+        return usernames;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.demo.security.ratelimit;
+
+/**
+ * An IPv4 or IPv6 address held as a 128-bit value in two {@code long}s.
+ * IPv4 addresses are stored in their IPv4-mapped IPv6 form ({@code ::ffff:a.b.c.d}), so both families share one
+ * key space and one prefix trie. Parsing is done by hand on the literal and never triggers a DNS lookup.
+ *
+ * @param high The upper 64 bits of the address.
+ * @param low  The lower 64 bits of the address.
+ */
+public record IpAddress(long high, long low) {
+
+    /**
+     * The address used when a request carries no parseable client address.
+     */
+    public static final IpAddress UNSPECIFIED = new IpAddress(0L, 0xFFFF_0000_0000L);
+
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFFL << 32;
+    private static final int IPV4_OFFSET = 96;
+
+    /**
+     * Parses an IPv4 or IPv6 literal. An IPv6 zone identifier ({@code %eth0}) and surrounding brackets are ignored.
+     *
+     * @param value The literal.
+     * @return The address, or {@code null} if the value is not a valid IP address literal.
+     */
+    public static IpAddress parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        String literal = value.trim();
+        if (literal.startsWith("[") && literal.endsWith("]")) {
+            literal = literal.substring(1, literal.length() - 1);
+        }
+        int zone = literal.indexOf('%');
+        if (zone >= 0) {
+            literal = literal.substring(0, zone);
+        }
+        if (literal.indexOf(':') < 0) {
+            long ipv4 = parseIpv4(literal, 0, literal.length());
+            return ipv4 < 0 ? null : new IpAddress(0L, IPV4_MAPPED_PREFIX | ipv4);
+        }
+        return parseIpv6(literal);
+    }
+
+    /**
+     * @return {@code true} if this is an IPv4 address in its mapped form.
+     */
+    public boolean isIpv4() {
+        return high == 0L && (low & 0xFFFF_FFFF_0000_0000L) == IPV4_MAPPED_PREFIX;
+    }
+
+    /**
+     * Converts a prefix length of the address's own family to a prefix length in the 128-bit key space.
+     *
+     * @param familyPrefixLength A prefix length between 0 and 32 for IPv4, or 0 and 128 for IPv6.
+     * @return The prefix length in the 128-bit key space.
+     */
+    public int toKeyPrefixLength(int familyPrefixLength) {
+        return isIpv4() ? IPV4_OFFSET + familyPrefixLength : familyPrefixLength;
+    }
+
+    /**
+     * Returns the bit at a position of the 128-bit key, counted from the most significant bit.
+     *
+     * @param index The bit position, between 0 and 127.
+     * @return {@code 0} or {@code 1}.
+     */
+    public int bit(int index) {
+        return index < 64 ? (int) (high >>> (63 - index)) & 1 : (int) (low >>> (127 - index)) & 1;
+    }
+
+    /**
+     * Clears every bit beyond a prefix, yielding the network address of the prefix.
+     *
+     * @param keyPrefixLength The prefix length in the 128-bit key space.
+     * @return The network address.
+     */
+    public IpAddress mask(int keyPrefixLength) {
+        if (keyPrefixLength >= 128) {
+            return this;
+        }
+        if (keyPrefixLength <= 0) {
+            return new IpAddress(0L, 0L);
+        }
+        if (keyPrefixLength <= 64) {
+            return new IpAddress(high & (-1L << (64 - keyPrefixLength)), 0L);
+        }
+        return new IpAddress(high, low & (-1L << (128 - keyPrefixLength)));
+    }
+
+    /**
+     * Formats the address in its canonical form: dotted quad for IPv4, RFC 5952 compressed hexadecimal for IPv6.
+     *
+     * @return The canonical literal.
+     */
+    @Override
+    public String toString() {
+        if (isIpv4()) {
+            return ((low >>> 24) & 0xFF) + "." + ((low >>> 16) & 0xFF) + "." + ((low >>> 8) & 0xFF) + "." + (low & 0xFF);
+        }
+        int[] groups = new int[8];
+        for (int i = 0; i < 8; i++) {
+            long half = i < 4 ? high : low;
+            groups[i] = (int) (half >>> (48 - 16 * (i % 4))) & 0xFFFF;
+        }
+        int bestStart = -1;
+        int bestLength = 1;
+        for (int i = 0; i < 8; ) {
+            int j = i;
+            while (j < 8 && groups[j] == 0) {
+                j++;
+            }
+            if (j - i > bestLength) {
+                bestStart = i;
+                bestLength = j - i;
+            }
+            i = j > i ? j : i + 1;
+        }
+        StringBuilder sb = new StringBuilder(39);
+        for (int i = 0; i < 8; i++) {
+            if (i == bestStart) {
+                sb.append("::");
+                i += bestLength - 1;
+                continue;
+            }
+            if (sb.length() > 0 && sb.charAt(sb.length() - 1) != ':') {
+                sb.append(':');
+            }
+            sb.append(Integer.toHexString(groups[i]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 literal.
+     *
+     * @return The address as an unsigned 32-bit value, or {@code -1} if the literal is invalid.
+     */
+    private static long parseIpv4(String value, int start, int end) {
+        long result = 0;
+        int octets = 0;
+        int i = start;
+        while (i <= end) {
+            int octet = 0;
+            int digits = 0;
+            while (i < end && value.charAt(i) != '.') {
+                char c = value.charAt(i);
+                if (c < '0' || c > '9' || ++digits > 3) {
+                    return -1;
+                }
+                octet = octet * 10 + (c - '0');
+                i++;
+            }
+            if (digits == 0 || octet > 255 || ++octets > 4) {
+                return -1;
+            }
+            result = (result << 8) | octet;
+            i++;
+        }
+        return octets == 4 ? result : -1;
+    }
+
+    /**
+     * Parses an IPv6 literal, including {@code ::} compression and an embedded IPv4 tail.
+     *
+     * @return The address, or {@code null} if the literal is invalid.
+     */
+    private static IpAddress parseIpv6(String value) {
+        int[] groups = new int[8];
+        int count = 0;
+        int compressAt = -1;
+        int length = value.length();
+        int i = 0;
+        if (value.startsWith("::")) {
+            compressAt = 0;
+            i = 2;
+        }
+        while (i < length) {
+            if (count == 8) {
+                return null;
+            }
+            int end = value.indexOf(':', i);
+            if (end < 0) {
+                end = length;
+            }
+            if (value.indexOf('.', i) >= 0 && value.indexOf('.', i) < end) {
+                // Embedded IPv4 tail, e.g. ::ffff:192.0.2.1.
+                long ipv4 = end == length && count <= 6 ? parseIpv4(value, i, length) : -1;
+                if (ipv4 < 0) {
+                    return null;
+                }
+                groups[count++] = (int) (ipv4 >>> 16);
+                groups[count++] = (int) (ipv4 & 0xFFFF);
+                break;
+            }
+            if (end == i || end - i > 4) {
+                return null;
+            }
+            int group = 0;
+            for (int k = i; k < end; k++) {
+                int digit = Character.digit(value.charAt(k), 16);
+                if (digit < 0) {
+                    return null;
+                }
+                group = (group << 4) | digit;
+            }
+            groups[count++] = group;
+            if (end == length) {
+                break;
+            }
+            if (end + 1 < length && value.charAt(end + 1) == ':') {
+                if (compressAt >= 0) {
+                    return null;
+                }
+                compressAt = count;
+                i = end + 2;
+            } else if (end + 1 == length) {
+                return null;
+            } else {
+                i = end + 1;
+            }
+        }
+        if (compressAt >= 0) {
+            if (count == 8) {
+                return null;
+            }
+            int shift = 8 - count;
+            System.arraycopy(groups, compressAt, groups, compressAt + shift, count - compressAt);
+            for (int k = compressAt; k < compressAt + shift; k++) {
+                groups[k] = 0;
+            }
+        } else if (count != 8) {
+            return null;
+        }
+        long high = 0;
+        long low = 0;
+        for (int k = 0; k < 4; k++) {
+            high = (high << 16) | groups[k];
+            low = (low << 16) | groups[k + 4];
+        }
+        return new IpAddress(high, low);
+    }
+}
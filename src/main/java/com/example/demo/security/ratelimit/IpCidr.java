@@ -0,0 +1,42 @@
+package com.example.demo.security.ratelimit;
+
+/**
+ * An address range in CIDR notation, normalized to the 128-bit key space of {@link IpAddress}.
+ *
+ * @param network         The first address of the range.
+ * @param prefixLength    The prefix length as written, relative to the address family.
+ * @param keyPrefixLength The prefix length in the 128-bit key space, used by {@link IpPrefixTrie}.
+ */
+public record IpCidr(IpAddress network, int prefixLength, int keyPrefixLength) {
+
+    /**
+     * Parses a range such as {@code 10.0.0.0/8} or {@code 2001:db8::/32}. A bare address is a single-address range.
+     *
+     * @param value The range.
+     * @return The range, with its address masked to the prefix.
+     * @throws IllegalArgumentException If the value is not a valid range.
+     */
+    public static IpCidr parse(String value) {
+        String cidr = value.trim();
+        int slash = cidr.indexOf('/');
+        IpAddress address = IpAddress.parse(slash >= 0 ? cidr.substring(0, slash) : cidr);
+        if (address == null) {
+            throw new IllegalArgumentException("Invalid address: " + value);
+        }
+        int maxLength = address.isIpv4() ? 32 : 128;
+        int prefixLength = slash >= 0 ? Integer.parseInt(cidr.substring(slash + 1).trim()) : maxLength;
+        if (prefixLength < 0 || prefixLength > maxLength) {
+            throw new IllegalArgumentException("Invalid prefix length: " + value);
+        }
+        int keyPrefixLength = address.toKeyPrefixLength(prefixLength);
+        return new IpCidr(address.mask(keyPrefixLength), prefixLength, keyPrefixLength);
+    }
+
+    /**
+     * @return The range in canonical CIDR notation.
+     */
+    @Override
+    public String toString() {
+        return network + "/" + prefixLength;
+    }
+}
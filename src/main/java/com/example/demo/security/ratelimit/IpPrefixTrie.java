@@ -0,0 +1,117 @@
+package com.example.demo.security.ratelimit;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * An immutable binary radix trie over 128-bit {@link IpAddress} keys, mapping CIDR prefixes to values.
+ * <p>
+ * Nodes live in parallel arrays indexed by node number, so a lookup is a walk of at most 128 array reads and
+ * allocates nothing, regardless of the number of prefixes.
+ *
+ * @param <V> The type of the values.
+ */
+public final class IpPrefixTrie<V> {
+
+    private final int[] zeroChild;
+    private final int[] oneChild;
+    private final Object[] values;
+
+    private IpPrefixTrie(int[] zeroChild, int[] oneChild, Object[] values) {
+        this.zeroChild = zeroChild;
+        this.oneChild = oneChild;
+        this.values = values;
+    }
+
+    /**
+     * @param <V> The type of the values.
+     * @return A builder for a new trie.
+     */
+    public static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Finds the value of the longest prefix containing the address that satisfies a condition.
+     *
+     * @param address   The address to look up.
+     * @param condition Decides whether a value applies, e.g. whether it has expired.
+     * @return The value of the longest applicable prefix, or {@code null} if none contains the address.
+     */
+    @SuppressWarnings("unchecked")
+    public V longestMatch(IpAddress address, Predicate<V> condition) {
+        V match = null;
+        int node = 0;
+        for (int depth = 0; ; depth++) {
+            Object value = values[node];
+            if (value != null && condition.test((V) value)) {
+                match = (V) value;
+            }
+            if (depth == 128) {
+                return match;
+            }
+            node = address.bit(depth) == 0 ? zeroChild[node] : oneChild[node];
+            if (node == 0) {
+                return match;
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the trie holds no prefix.
+     */
+    public boolean isEmpty() {
+        return values.length == 1 && values[0] == null;
+    }
+
+    /**
+     * Collects prefixes into a trie. A prefix added twice keeps the later value.
+     *
+     * @param <V> The type of the values.
+     */
+    public static final class Builder<V> {
+        private int[] zeroChild = new int[64];
+        private int[] oneChild = new int[64];
+        private Object[] values = new Object[64];
+        private int size = 1;
+
+        /**
+         * Adds a prefix.
+         *
+         * @param network         The network address of the prefix.
+         * @param keyPrefixLength The prefix length in the 128-bit key space.
+         * @param value           The value of the prefix.
+         * @return This builder.
+         */
+        public Builder<V> put(IpAddress network, int keyPrefixLength, V value) {
+            int node = 0;
+            for (int depth = 0; depth < keyPrefixLength; depth++) {
+                int[] children = network.bit(depth) == 0 ? zeroChild : oneChild;
+                if (children[node] == 0) {
+                    ensureCapacity();
+                    // ensureCapacity may have replaced the arrays.
+                    children = network.bit(depth) == 0 ? zeroChild : oneChild;
+                    children[node] = size++;
+                }
+                node = children[node];
+            }
+            values[node] = value;
+            return this;
+        }
+
+        /**
+         * @return The immutable trie.
+         */
+        public IpPrefixTrie<V> build() {
+            return new IpPrefixTrie<>(Arrays.copyOf(zeroChild, size), Arrays.copyOf(oneChild, size), Arrays.copyOf(values, size));
+        }
+
+        private void ensureCapacity() {
+            if (size == values.length) {
+                zeroChild = Arrays.copyOf(zeroChild, size * 2);
+                oneChild = Arrays.copyOf(oneChild, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+        }
+    }
+}
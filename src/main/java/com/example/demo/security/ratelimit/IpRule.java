@@ -0,0 +1,20 @@
+package com.example.demo.security.ratelimit;
+
+/**
+ * A rule for an address range, compiled from the {@code rate.limit.ip.rules} configuration.
+ *
+ * @param cidr            The range in CIDR notation, as configured. Also the key of the range's shared budget.
+ * @param action          What happens to requests from the range.
+ * @param policy          The budget shared by the range for {@link IpRuleAction#LIMIT}, otherwise {@code null}.
+ * @param expiresAtMillis The epoch millis at which a temporary rule stops applying, or {@link Long#MAX_VALUE}.
+ */
+public record IpRule(String cidr, IpRuleAction action, RateLimitPolicy policy, long expiresAtMillis) {
+
+    /**
+     * @param nowMillis The current epoch millis.
+     * @return {@code true} if the rule still applies.
+     */
+    public boolean isActive(long nowMillis) {
+        return nowMillis < expiresAtMillis;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.security.ratelimit;
+
+/**
+ * What happens to requests from an address range listed in the IP rules.
+ */
+public enum IpRuleAction {
+    /**
+     * Requests are exempt from all rate limits, e.g. for trusted internal networks.
+     */
+    ALLOW,
+    /**
+     * Requests are refused before they reach any endpoint.
+     */
+    BLOCK,
+    /**
+     * All addresses of the range share one additional rate limit budget.
+     */
+    LIMIT
+}
@@ -0,0 +1,19 @@
+package com.example.demo.security.ratelimit;
+
+/**
+ * Defines how requests for a new key are handled once the bucket store has reached its capacity.
+ */
+public enum OverflowPolicy {
+    /**
+     * All keys that do not fit share a single bucket, so unknown clients are still limited as a group.
+     */
+    SHARED,
+    /**
+     * Requests for keys that do not fit are rejected.
+     */
+    REJECT,
+    /**
+     * Requests for keys that do not fit are allowed without limiting.
+     */
+    ALLOW
+}
@@ -0,0 +1,23 @@
+package com.example.demo.security.ratelimit;
+
+/**
+ * The independent budgets a rate-limited request draws on.
+ */
+public enum RateLimitDimension {
+    /**
+     * The budget shared by all addresses of a range with an IP rule.
+     */
+    PREFIX,
+    /**
+     * The budget of the client IP address, shared by every user and route behind it.
+     */
+    IP,
+    /**
+     * The budget of the authenticated user, shared by every IP address and route the user calls from.
+     */
+    USER,
+    /**
+     * The budget of a caller on one route group, the longest matching rate-limited URL prefix.
+     */
+    ROUTE
+}
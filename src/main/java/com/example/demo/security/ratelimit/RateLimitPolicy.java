@@ -0,0 +1,25 @@
+package com.example.demo.security.ratelimit;
+
+/**
+ * An immutable, versioned rate limit: {@code capacity} requests per {@code periodNanos}.
+ * A new version is created whenever the configuration changes; buckets adopt it on their next use.
+ *
+ * @param version     The version of the configuration this policy was compiled from.
+ * @param capacity    The maximum number of requests in a burst.
+ * @param periodNanos The time in nanoseconds in which an empty bucket refills completely.
+ */
+public record RateLimitPolicy(long version, int capacity, long periodNanos) {
+
+    public RateLimitPolicy {
+        if (capacity < 1 || periodNanos < 1) {
+            throw new IllegalArgumentException("A rate limit needs a capacity and a refill duration of at least 1");
+        }
+    }
+
+    /**
+     * @return The time in nanoseconds it takes to refill a single token.
+     */
+    public long intervalNanos() {
+        return Math.max(1, periodNanos / capacity);
+    }
+}
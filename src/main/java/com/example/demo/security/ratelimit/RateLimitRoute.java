@@ -0,0 +1,10 @@
+package com.example.demo.security.ratelimit;
+
+/**
+ * A rate-limited route, matched by URL prefix.
+ *
+ * @param prefix The URL prefix of the route.
+ * @param policy The limit applied to the route: its own override, or the global policy.
+ */
+public record RateLimitRoute(String prefix, RateLimitPolicy policy) {
+}
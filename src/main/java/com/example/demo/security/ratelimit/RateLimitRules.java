@@ -0,0 +1,428 @@
+package com.example.demo.security.ratelimit;
+
+import com.example.demo.config.constants.ApplicationConfigKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * The compiled form of the rate-limit configuration.
+ * Included URL prefixes and per-route overrides share one prefix trie, excluded URL suffixes form a suffix trie,
+ * and every route carries its parsed {@link RateLimitPolicy}. The optional per-IP and per-user budgets apply on top
+ * of the route's budget; address ranges may be allowed, blocked or given a shared budget through a prefix trie
+ * of IP rules. All budgets are either local to the node or shared by the cluster. All parsing happens here, once per configuration change.
+ * The rules are compiled again, as a new policy version, whenever one of the {@link #CONFIG_KEYS} changes.
+ */
+public final class RateLimitRules {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitRules.class);
+
+    private static final int DEFAULT_CAPACITY = 500;
+    private static final long DEFAULT_REFILL_DURATION_MINUTES = 1L;
+    private static final int DEFAULT_MAX_BUCKETS = 100_000;
+    private static final int DEFAULT_LEASE_SIZE = 10;
+    private static final int DEFAULT_IPV4_PREFIX_LENGTH = 32;
+    private static final int DEFAULT_IPV6_PREFIX_LENGTH = 64;
+
+    /**
+     * The configuration keys the rules are compiled from.
+     */
+    public static final List<String> CONFIG_KEYS = List.of(
+            ApplicationConfigKeys.RATE_LIMIT_ENABLED,
+            ApplicationConfigKeys.RATE_LIMIT_INCLUDED_URLS,
+            ApplicationConfigKeys.RATE_LIMIT_EXCLUDED_URLS,
+            ApplicationConfigKeys.RATE_LIMIT_ROUTE_OVERRIDES,
+            ApplicationConfigKeys.RATE_LIMIT_CAPACITY,
+            ApplicationConfigKeys.RATE_LIMIT_REFILL_DURATION_MINUTES,
+            ApplicationConfigKeys.RATE_LIMIT_IP_CAPACITY,
+            ApplicationConfigKeys.RATE_LIMIT_IP_REFILL_DURATION_MINUTES,
+            ApplicationConfigKeys.RATE_LIMIT_IPV4_PREFIX_LENGTH,
+            ApplicationConfigKeys.RATE_LIMIT_IPV6_PREFIX_LENGTH,
+            ApplicationConfigKeys.RATE_LIMIT_IP_RULES,
+            ApplicationConfigKeys.RATE_LIMIT_USER_CAPACITY,
+            ApplicationConfigKeys.RATE_LIMIT_USER_REFILL_DURATION_MINUTES,
+            ApplicationConfigKeys.RATE_LIMIT_MAX_BUCKETS,
+            ApplicationConfigKeys.RATE_LIMIT_OVERFLOW_POLICY,
+            ApplicationConfigKeys.RATE_LIMIT_CLUSTER_ENABLED,
+            ApplicationConfigKeys.RATE_LIMIT_CLUSTER_LEASE_SIZE);
+
+    private final boolean enabled;
+    private final RateLimitPolicy defaultPolicy;
+    private final RateLimitPolicy ipPolicy;
+    private final RateLimitPolicy userPolicy;
+    private final int ipv4PrefixLength;
+    private final int ipv6PrefixLength;
+    private final IpPrefixTrie<IpRule> ipRules;
+    private final int maxBuckets;
+    private final OverflowPolicy overflowPolicy;
+    private final boolean clusterEnabled;
+    private final int leaseSize;
+    private final UrlTrie<RateLimitRoute> includedRoutes;
+    private final UrlTrie<Boolean> excludedSuffixes;
+
+    private RateLimitRules(String[] rawValues, long version) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < CONFIG_KEYS.size(); i++) {
+            if (rawValues[i] != null) {
+                values.put(CONFIG_KEYS.get(i), rawValues[i]);
+            }
+        }
+
+        this.enabled = Boolean.parseBoolean(values.get(ApplicationConfigKeys.RATE_LIMIT_ENABLED));
+
+        int capacity = parsePositive(values, ApplicationConfigKeys.RATE_LIMIT_CAPACITY, DEFAULT_CAPACITY);
+        long refillDurationMinutes = parsePositive(values, ApplicationConfigKeys.RATE_LIMIT_REFILL_DURATION_MINUTES, DEFAULT_REFILL_DURATION_MINUTES);
+        this.defaultPolicy = new RateLimitPolicy(version, capacity, TimeUnit.MINUTES.toNanos(refillDurationMinutes));
+        this.ipPolicy = dimensionPolicy(values, ApplicationConfigKeys.RATE_LIMIT_IP_CAPACITY,
+                ApplicationConfigKeys.RATE_LIMIT_IP_REFILL_DURATION_MINUTES, version);
+        this.userPolicy = dimensionPolicy(values, ApplicationConfigKeys.RATE_LIMIT_USER_CAPACITY,
+                ApplicationConfigKeys.RATE_LIMIT_USER_REFILL_DURATION_MINUTES, version);
+        this.ipv4PrefixLength = Math.min(32, Math.max(0, parse(values, ApplicationConfigKeys.RATE_LIMIT_IPV4_PREFIX_LENGTH,
+                Integer::parseInt, DEFAULT_IPV4_PREFIX_LENGTH)));
+        this.ipv6PrefixLength = Math.min(128, Math.max(0, parse(values, ApplicationConfigKeys.RATE_LIMIT_IPV6_PREFIX_LENGTH,
+                Integer::parseInt, DEFAULT_IPV6_PREFIX_LENGTH)));
+        IpPrefixTrie.Builder<IpRule> ipRuleBuilder = IpPrefixTrie.builder();
+        split(values.get(ApplicationConfigKeys.RATE_LIMIT_IP_RULES)).forEach(entry -> parseIpRule(entry, version, ipRuleBuilder));
+        this.ipRules = ipRuleBuilder.build();
+        this.maxBuckets = parse(values, ApplicationConfigKeys.RATE_LIMIT_MAX_BUCKETS, Integer::parseInt, DEFAULT_MAX_BUCKETS);
+        this.overflowPolicy = parse(values, ApplicationConfigKeys.RATE_LIMIT_OVERFLOW_POLICY,
+                value -> OverflowPolicy.valueOf(value.trim().toUpperCase()), OverflowPolicy.SHARED);
+        this.clusterEnabled = Boolean.parseBoolean(values.get(ApplicationConfigKeys.RATE_LIMIT_CLUSTER_ENABLED));
+        this.leaseSize = Math.max(1, parse(values, ApplicationConfigKeys.RATE_LIMIT_CLUSTER_LEASE_SIZE, Integer::parseInt, DEFAULT_LEASE_SIZE));
+
+        Map<String, RateLimitRoute> routes = new HashMap<>();
+        split(values.get(ApplicationConfigKeys.RATE_LIMIT_INCLUDED_URLS))
+                .forEach(prefix -> routes.put(prefix, new RateLimitRoute(prefix, defaultPolicy)));
+        split(values.get(ApplicationConfigKeys.RATE_LIMIT_ROUTE_OVERRIDES))
+                .forEach(entry -> parseOverride(entry, version, routes));
+        this.includedRoutes = UrlTrie.ofPrefixes(routes);
+
+        Map<String, Boolean> suffixes = new HashMap<>();
+        split(values.get(ApplicationConfigKeys.RATE_LIMIT_EXCLUDED_URLS)).forEach(suffix -> suffixes.put(suffix, Boolean.TRUE));
+        this.excludedSuffixes = UrlTrie.ofSuffixes(suffixes);
+    }
+
+    /**
+     * Compiles the rate-limit configuration.
+     *
+     * @param config  Looks up the raw value of a configuration key.
+     * @param version The version assigned to the policies of the compiled rules.
+     * @return The compiled rules.
+     */
+    public static RateLimitRules compile(Function<String, String> config, long version) {
+        return new RateLimitRules(readRawValues(config), version);
+    }
+
+    /**
+     * Finds the rate-limited route of a request URI.
+     *
+     * @param requestUri The request URI.
+     * @return The most specific matching route, or {@code null} if rate limiting is disabled,
+     * no included prefix matches or an excluded suffix matches.
+     */
+    public RateLimitRoute match(String requestUri) {
+        if (!enabled || requestUri == null) {
+            return null;
+        }
+        RateLimitRoute route = includedRoutes.longestMatch(requestUri);
+        if (route == null || excludedSuffixes.matches(requestUri)) {
+            return null;
+        }
+        return route;
+    }
+
+    /**
+     * Finds the rule of the most specific active address range containing an address.
+     * Unlike routes, IP rules apply even when rate limiting is disabled, so blocked ranges stay blocked.
+     *
+     * @param address The client address.
+     * @return The rule, or {@code null} if no active rule covers the address.
+     */
+    public IpRule matchIp(IpAddress address) {
+        if (ipRules.isEmpty()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        return ipRules.longestMatch(address, rule -> rule.isActive(now));
+    }
+
+    /**
+     * Builds the key of the per-IP budget of an address. Addresses are aggregated to the configured prefix length
+     * of their family, so a client cannot gain a fresh budget by rotating through the addresses of its network.
+     *
+     * @param address The client address.
+     * @return The bucket key.
+     */
+    public String getIpBucketKey(IpAddress address) {
+        int prefixLength = address.isIpv4() ? ipv4PrefixLength : ipv6PrefixLength;
+        return "ip:" + address.mask(address.toKeyPrefixLength(prefixLength)) + "/" + prefixLength;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return {@code true} if budgets are shared by all nodes through leased tokens, {@code false} if each node
+     * enforces them on its own.
+     */
+    public boolean isClusterEnabled() {
+        return clusterEnabled;
+    }
+
+    /**
+     * @return The preferred number of tokens a node leases from a shared budget at once.
+     */
+    public int getLeaseSize() {
+        return leaseSize;
+    }
+
+    public RateLimitPolicy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    /**
+     * @return The per-IP policy, or {@code null} if IP addresses have no budget of their own.
+     */
+    public RateLimitPolicy getIpPolicy() {
+        return ipPolicy;
+    }
+
+    /**
+     * @return The per-user policy, or {@code null} if users have no budget of their own.
+     */
+    public RateLimitPolicy getUserPolicy() {
+        return userPolicy;
+    }
+
+    /**
+     * Parses the policy of an optional budget; its refill duration defaults to the global one.
+     *
+     * @param values      The raw configuration values.
+     * @param capacityKey The key of the budget's capacity.
+     * @param durationKey The key of the budget's refill duration in minutes.
+     * @param version     The version assigned to the policy.
+     * @return The policy, or {@code null} if the capacity is missing or not positive.
+     */
+    private RateLimitPolicy dimensionPolicy(Map<String, String> values, String capacityKey, String durationKey, long version) {
+        int capacity = parse(values, capacityKey, Integer::parseInt, 0);
+        if (capacity <= 0) {
+            return null;
+        }
+        long defaultMinutes = TimeUnit.NANOSECONDS.toMinutes(defaultPolicy.periodNanos());
+        long periodNanos = TimeUnit.MINUTES.toNanos(parsePositive(values, durationKey, defaultMinutes));
+        return new RateLimitPolicy(version, capacity, periodNanos);
+    }
+
+    /**
+     * Parses a {@code cidr=ALLOW}, {@code cidr=BLOCK} or {@code cidr=capacity/minutes} rule, logging and skipping it
+     * if it is invalid.
+     *
+     * @param entry   The raw rule.
+     * @param version The version assigned to the rule's policy.
+     * @param builder The trie to add the rule to.
+     */
+    private void parseIpRule(String entry, long version, IpPrefixTrie.Builder<IpRule> builder) {
+        try {
+            addIpRule(entry, version, defaultPolicy.periodNanos(), builder);
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring invalid rate limit IP rule: {}", entry);
+        }
+    }
+
+    /**
+     * Parses a {@code cidr=ALLOW}, {@code cidr=BLOCK} or {@code cidr=capacity/minutes} rule. Any of them may end
+     * in {@code @instant}, an ISO-8601 instant after which the rule no longer applies. A bare address is a
+     * single-address range.
+     *
+     * @param entry              The raw rule.
+     * @param version            The version assigned to the rule's policy.
+     * @param defaultPeriodNanos The refill duration of a limit without {@code /minutes}.
+     * @param builder            The trie to add the rule to.
+     * @throws RuntimeException If the rule is invalid.
+     */
+    private static void addIpRule(String entry, long version, long defaultPeriodNanos, IpPrefixTrie.Builder<IpRule> builder) {
+        int separator = entry.indexOf('=');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Expected cidr=rule: " + entry);
+        }
+        String cidr = entry.substring(0, separator).trim();
+        String rule = entry.substring(separator + 1).trim();
+
+        long expiresAtMillis = Long.MAX_VALUE;
+        int at = rule.indexOf('@');
+        if (at >= 0) {
+            expiresAtMillis = Instant.parse(rule.substring(at + 1).trim()).toEpochMilli();
+            rule = rule.substring(0, at).trim();
+        }
+
+        IpCidr range = IpCidr.parse(cidr);
+        String canonical = range.toString();
+
+        IpRule ipRule;
+        if (rule.equalsIgnoreCase(IpRuleAction.ALLOW.name()) || rule.equalsIgnoreCase(IpRuleAction.BLOCK.name())) {
+            ipRule = new IpRule(canonical, IpRuleAction.valueOf(rule.toUpperCase()), null, expiresAtMillis);
+        } else {
+            ipRule = new IpRule(canonical, IpRuleAction.LIMIT, parseLimit(rule, version, defaultPeriodNanos), expiresAtMillis);
+        }
+        builder.put(range.network(), range.keyPrefixLength(), ipRule);
+    }
+
+    /**
+     * Parses a {@code capacity/minutes} limit; the {@code /minutes} part is optional.
+     *
+     * @param limit              The raw limit.
+     * @param version            The version assigned to the policy.
+     * @param defaultPeriodNanos The refill duration if {@code /minutes} is left out.
+     * @return The policy.
+     * @throws IllegalArgumentException If the capacity or the refill duration is not a positive number.
+     */
+    private static RateLimitPolicy parseLimit(String limit, long version, long defaultPeriodNanos) {
+        String[] parts = limit.split("/");
+        int capacity = parsePositive(parts[0], "capacity");
+        long periodNanos = parts.length > 1 ? TimeUnit.MINUTES.toNanos(parsePositive(parts[1], "minutes")) : defaultPeriodNanos;
+        return new RateLimitPolicy(version, capacity, periodNanos);
+    }
+
+    private static int parsePositive(String value, String name) {
+        int parsed = Integer.parseInt(value.trim());
+        if (parsed < 1) {
+            throw new IllegalArgumentException("The " + name + " must be at least 1: " + value.trim());
+        }
+        return parsed;
+    }
+
+    /**
+     * Checks a rate-limit configuration value before it is stored, so an invalid value never reaches
+     * the compiled rules.
+     *
+     * @param key   The configuration key; keys outside {@link #CONFIG_KEYS} are not checked.
+     * @param value The raw value, or {@code null} if it is unset.
+     * @throws IllegalArgumentException If the value is invalid for the key.
+     */
+    public static void validate(String key, String value) {
+        if (value == null || !CONFIG_KEYS.contains(key)) {
+            return;
+        }
+        try {
+            switch (key) {
+                case ApplicationConfigKeys.RATE_LIMIT_ENABLED, ApplicationConfigKeys.RATE_LIMIT_CLUSTER_ENABLED -> {
+                    if (!value.trim().equalsIgnoreCase("true") && !value.trim().equalsIgnoreCase("false")) {
+                        throw new IllegalArgumentException("Expected true or false");
+                    }
+                }
+                case ApplicationConfigKeys.RATE_LIMIT_CAPACITY, ApplicationConfigKeys.RATE_LIMIT_REFILL_DURATION_MINUTES,
+                     ApplicationConfigKeys.RATE_LIMIT_IP_REFILL_DURATION_MINUTES, ApplicationConfigKeys.RATE_LIMIT_USER_REFILL_DURATION_MINUTES,
+                     ApplicationConfigKeys.RATE_LIMIT_MAX_BUCKETS, ApplicationConfigKeys.RATE_LIMIT_CLUSTER_LEASE_SIZE ->
+                        parsePositive(value, "value");
+                case ApplicationConfigKeys.RATE_LIMIT_IP_CAPACITY, ApplicationConfigKeys.RATE_LIMIT_USER_CAPACITY -> {
+                    // 0 disables the budget.
+                    if (Integer.parseInt(value.trim()) < 0) {
+                        throw new IllegalArgumentException("The capacity must not be negative");
+                    }
+                }
+                case ApplicationConfigKeys.RATE_LIMIT_IPV4_PREFIX_LENGTH -> checkRange(value, 32);
+                case ApplicationConfigKeys.RATE_LIMIT_IPV6_PREFIX_LENGTH -> checkRange(value, 128);
+                case ApplicationConfigKeys.RATE_LIMIT_OVERFLOW_POLICY -> OverflowPolicy.valueOf(value.trim().toUpperCase());
+                case ApplicationConfigKeys.RATE_LIMIT_ROUTE_OVERRIDES -> split(value).forEach(entry -> parseOverrideEntry(entry, 0, 1));
+                case ApplicationConfigKeys.RATE_LIMIT_IP_RULES -> {
+                    IpPrefixTrie.Builder<IpRule> builder = IpPrefixTrie.builder();
+                    split(value).forEach(entry -> addIpRule(entry, 0, 1, builder));
+                }
+                default -> {
+                    // URL lists accept any path.
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static void checkRange(String value, int max) {
+        int parsed = Integer.parseInt(value.trim());
+        if (parsed < 0 || parsed > max) {
+            throw new IllegalArgumentException("The prefix length must be between 0 and " + max);
+        }
+    }
+
+    private static String[] readRawValues(Function<String, String> config) {
+        String[] values = new String[CONFIG_KEYS.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = config.apply(CONFIG_KEYS.get(i));
+        }
+        return values;
+    }
+
+    private static <T> T parse(Map<String, String> values, String key, Function<String, T> parser, T defaultValue) {
+        try {
+            return Optional.ofNullable(values.get(key)).map(parser).orElse(defaultValue);
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring invalid rate limit configuration {}={}", key, values.get(key));
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Parses a value that must be at least 1, such as a capacity or a refill duration, falling back to the default
+     * if it is missing, invalid or not positive.
+     */
+    private static long parsePositive(Map<String, String> values, String key, long defaultValue) {
+        long value = parse(values, key, Long::parseLong, defaultValue);
+        if (value < 1) {
+            logger.warn("Ignoring non-positive rate limit configuration {}={}", key, values.get(key));
+            return defaultValue;
+        }
+        return value;
+    }
+
+    private static int parsePositive(Map<String, String> values, String key, int defaultValue) {
+        return (int) Math.min(Integer.MAX_VALUE, parsePositive(values, key, (long) defaultValue));
+    }
+
+    private static List<String> split(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Parses a {@code prefix=capacity/minutes} override; the {@code /minutes} part is optional
+     * and defaults to the global refill duration.
+     *
+     * @param entry   The raw override.
+     * @param version The version assigned to the override's policy.
+     * @param routes  The routes to add the override to.
+     */
+    private void parseOverride(String entry, long version, Map<String, RateLimitRoute> routes) {
+        try {
+            RateLimitRoute route = parseOverrideEntry(entry, version, defaultPolicy.periodNanos());
+            routes.put(route.prefix(), route);
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring invalid rate limit route override: {}", entry);
+        }
+    }
+
+    private static RateLimitRoute parseOverrideEntry(String entry, long version, long defaultPeriodNanos) {
+        int separator = entry.indexOf('=');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Expected prefix=capacity/minutes: " + entry);
+        }
+        String prefix = entry.substring(0, separator).trim();
+        return new RateLimitRoute(prefix, parseLimit(entry.substring(separator + 1).trim(), version, defaultPeriodNanos));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tracks whether the shared rate limit store can be reached, so that requests do not each wait for a failing
+ * database before falling back to local limits.
+ * <p>
+ * After a failure the breaker opens: for the cool-down period every request is limited locally without trying the
+ * store. Once the cool-down has passed, a single request probes the store while the others stay local; the breaker
+ * closes if the probe succeeds and opens for another cool-down if it fails.
+ */
+public class SharedStoreCircuitBreaker {
+
+    private final long cooldownNanos;
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    private volatile boolean open;
+    private volatile long retryAtNanos;
+
+    /**
+     * @param cooldownNanos The time in nanoseconds the store is left alone after a failure.
+     */
+    public SharedStoreCircuitBreaker(long cooldownNanos) {
+        this.cooldownNanos = cooldownNanos;
+    }
+
+    /**
+     * Checks whether a request may use the shared store.
+     * A caller that is allowed must report the outcome through {@link #recordSuccess} or {@link #recordFailure}.
+     *
+     * @return {@code true} if the store is closed, or if this caller is the one probing it after the cool-down.
+     */
+    public boolean allowRequest() {
+        if (!open) {
+            return true;
+        }
+        return System.nanoTime() - retryAtNanos >= 0 && probing.compareAndSet(false, true);
+    }
+
+    /**
+     * Records that the shared store answered.
+     *
+     * @return {@code true} if this closed the breaker.
+     */
+    public boolean recordSuccess() {
+        if (!open) {
+            return false;
+        }
+        open = false;
+        probing.set(false);
+        return true;
+    }
+
+    /**
+     * Records that the shared store could not be reached, starting a new cool-down.
+     *
+     * @return {@code true} if this opened the breaker, {@code false} if it was open already.
+     */
+    public boolean recordFailure() {
+        retryAtNanos = System.nanoTime() + cooldownNanos;
+        boolean opened = !open;
+        open = true;
+        probing.set(false);
+        return opened;
+    }
+
+    /**
+     * @return {@code true} if requests are currently limited locally.
+     */
+    public boolean isOpen() {
+        return open;
+    }
+}
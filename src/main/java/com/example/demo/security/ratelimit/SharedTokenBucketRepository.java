@@ -0,0 +1,123 @@
+package com.example.demo.security.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Token buckets shared by all nodes, stored in the {@code rate_limit_buckets} table.
+ * <p>
+ * Like {@link TokenBucket}, a shared bucket only stores the time at which it will be full again, here in epoch
+ * microseconds so that it is comparable across nodes. Tokens are leased with a single conditional UPDATE, which the
+ * database applies atomically, so no row lock is held between statements and no read-modify-write race exists.
+ * The statements use only standard SQL and {@code GREATEST}, and run unchanged on MySQL and embedded databases.
+ * Each statement is cancelled after {@code query-timeout-seconds}, so a slow database fails the lease quickly and
+ * the caller can fall back to local limits.
+ */
+@Repository
+public class SharedTokenBucketRepository {
+
+    private static final String LEASE_SQL = """
+            UPDATE rate_limit_buckets
+            SET full_at_micros = GREATEST(full_at_micros, ?) + ?
+            WHERE bucket_key = ? AND GREATEST(full_at_micros, ?) + ? <= ?""";
+
+    private static final String SELECT_SQL = "SELECT full_at_micros FROM rate_limit_buckets WHERE bucket_key = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO rate_limit_buckets (bucket_key, full_at_micros) VALUES (?, ?)";
+
+    private static final String DELETE_IDLE_SQL = "DELETE FROM rate_limit_buckets WHERE full_at_micros <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int queryTimeoutSeconds;
+
+    public SharedTokenBucketRepository(JdbcTemplate jdbcTemplate,
+                                       @Value("${rate.limit.cluster.query-timeout-seconds:1}") int queryTimeoutSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+    }
+
+    /**
+     * Atomically takes tokens from a shared bucket, creating the bucket on first use.
+     * <p>
+     * A lease that does not fit costs one more statement, which reads the bucket: a missing bucket is created with
+     * the lease, and an existing one is only updated again if it has been refilled or created by another node in the
+     * meantime. The bucket that was read lets the caller wait locally until a token is available again.
+     *
+     * @param key            The bucket key.
+     * @param tokens         The number of tokens to take.
+     * @param intervalMicros The time in microseconds it takes to refill a single token.
+     * @param periodMicros   The time in microseconds in which an empty bucket refills completely.
+     * @param nowMicros      The current time in epoch microseconds.
+     * @return Whether all tokens were taken, and otherwise when the bucket will be full again.
+     */
+    public SharedLease tryLease(String key, int tokens, long intervalMicros, long periodMicros, long nowMicros) {
+        long increment = intervalMicros * tokens;
+        if (increment > periodMicros) {
+            return SharedLease.denied(nowMicros + periodMicros);
+        }
+        if (update(key, increment, periodMicros, nowMicros)) {
+            return SharedLease.GRANTED;
+        }
+        Long fullAtMicros = jdbcTemplate.query(SELECT_SQL, statement -> {
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            statement.setString(1, key);
+        }, resultSet -> resultSet.next() ? resultSet.getLong(1) : null);
+        if (fullAtMicros != null) {
+            // The bucket may have been created by another node between the two statements.
+            if (Math.max(fullAtMicros, nowMicros) + increment > nowMicros + periodMicros) {
+                return SharedLease.denied(fullAtMicros);
+            }
+            return update(key, increment, periodMicros, nowMicros) ? SharedLease.GRANTED : SharedLease.denied(nowMicros + periodMicros);
+        }
+        try {
+            execute(INSERT_SQL, key, nowMicros + increment);
+            return SharedLease.GRANTED;
+        } catch (DuplicateKeyException e) {
+            // Another node has just created the bucket. Its state is unknown, so a denial is treated as exhausted.
+            return update(key, increment, periodMicros, nowMicros) ? SharedLease.GRANTED : SharedLease.denied(nowMicros + periodMicros);
+        }
+    }
+
+    /**
+     * Deletes the shared buckets that have refilled completely.
+     *
+     * @param nowMicros The current time in epoch microseconds.
+     * @return The number of buckets deleted.
+     */
+    public int deleteIdleBuckets(long nowMicros) {
+        return execute(DELETE_IDLE_SQL, nowMicros);
+    }
+
+    private boolean update(String key, long increment, long periodMicros, long nowMicros) {
+        return execute(LEASE_SQL, nowMicros, increment, key, nowMicros, increment, nowMicros + periodMicros) == 1;
+    }
+
+    /**
+     * Runs an update with the query timeout of this repository, leaving the shared template's settings alone.
+     */
+    private int execute(String sql, Object... args) {
+        ArgumentPreparedStatementSetter arguments = new ArgumentPreparedStatementSetter(args);
+        return jdbcTemplate.update(sql, statement -> {
+            statement.setQueryTimeout(queryTimeoutSeconds);
+            arguments.setValues(statement);
+        });
+    }
+
+    /**
+     * The outcome of {@link #tryLease}.
+     *
+     * @param granted      {@code true} if all tokens were taken.
+     * @param fullAtMicros When the lease was denied, the epoch microseconds at which the bucket will be full again.
+     */
+    public record SharedLease(boolean granted, long fullAtMicros) {
+
+        static final SharedLease GRANTED = new SharedLease(true, 0);
+
+        static SharedLease denied(long fullAtMicros) {
+            return new SharedLease(false, fullAtMicros);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A lock-free token bucket holding its state in a single {@code long}.
+ * <p>
+ * The bucket is implemented as a generic cell rate algorithm: instead of counting tokens, it stores the
+ * theoretical time at which the bucket will be full again. Each token moves that time forward by the policy's
+ * refill interval; a request is allowed while the time stays within one period of now.
+ * A bucket whose full time has passed is indistinguishable from a new one, which makes eviction free of state loss.
+ * <p>
+ * The bucket remembers the policy version its state was accrued under. When it meets a newer policy, the
+ * outstanding debt is converted from the old refill interval to the new one, so the number of consumed tokens
+ * is preserved across configuration changes.
+ */
+public final class TokenBucket {
+
+    private static final AtomicLongFieldUpdater<TokenBucket> FULL_AT =
+            AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "fullAtNanos");
+
+    private volatile long fullAtNanos;
+    private volatile long policyVersion;
+    private volatile long intervalNanos;
+
+    public TokenBucket(RateLimitPolicy policy, long nowNanos) {
+        this.fullAtNanos = nowNanos;
+        this.intervalNanos = policy.intervalNanos();
+        this.policyVersion = policy.version();
+    }
+
+    /**
+     * Attempts to take tokens from the bucket.
+     *
+     * @param tokens   The number of tokens to take.
+     * @param policy   The current policy of the bucket's route.
+     * @param nowNanos The current {@link System#nanoTime()}.
+     * @return {@code true} if the tokens were taken, {@code false} if the bucket does not hold enough of them.
+     */
+    public boolean tryConsume(int tokens, RateLimitPolicy policy, long nowNanos) {
+        adopt(policy, nowNanos);
+        long increment = policy.intervalNanos() * tokens;
+        long periodNanos = policy.periodNanos();
+        while (true) {
+            long fullAt = fullAtNanos;
+            long base = fullAt - nowNanos > 0 ? fullAt : nowNanos;
+            long next = base + increment;
+            if (next - nowNanos > periodNanos) {
+                return false;
+            }
+            if (FULL_AT.compareAndSet(this, fullAt, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns previously taken tokens to the bucket.
+     *
+     * @param tokens The number of tokens to return.
+     * @param policy The policy the tokens were taken under.
+     */
+    public void refund(int tokens, RateLimitPolicy policy) {
+        FULL_AT.addAndGet(this, -policy.intervalNanos() * tokens);
+    }
+
+    /**
+     * Checks whether the bucket has refilled completely and can be discarded.
+     *
+     * @param nowNanos The current {@link System#nanoTime()}.
+     * @return {@code true} if the bucket is full.
+     */
+    public boolean isFull(long nowNanos) {
+        return fullAtNanos - nowNanos <= 0;
+    }
+
+    /**
+     * Converts the bucket's state to a newer policy. Does nothing if the bucket already uses it.
+     *
+     * @param policy   The current policy.
+     * @param nowNanos The current {@link System#nanoTime()}.
+     */
+    private void adopt(RateLimitPolicy policy, long nowNanos) {
+        if (policyVersion == policy.version()) {
+            return;
+        }
+        synchronized (this) {
+            if (policyVersion == policy.version()) {
+                return;
+            }
+            long oldInterval = intervalNanos;
+            long newInterval = policy.intervalNanos();
+            if (oldInterval != newInterval) {
+                while (true) {
+                    long fullAt = fullAtNanos;
+                    long debt = fullAt - nowNanos;
+                    if (debt <= 0) {
+                        break;
+                    }
+                    long rescaled = nowNanos + (long) ((double) debt / oldInterval * newInterval);
+                    if (FULL_AT.compareAndSet(this, fullAt, rescaled)) {
+                        break;
+                    }
+                }
+                intervalNanos = newInterval;
+            }
+            policyVersion = policy.version();
+        }
+    }
+}
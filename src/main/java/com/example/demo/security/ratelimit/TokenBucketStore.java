@@ -0,0 +1,125 @@
+package com.example.demo.security.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded map of token buckets keyed by client identifier.
+ * <p>
+ * Buckets are created on first use and removed once they have refilled completely, since a full bucket carries
+ * no information. The number of buckets never exceeds {@code maxBuckets}: when the store is full, a new key first
+ * triggers a sweep of full buckets (at most one per sweep interval), and if there is still no room the request
+ * is handled according to the {@link OverflowPolicy}.
+ */
+public class TokenBucketStore {
+    private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<RateLimitPolicy, TokenBucket> overflowBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+
+    /**
+     * Attempts to take tokens from the bucket of a key.
+     *
+     * @param key            The client identifier.
+     * @param tokens         The number of tokens to take.
+     * @param policy         The limit of the request's route.
+     * @param maxBuckets     The maximum number of buckets the store may hold.
+     * @param overflowPolicy How to handle a new key when the store is full.
+     * @return {@code true} if the request is allowed, {@code false} otherwise.
+     */
+    public boolean tryConsume(String key, int tokens, RateLimitPolicy policy, int maxBuckets, OverflowPolicy overflowPolicy) {
+        long now = System.nanoTime();
+        TokenBucket bucket = getOrCreate(key, policy, now, maxBuckets);
+        if (bucket != null) {
+            return bucket.tryConsume(tokens, policy, now);
+        }
+        return switch (overflowPolicy) {
+            case SHARED -> getOverflowBucket(policy, now).tryConsume(tokens, policy, now);
+            case REJECT -> false;
+            case ALLOW -> true;
+        };
+    }
+
+    /**
+     * Returns tokens to the bucket of a key, typically because another budget denied the same request.
+     * Tokens taken from an overflow bucket are not returned.
+     *
+     * @param key    The client identifier.
+     * @param tokens The number of tokens to return.
+     * @param policy The policy the tokens were taken under.
+     */
+    public void refund(String key, int tokens, RateLimitPolicy policy) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.refund(tokens, policy);
+        }
+    }
+
+    /**
+     * Returns the bucket of a key, creating it if the store has room.
+     *
+     * @param key        The client identifier.
+     * @param policy     The policy a new bucket starts with.
+     * @param now        The current {@link System#nanoTime()}.
+     * @param maxBuckets The maximum number of buckets the store may hold.
+     * @return The bucket, or {@code null} if the key has no bucket and the store is full.
+     */
+    public TokenBucket getOrCreate(String key, RateLimitPolicy policy, long now, int maxBuckets) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            sweepIfDue(now);
+            if (buckets.size() >= maxBuckets) {
+                return null;
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(policy, now));
+    }
+
+    /**
+     * Returns the bucket shared by keys of a route that did not fit into the store.
+     *
+     * @param policy The limit of the route.
+     * @param now    The current {@link System#nanoTime()}.
+     * @return The overflow bucket for the policy.
+     */
+    public TokenBucket getOverflowBucket(RateLimitPolicy policy, long now) {
+        return overflowBuckets.computeIfAbsent(policy, p -> new TokenBucket(p, now));
+    }
+
+    /**
+     * Removes all buckets that have refilled completely.
+     *
+     * @return The number of buckets removed.
+     */
+    public int removeIdleBuckets() {
+        long now = System.nanoTime();
+        lastSweepNanos.set(now);
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        overflowBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        return Math.max(0, before - buckets.size());
+    }
+
+    /**
+     * @return The number of buckets currently held.
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Sweeps full buckets unless another caller has done so within the sweep interval.
+     *
+     * @param now The current {@link System#nanoTime()}.
+     */
+    private void sweepIfDue(long now) {
+        long last = lastSweepNanos.get();
+        if (now - last >= SWEEP_INTERVAL_NANOS && lastSweepNanos.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.demo.security.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves rate-limit tokens from blocks leased out of the {@link SharedTokenBucketRepository}.
+ * <p>
+ * A node takes a block of tokens from the shared bucket in one statement and then hands them out locally, so the
+ * database is reached once per lease instead of once per request. Because a block is debited from the shared
+ * bucket before it is served, the nodes together never exceed the shared capacity; tokens a node leased but did
+ * not use only make the cluster stricter for the rest of the period. A block is at most a tenth of the capacity,
+ * so a small limit is not held by a single node.
+ * <p>
+ * When the shared bucket cannot grant a lease, the key is denied locally until the bucket has refilled a token, so
+ * a client hammering an exhausted key does not turn every rejected request into database load.
+ * <p>
+ * Leases expire after one refill period or when the policy changes. The number of leases held never exceeds
+ * {@code maxBuckets}; a key that does not fit is served one token at a time straight from the shared bucket.
+ */
+public class TokenLeaseStore {
+    private static final int MAX_LEASE_FRACTION = 10;
+
+    private final ConcurrentHashMap<String, TokenLease> leases = new ConcurrentHashMap<>();
+    private final SharedTokenBucketRepository sharedTokenBucketRepository;
+
+    public TokenLeaseStore(SharedTokenBucketRepository sharedTokenBucketRepository) {
+        this.sharedTokenBucketRepository = sharedTokenBucketRepository;
+    }
+
+    /**
+     * Attempts to take a token for a key, leasing a new block from the shared bucket when the local one is used up.
+     *
+     * @param key        The bucket key, identical on every node.
+     * @param policy     The limit of the bucket.
+     * @param leaseSize  The preferred number of tokens to lease at once.
+     * @param maxBuckets The maximum number of leases the store may hold.
+     * @return {@code true} if the request is allowed, {@code false} otherwise.
+     */
+    public boolean tryConsume(String key, RateLimitPolicy policy, int leaseSize, int maxBuckets) {
+        long now = System.nanoTime();
+        TokenLease lease = leases.get(key);
+        if (lease == null) {
+            if (leases.size() >= maxBuckets) {
+                removeExpiredLeases();
+                if (leases.size() >= maxBuckets) {
+                    return lease(key, policy, 1, null, now) > 0;
+                }
+            }
+            lease = leases.computeIfAbsent(key, k -> new TokenLease());
+        }
+        synchronized (lease) {
+            if (lease.tryTake(policy, now)) {
+                return true;
+            }
+            if (lease.isDenied(policy, now)) {
+                return false;
+            }
+            int blockSize = Math.max(1, Math.min(leaseSize, policy.capacity() / MAX_LEASE_FRACTION));
+            int granted = lease(key, policy, blockSize, lease, now);
+            if (granted == 0) {
+                return false;
+            }
+            lease.renew(policy, granted - 1, now + policy.periodNanos());
+            return true;
+        }
+    }
+
+    /**
+     * Returns a token to the local lease of a key, typically because another budget denied the same request.
+     *
+     * @param key    The bucket key.
+     * @param policy The policy the token was taken under.
+     */
+    public void refund(String key, RateLimitPolicy policy) {
+        TokenLease lease = leases.get(key);
+        if (lease != null) {
+            synchronized (lease) {
+                lease.giveBack(policy);
+            }
+        }
+    }
+
+    /**
+     * Removes local leases that have expired and deletes shared buckets that have refilled completely.
+     *
+     * @return The number of local leases removed.
+     */
+    public int removeIdleBuckets() {
+        sharedTokenBucketRepository.deleteIdleBuckets(nowMicros());
+        return removeExpiredLeases();
+    }
+
+    /**
+     * @return The number of leases currently held.
+     */
+    public int size() {
+        return leases.size();
+    }
+
+    private int removeExpiredLeases() {
+        long now = System.nanoTime();
+        int before = leases.size();
+        leases.values().removeIf(lease -> lease.isExpired(now));
+        return Math.max(0, before - leases.size());
+    }
+
+    /**
+     * Leases a block of tokens, falling back to the tokens left when the shared bucket holds fewer than requested.
+     * When nothing can be leased, the lease of the key, if it has one, is denied until a token has refilled.
+     *
+     * @return The number of tokens granted, {@code 0} if the shared bucket is empty.
+     */
+    private int lease(String key, RateLimitPolicy policy, int tokens, TokenLease lease, long nowNanos) {
+        long intervalMicros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(policy.intervalNanos()));
+        long periodMicros = TimeUnit.NANOSECONDS.toMicros(policy.periodNanos());
+        long now = nowMicros();
+        SharedTokenBucketRepository.SharedLease result = sharedTokenBucketRepository.tryLease(key, tokens, intervalMicros, periodMicros, now);
+        if (result.granted()) {
+            return tokens;
+        }
+        long available = (now + periodMicros - Math.max(result.fullAtMicros(), now)) / intervalMicros;
+        if (available > 0 && available < tokens) {
+            result = sharedTokenBucketRepository.tryLease(key, (int) available, intervalMicros, periodMicros, now);
+            if (result.granted()) {
+                return (int) available;
+            }
+        }
+        if (lease != null) {
+            // The next token is available once the bucket is at most one interval short of full.
+            long retryInMicros = Math.max(1, result.fullAtMicros() - periodMicros + intervalMicros - now);
+            lease.deny(policy, nowNanos + TimeUnit.MICROSECONDS.toNanos(retryInMicros));
+        }
+        return 0;
+    }
+
+    private static long nowMicros() {
+        return TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    }
+
+    /**
+     * The tokens of a key leased by this node and not yet served. Guarded by its own monitor.
+     */
+    private static final class TokenLease {
+        private int remaining;
+        private long policyVersion = -1;
+        private long expiresAtNanos;
+        private boolean denied;
+        private long deniedUntilNanos;
+
+        private boolean tryTake(RateLimitPolicy policy, long nowNanos) {
+            if (remaining > 0 && policyVersion == policy.version() && nowNanos - expiresAtNanos < 0) {
+                remaining--;
+                return true;
+            }
+            return false;
+        }
+
+        private void renew(RateLimitPolicy policy, int tokens, long expiresAtNanos) {
+            this.remaining = tokens;
+            this.policyVersion = policy.version();
+            this.denied = false;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isDenied(RateLimitPolicy policy, long nowNanos) {
+            return denied && policyVersion == policy.version() && nowNanos - deniedUntilNanos < 0;
+        }
+
+        /**
+         * Denies the key until the given time. The lease is kept until then, so that the denial is not evicted.
+         */
+        private void deny(RateLimitPolicy policy, long deniedUntilNanos) {
+            this.remaining = 0;
+            this.policyVersion = policy.version();
+            this.denied = true;
+            this.deniedUntilNanos = deniedUntilNanos;
+            this.expiresAtNanos = deniedUntilNanos;
+        }
+
+        private void giveBack(RateLimitPolicy policy) {
+            if (policyVersion == policy.version()) {
+                remaining++;
+            }
+        }
+
+        private boolean isExpired(long nowNanos) {
+            synchronized (this) {
+                return nowNanos - expiresAtNanos >= 0;
+            }
+        }
+    }
+}
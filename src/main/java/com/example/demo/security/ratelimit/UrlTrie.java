@@ -0,0 +1,129 @@
+package com.example.demo.security.ratelimit;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable character trie matching URL prefixes or, when built reversed, URL suffixes.
+ * Each node keeps its child labels in a sorted {@code char[]}, so a lookup is a single walk
+ * over the URL with a binary search per character and no allocation.
+ *
+ * @param <V> The type of the value attached to each pattern.
+ */
+public final class UrlTrie<V> {
+
+    private final Node<V> root;
+    private final boolean reversed;
+
+    private UrlTrie(Node<V> root, boolean reversed) {
+        this.root = root;
+        this.reversed = reversed;
+    }
+
+    /**
+     * Builds a trie matching the given prefixes.
+     *
+     * @param patterns The prefixes and the value attached to each.
+     * @param <V>      The type of the values.
+     * @return The prefix trie.
+     */
+    public static <V> UrlTrie<V> ofPrefixes(Map<String, V> patterns) {
+        return build(patterns, false);
+    }
+
+    /**
+     * Builds a trie matching the given suffixes.
+     *
+     * @param patterns The suffixes and the value attached to each.
+     * @param <V>      The type of the values.
+     * @return The suffix trie.
+     */
+    public static <V> UrlTrie<V> ofSuffixes(Map<String, V> patterns) {
+        return build(patterns, true);
+    }
+
+    /**
+     * Finds the value of the longest pattern matching the URL.
+     *
+     * @param url The URL to match.
+     * @return The value of the longest matching prefix (or suffix), or {@code null} if none matches.
+     */
+    public V longestMatch(String url) {
+        Node<V> node = root;
+        V match = node.value;
+        int length = url.length();
+        for (int i = 0; i < length; i++) {
+            char c = url.charAt(reversed ? length - 1 - i : i);
+            int index = Arrays.binarySearch(node.labels, c);
+            if (index < 0) {
+                break;
+            }
+            node = node.children[index];
+            if (node.value != null) {
+                match = node.value;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Checks whether any pattern matches the URL.
+     *
+     * @param url The URL to match.
+     * @return {@code true} if at least one prefix (or suffix) matches.
+     */
+    public boolean matches(String url) {
+        return longestMatch(url) != null;
+    }
+
+    private static <V> UrlTrie<V> build(Map<String, V> patterns, boolean reversed) {
+        Builder<V> root = new Builder<>();
+        patterns.forEach((pattern, value) -> {
+            Builder<V> node = root;
+            int length = pattern.length();
+            for (int i = 0; i < length; i++) {
+                char c = pattern.charAt(reversed ? length - 1 - i : i);
+                node = node.children.computeIfAbsent(c, k -> new Builder<>());
+            }
+            node.value = value;
+        });
+        return new UrlTrie<>(root.freeze(), reversed);
+    }
+
+    /**
+     * A frozen trie node.
+     */
+    private static final class Node<V> {
+        private final char[] labels;
+        private final Node<V>[] children;
+        private final V value;
+
+        private Node(char[] labels, Node<V>[] children, V value) {
+            this.labels = labels;
+            this.children = children;
+            this.value = value;
+        }
+    }
+
+    /**
+     * A mutable trie node used only while building.
+     */
+    private static final class Builder<V> {
+        private final TreeMap<Character, Builder<V>> children = new TreeMap<>();
+        private V value;
+
+        @SuppressWarnings("unchecked")
+        private Node<V> freeze() {
+            char[] labels = new char[children.size()];
+            Node<V>[] frozen = (Node<V>[]) new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder<V>> entry : children.entrySet()) {
+                labels[i] = entry.getKey();
+                frozen[i] = entry.getValue().freeze();
+                i++;
+            }
+            return new Node<>(labels, frozen, value);
+        }
+    }
+}
@@ -2,11 +2,15 @@ package com.example.demo.security.service;
 
 import com.example.demo.audit.event.AuditLogEvent;
 import com.example.demo.audit.service.CooldownService;
-import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.service.ApplicationConfigService;
 import com.example.demo.exception.InvalidInputException;
+import com.example.demo.exception.ServiceOverloadedException;
 import com.example.demo.security.dto.AuthenticationRequest;
 import com.example.demo.security.dto.AuthenticationResponse;
+import com.example.demo.security.dto.RefreshTokenRequest;
+import com.example.demo.security.event.UserSecurityChangedEvent;
+import com.example.demo.token.dto.IssuedRefreshToken;
+import com.example.demo.token.service.RefreshTokenService;
 import com.example.demo.user.dto.UserDto;
 import com.example.demo.user.entity.User;
 import com.example.demo.user.mapper.UserMapper;
@@ -17,15 +21,17 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 /**
  * Service for handling user authentication and token generation.
@@ -33,8 +39,6 @@ import java.util.Optional;
  */
 @Service
 public class AuthenticationService {
-    private static final int MAX_FAILED_LOGIN_ATTEMPTS_DEFAULT = 10;
-    private static final int LOCKOUT_RESET_MINUTES_DEFAULT = 30;
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
@@ -44,8 +48,10 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final CustomUserDetailsService customUserDetailsService;
     private final CooldownService cooldownService;
+    private final RefreshTokenService refreshTokenService;
 
     private final AuthenticationManager authenticationManager;
+    private final PasswordEncoder passwordEncoder;
     private final ApplicationEventPublisher eventPublisher;
 
     public AuthenticationService(UserRepository userRepository,
@@ -55,7 +61,9 @@ public class AuthenticationService {
                                  JwtService jwtService,
                                  CustomUserDetailsService customUserDetailsService,
                                  CooldownService cooldownService,
+                                 RefreshTokenService refreshTokenService,
                                  AuthenticationManager authenticationManager,
+                                 PasswordEncoder passwordEncoder,
                                  ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
@@ -64,7 +72,9 @@ public class AuthenticationService {
         this.jwtService = jwtService;
         this.customUserDetailsService = customUserDetailsService;
         this.cooldownService = cooldownService;
+        this.refreshTokenService = refreshTokenService;
         this.authenticationManager = authenticationManager;
+        this.passwordEncoder = passwordEncoder;
         this.eventPublisher = eventPublisher;
     }
 
@@ -100,7 +110,7 @@ public class AuthenticationService {
             details.put("failedAttempts", user.getFailedLoginAttempts());
             publishAuditLogEvent(user.getUsername(), ipAddress, EventType.AUTHENTICATION_SUCCESS, details);
 
-            resetFailedLoginAttempts(user);
+            resetFailedLoginAttempts(user, request.getPassword());
 
         } catch (BadCredentialsException e) {
             handleFailedLoginAttempt(user, ipAddress);
@@ -111,13 +121,38 @@ public class AuthenticationService {
             publishAuditLogEvent(username, ipAddress, EventType.AUTHENTICATION_FAILURE, details);
 
             throw new BadCredentialsException(ValidationMessages.PASSWORD_MISMATCH);
+        } catch (InternalAuthenticationServiceException e) {
+            // The provider wraps failures of the user lookup, including the dummy-password hash it computes
+            // for unknown users; a saturated hashing pool must still surface as a 503 with Retry-After.
+            if (e.getCause() instanceof ServiceOverloadedException overloaded) {
+                throw overloaded;
+            }
+            throw e;
         }
 
         UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
         String jwtToken = jwtService.generateToken(userDetails);
+        String refreshToken = refreshTokenService.issue(user);
         UserDto userDto = userMapper.toDto(user);
 
-        return new AuthenticationResponse(jwtToken, userDto);
+        return new AuthenticationResponse(jwtToken, refreshToken, userDto);
+    }
+
+    /**
+     * Exchanges a refresh token for a new JWT token and a new refresh token, without verifying the password again.
+     * The presented refresh token cannot be used again.
+     *
+     * @param request The refresh request containing the refresh token.
+     * @return An AuthenticationResponse containing the new JWT token, the new refresh token and user details.
+     */
+    public AuthenticationResponse refresh(RefreshTokenRequest request) {
+        IssuedRefreshToken issued = refreshTokenService.rotate(request.getRefreshToken());
+
+        UserDetails userDetails = customUserDetailsService.loadUserByUsername(issued.user().getUsername());
+        String jwtToken = jwtService.generateToken(userDetails);
+        UserDto userDto = userMapper.toDto(issued.user());
+
+        return new AuthenticationResponse(jwtToken, issued.token(), userDto);
     }
 
     /**
@@ -156,23 +191,48 @@ public class AuthenticationService {
         int maxFailedLoginAttempts = getMaxFailedLoginAttempts();
         if (user.getFailedLoginAttempts() >= maxFailedLoginAttempts) {
             user.setAccountLocked(true);
+            user.incrementSecurityVersion();
             Map<String, Object> details = new HashMap<>();
             details.put("userId", user.getId());
             details.put("failedAttempts", user.getFailedLoginAttempts());
             publishAuditLogEvent(user.getUsername(), ipAddress, EventType.ACCOUNT_LOCKED, details);
         }
         userRepository.save(user);
+
+        if (user.getAccountLocked()) {
+            refreshTokenService.revokeAllForUsers(List.of(user.getId()));
+            eventPublisher.publishEvent(new UserSecurityChangedEvent(this, user.getUsername()));
+        }
     }
 
     /**
      * Resets a user's failed login attempts and last failed login time upon successful authentication.
+     * A password hash stored with an outdated encoding or a lower strength is replaced in the same save,
+     * unless the password hashing pool is saturated.
      *
-     * @param user The user to update.
+     * @param user        The user to update.
+     * @param rawPassword The password the user has just authenticated with.
      */
-    private void resetFailedLoginAttempts(User user) {
+    private void resetFailedLoginAttempts(User user, String rawPassword) {
         user.setFailedLoginAttempts(0);
         user.setLastFailedLoginTime(null);
+
+        boolean rehashed = false;
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            try {
+                user.setPassword(passwordEncoder.encode(rawPassword));
+                rehashed = true;
+            } catch (ServiceOverloadedException e) {
+                // The upgrade is best-effort; it is retried on the next successful login.
+            }
+        }
         userRepository.save(user);
+
+        if (rehashed) {
+            // The password itself is unchanged, so the security version and issued tokens stay valid;
+            // only the cached principal holding the old hash is dropped.
+            eventPublisher.publishEvent(new UserSecurityChangedEvent(this, user.getUsername()));
+        }
     }
 
     /**
@@ -195,9 +255,7 @@ public class AuthenticationService {
      * @return The configured or default maximum number of failed login attempts.
      */
     private int getMaxFailedLoginAttempts() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.MAX_FAILED_LOGIN_ATTEMPTS))
-                .map(Integer::parseInt)
-                .orElse(MAX_FAILED_LOGIN_ATTEMPTS_DEFAULT);
+        return applicationConfigService.getSnapshot().getMaxFailedLoginAttempts();
     }
 
     /**
@@ -206,8 +264,6 @@ public class AuthenticationService {
      * @return The configured or default lockout reset period in minutes.
      */
     private long getLockoutResetMinutes() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.LOCKOUT_RESET_MINUTES))
-                .map(Long::parseLong)
-                .orElse((long) LOCKOUT_RESET_MINUTES_DEFAULT);
+        return applicationConfigService.getSnapshot().getLockoutResetMinutes();
     }
 }
@@ -0,0 +1,158 @@
+package com.example.demo.security.service;
+
+import com.example.demo.permission.entity.Permission;
+import com.example.demo.permission.repository.PermissionRepository;
+import com.example.demo.role.entity.Role;
+import com.example.demo.role.repository.RoleRepository;
+import com.example.demo.security.AuthorityBitIndex;
+import com.example.demo.security.AuthoritySet;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service holding an immutable snapshot of the authorities granted by each role.
+ * Every role and permission name maps to a single shared {@link GrantedAuthority} instance and a dense bit position,
+ * and users holding the same combination of roles share the same {@link AuthoritySet}.
+ * The snapshot is rebuilt only when a role or permission changes.
+ */
+@Service
+public class AuthoritySnapshotService {
+
+    private final RoleRepository roleRepository;
+    private final PermissionRepository permissionRepository;
+
+    private volatile AuthoritySnapshot snapshot;
+
+    public AuthoritySnapshotService(RoleRepository roleRepository, PermissionRepository permissionRepository) {
+        this.roleRepository = roleRepository;
+        this.permissionRepository = permissionRepository;
+    }
+
+    /**
+     * Returns the shared authority set for a combination of roles.
+     * It contains the roles themselves (e.g., ROLE_ADMIN) and the permissions they grant.
+     *
+     * @param roleNames The names of the roles held by a user.
+     * @return The authorities granted by the roles.
+     */
+    public AuthoritySet getAuthoritySet(Collection<String> roleNames) {
+        AuthoritySnapshot current = getSnapshot();
+        if (!current.authoritiesByRole().keySet().containsAll(roleNames)) {
+            // A role created after the snapshot was built, possibly on another node.
+            current = rebuild();
+        }
+        AuthoritySnapshot finalSnapshot = current;
+        return current.authoritySetsByRoles().computeIfAbsent(Set.copyOf(roleNames), finalSnapshot::combineRoles);
+    }
+
+    /**
+     * Returns the shared authority set for a list of authority names, such as those carried by a stateless token.
+     *
+     * @param authorityNames The authority names.
+     * @return The authority set using interned authorities.
+     */
+    public AuthoritySet getAuthoritySetForNames(Collection<String> authorityNames) {
+        AuthoritySnapshot current = getSnapshot();
+        return current.authoritySetsByNames().computeIfAbsent(Set.copyOf(authorityNames), current::internAll);
+    }
+
+    /**
+     * Discards the current snapshot so the next lookup rebuilds it from the database.
+     */
+    public void invalidate() {
+        this.snapshot = null;
+    }
+
+    /**
+     * Rebuilds the snapshot from the database and publishes it.
+     * The bit index is kept as-is when the set of roles and permissions has not changed,
+     * so existing authority sets stay comparable.
+     *
+     * @return The new snapshot.
+     */
+    public AuthoritySnapshot rebuild() {
+        List<Permission> permissions = permissionRepository.findAll(Sort.by("id"));
+        List<Role> roles = roleRepository.findAll(Sort.by("id"));
+
+        Map<String, GrantedAuthority> authoritiesByName = new HashMap<>();
+        Map<String, Integer> bitByAuthority = new HashMap<>();
+        for (Permission permission : permissions) {
+            authoritiesByName.put(permission.getName(), new SimpleGrantedAuthority(permission.getName()));
+            bitByAuthority.putIfAbsent(permission.getName(), bitByAuthority.size());
+        }
+        for (Role role : roles) {
+            authoritiesByName.put(role.getName(), new SimpleGrantedAuthority(role.getName()));
+            bitByAuthority.putIfAbsent(role.getName(), bitByAuthority.size());
+        }
+
+        Map<String, Set<GrantedAuthority>> authoritiesByRole = new HashMap<>();
+        for (Role role : roles) {
+            Set<GrantedAuthority> authorities = new HashSet<>();
+            authorities.add(authoritiesByName.get(role.getName()));
+            role.getPermissions().forEach(permission ->
+                    authorities.add(authoritiesByName.computeIfAbsent(permission.getName(), SimpleGrantedAuthority::new))
+            );
+            authoritiesByRole.put(role.getName(), Set.copyOf(authorities));
+        }
+
+        AuthorityBitIndex bitIndex = new AuthorityBitIndex(bitByAuthority);
+        AuthoritySnapshot previous = this.snapshot;
+        if (previous != null && previous.bitIndex().equals(bitIndex)) {
+            bitIndex = previous.bitIndex();
+        }
+
+        AuthoritySnapshot rebuilt = new AuthoritySnapshot(Map.copyOf(authoritiesByName), Map.copyOf(authoritiesByRole), bitIndex,
+                new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        this.snapshot = rebuilt;
+        return rebuilt;
+    }
+
+    /**
+     * Returns the current snapshot, building it on first use or after an invalidation.
+     *
+     * @return The current snapshot.
+     */
+    private AuthoritySnapshot getSnapshot() {
+        AuthoritySnapshot current = this.snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    /**
+     * Immutable view of all authorities, grouped by role.
+     *
+     * @param authoritiesByName    The interned authority for every role and permission name.
+     * @param authoritiesByRole    The authorities granted by each role, including the role itself.
+     * @param bitIndex             The bit position of every role and permission.
+     * @param authoritySetsByRoles Lazily filled authority set for each distinct combination of roles.
+     * @param authoritySetsByNames Lazily filled authority set for each distinct combination of authority names.
+     */
+    public record AuthoritySnapshot(Map<String, GrantedAuthority> authoritiesByName,
+                                    Map<String, Set<GrantedAuthority>> authoritiesByRole,
+                                    AuthorityBitIndex bitIndex,
+                                    Map<Set<String>, AuthoritySet> authoritySetsByRoles,
+                                    Map<Set<String>, AuthoritySet> authoritySetsByNames) {
+
+        private AuthoritySet combineRoles(Set<String> roleNames) {
+            Set<GrantedAuthority> combined = new HashSet<>();
+            roleNames.forEach(roleName -> combined.addAll(authoritiesByRole.getOrDefault(roleName, Collections.emptySet())));
+            return new AuthoritySet(combined, bitIndex);
+        }
+
+        private AuthoritySet internAll(Set<String> names) {
+            Set<GrantedAuthority> authorities = new HashSet<>();
+            names.forEach(name -> authorities.add(authoritiesByName.getOrDefault(name, new SimpleGrantedAuthority(name))));
+            return new AuthoritySet(authorities, bitIndex);
+        }
+    }
+}
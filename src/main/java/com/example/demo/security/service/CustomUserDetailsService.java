@@ -1,5 +1,6 @@
 package com.example.demo.security.service;
 
+import com.example.demo.role.entity.Role;
 import com.example.demo.user.entity.User;
 import com.example.demo.security.CustomUserDetails;
 import com.example.demo.user.repository.UserRepository;
@@ -8,19 +9,28 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * Loads user-specific data during the authentication process.
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
+    private final PrincipalCacheService principalCacheService;
+    private final AuthoritySnapshotService authoritySnapshotService;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, PrincipalCacheService principalCacheService, AuthoritySnapshotService authoritySnapshotService) {
         this.userRepository = userRepository;
+        this.principalCacheService = principalCacheService;
+        this.authoritySnapshotService = authoritySnapshotService;
     }
 
     /**
      * Locates a user by their username for authentication.
+     * Principals are served from the {@link PrincipalCacheService} and loaded from the database only on a miss.
      *
      * @param username The username of the user to find.
      * @return The UserDetails object for the found user.
@@ -28,8 +38,33 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return principalCacheService.get(username, this::loadFromDatabase);
+    }
+
+    /**
+     * Looks up only the security version of a user, without loading the user's roles and permissions.
+     * A cached principal answers without touching the database.
+     *
+     * @param username The username of the user.
+     * @return An Optional containing the current security version, or empty if the user no longer exists.
+     */
+    public Optional<Long> getSecurityVersion(String username) {
+        return principalCacheService.getIfPresent(username)
+                .map(CustomUserDetails::getSecurityVersion)
+                .or(() -> userRepository.findSecurityVersionByUsername(username));
+    }
+
+    /**
+     * Loads a user and their roles and permissions from the database.
+     *
+     * @param username The username of the user to find.
+     * @return The principal for the found user.
+     * @throws UsernameNotFoundException if the user is not found.
+     */
+    private CustomUserDetails loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-        return new CustomUserDetails(user);
+        Set<String> roleNames = user.getRoles().stream().map(Role::getName).collect(Collectors.toSet());
+        return CustomUserDetails.of(user, authoritySnapshotService.getAuthoritySet(roleNames));
     }
 }
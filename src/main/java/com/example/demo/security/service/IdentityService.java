@@ -1,16 +1,32 @@
 package com.example.demo.security.service;
 
+import com.example.demo.security.ratelimit.IpAddress;
+import com.example.demo.security.ratelimit.IpCidr;
+import com.example.demo.security.ratelimit.IpPrefixTrie;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Service to identify a user for rate-limiting and auditing purposes.
  * It prioritizes the authenticated username, falling back to the IP address for unauthenticated requests.
  */
 @Service
 public class IdentityService {
+    private static final Logger logger = LoggerFactory.getLogger(IdentityService.class);
+
+    private final IpPrefixTrie<Boolean> trustedProxies;
+    private final AtomicBoolean untrustedForwardingReported = new AtomicBoolean();
+
+    public IdentityService(@Value("${security.trusted-proxies:}") String trustedProxies) {
+        this.trustedProxies = compileTrustedProxies(trustedProxies);
+    }
 
     /**
      * Retrieves the username from the security context.
@@ -36,26 +52,136 @@ public class IdentityService {
     }
 
     /**
-     * Retrieves the client's IP address from the request headers.
-     * This handles common proxy headers to get the correct IP.
+     * Retrieves the client's IP address, honoring forwarding headers only from trusted proxies.
      *
      * @param request The current HTTP request.
-     * @return The client's IP address.
+     * @return The client's IP address in canonical form.
      */
     public String getClientIpAddress(HttpServletRequest request) {
+        return resolveClientIp(request).toString();
+    }
+
+    /**
+     * Resolves the client's IP address as a binary key.
+     * Forwarding headers are set by whoever sends the request, so they are only read when the direct peer is a
+     * trusted proxy. {@code X-Forwarded-For} is then walked from the right, where the closest proxy appended the
+     * address it received the request from, and the first address that is not a trusted proxy is the client.
+     * Without trusted proxies the direct peer is the client.
+     *
+     * @param request The current HTTP request.
+     * @return The client's IP address, or {@link IpAddress#UNSPECIFIED} if none could be determined.
+     */
+    public IpAddress resolveClientIp(HttpServletRequest request) {
         if (request == null) {
-            return "0.0.0.0";
+            return IpAddress.UNSPECIFIED;
+        }
+        IpAddress remote = IpAddress.parse(request.getRemoteAddr());
+        if (remote == null) {
+            return IpAddress.UNSPECIFIED;
+        }
+        if (!isTrustedProxy(remote)) {
+            reportUntrustedForwarding(request, remote);
+            return remote;
+        }
+
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            return walkForwardedFor(forwardedFor, remote);
+        }
+        IpAddress address = parseFirst(request.getHeader("Proxy-Client-IP"));
+        if (address == null) {
+            address = parseFirst(request.getHeader("WL-Proxy-Client-IP"));
+        }
+        return address != null ? address : remote;
+    }
+
+    /**
+     * Walks an {@code X-Forwarded-For} header from right to left, skipping trusted proxies.
+     *
+     * @param header The header value.
+     * @param peer   The trusted proxy the request was received from.
+     * @return The first address that is not a trusted proxy, the left-most address if all are trusted, or the last
+     * trusted hop if an entry cannot be parsed.
+     */
+    private IpAddress walkForwardedFor(String header, IpAddress peer) {
+        IpAddress hop = peer;
+        int end = header.length();
+        while (end > 0) {
+            int comma = header.lastIndexOf(',', end - 1);
+            IpAddress address = IpAddress.parse(header.substring(comma + 1, end).trim());
+            if (address == null) {
+                // A hop that is not an address cannot be trusted to have forwarded the rest of the header.
+                return hop;
+            }
+            if (!isTrustedProxy(address)) {
+                return address;
+            }
+            hop = address;
+            end = comma;
+        }
+        return hop;
+    }
+
+    /**
+     * Warns once when a peer that is not a trusted proxy sends forwarding headers. Behind a load balancer missing
+     * from {@code security.trusted-proxies}, every client shares the balancer's address, and with it one per-IP
+     * rate limit budget and the IP rules of the balancer's range.
+     *
+     * @param request The current HTTP request.
+     * @param peer    The untrusted direct peer.
+     */
+    private void reportUntrustedForwarding(HttpServletRequest request, IpAddress peer) {
+        if (untrustedForwardingReported.get()) {
+            return;
         }
-        String ipAddress = request.getHeader("X-Forwarded-For");
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getHeader("Proxy-Client-IP");
+        String header = request.getHeader("X-Forwarded-For") != null ? "X-Forwarded-For"
+                : request.getHeader("Proxy-Client-IP") != null ? "Proxy-Client-IP"
+                : request.getHeader("WL-Proxy-Client-IP") != null ? "WL-Proxy-Client-IP"
+                : null;
+        if (header != null && untrustedForwardingReported.compareAndSet(false, true)) {
+            logger.warn("Ignoring the {} header from {}, which is not in security.trusted-proxies. If the application runs "
+                    + "behind a proxy or load balancer, add its range there; until then all clients behind it share its "
+                    + "address for rate limits and IP rules. This warning is logged once.", header, peer);
         }
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getHeader("WL-Proxy-Client-IP");
+    }
+
+    private boolean isTrustedProxy(IpAddress address) {
+        return !trustedProxies.isEmpty() && trustedProxies.longestMatch(address, trusted -> true) != null;
+    }
+
+    /**
+     * Parses the first entry of a comma-separated address header.
+     *
+     * @param header The header value, may be {@code null}.
+     * @return The address, or {@code null} if the header is missing or its first entry is not an IP address.
+     */
+    private IpAddress parseFirst(String header) {
+        if (header == null || header.isEmpty()) {
+            return null;
         }
-        if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
-            ipAddress = request.getRemoteAddr();
+        int comma = header.indexOf(',');
+        return IpAddress.parse((comma >= 0 ? header.substring(0, comma) : header).trim());
+    }
+
+    /**
+     * Compiles the trusted proxy ranges, ignoring and logging invalid entries.
+     *
+     * @param trustedProxies The comma-separated CIDR ranges.
+     * @return The trie of trusted ranges.
+     */
+    private static IpPrefixTrie<Boolean> compileTrustedProxies(String trustedProxies) {
+        IpPrefixTrie.Builder<Boolean> builder = IpPrefixTrie.builder();
+        for (String entry : trustedProxies.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            try {
+                IpCidr range = IpCidr.parse(entry);
+                builder.put(range.network(), range.keyPrefixLength(), Boolean.TRUE);
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring invalid trusted proxy range: {}", entry);
+            }
         }
-        return ipAddress;
+        return builder.build();
     }
 }
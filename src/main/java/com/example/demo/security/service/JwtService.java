@@ -1,24 +1,36 @@
 package com.example.demo.security.service;
 
 import com.example.demo.config.constants.ApplicationConfigKeys;
+import com.example.demo.config.event.ConfigChangedEvent;
 import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.config.snapshot.ConfigSnapshot;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.security.SignatureException;
+import com.example.demo.security.AuthoritySet;
+import com.example.demo.security.CustomUserDetails;
 import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 /**
@@ -26,7 +38,21 @@ import java.util.function.Function;
  */
 @Service
 public class JwtService {
+    /**
+     * Claim holding the authority names of a stateless token.
+     */
+    public static final String AUTHORITIES_CLAIM = "authorities";
+    /**
+     * Claim holding the user's security version at the time a stateless token was issued.
+     */
+    public static final String SECURITY_VERSION_CLAIM = "ver";
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtService.class);
+    private static final int VERIFIED_TOKEN_CACHE_MAX_SIZE = 10_000;
+    private static final long VERIFIED_TOKEN_CACHE_MAX_TTL_MILLIS = 5 * 60 * 1000L;
+
     private final ApplicationConfigService applicationConfigService;
+    private final AuthoritySnapshotService authoritySnapshotService;
 
     @Value("${application.security.jwt.secret-key}")
     private String secretKey;
@@ -34,8 +60,15 @@ public class JwtService {
     @Value("${application.security.jwt.expiration:86400000}")
     private long jwtExpiration;
 
-    public JwtService(ApplicationConfigService applicationConfigService) {
+    /**
+     * The key and parser built from the currently configured secret. Replaced as a whole when the secret changes.
+     * Guarded by this service's lock for writes.
+     */
+    private volatile SigningMaterial signingMaterial;
+
+    public JwtService(ApplicationConfigService applicationConfigService, AuthoritySnapshotService authoritySnapshotService) {
         this.applicationConfigService = applicationConfigService;
+        this.authoritySnapshotService = authoritySnapshotService;
     }
 
     /**
@@ -68,7 +101,14 @@ public class JwtService {
      * @return The generated JWT string.
      */
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (isStatelessEnabled() && userDetails instanceof CustomUserDetails customUserDetails) {
+            claims.put(AUTHORITIES_CLAIM, customUserDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList());
+            claims.put(SECURITY_VERSION_CLAIM, customUserDetails.getSecurityVersion());
+        }
+        return generateToken(claims, userDetails);
     }
 
     /**
@@ -79,9 +119,8 @@ public class JwtService {
      * @return The generated JWT string.
      */
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        long finalJwtExpiration = Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.JWT_EXPIRATION))
-                .map(Long::parseLong)
-                .orElse(this.jwtExpiration);
+        long configuredExpiration = applicationConfigService.getSnapshot().getJwtExpirationMillis();
+        long finalJwtExpiration = configuredExpiration > 0 ? configuredExpiration : this.jwtExpiration;
 
         return Jwts.builder()
                 .claims()
@@ -90,7 +129,7 @@ public class JwtService {
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + finalJwtExpiration))
                 .and()
-                .signWith(getSigningKey(), Jwts.SIG.HS256)
+                .signWith(getSigningMaterial().key(), Jwts.SIG.HS256)
                 .compact();
     }
 
@@ -102,8 +141,62 @@ public class JwtService {
      * @return {@code true} if the token is valid, {@code false} otherwise.
      */
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    /**
+     * Validates already verified claims against the user's details.
+     *
+     * @param claims      The verified claims of a JWT.
+     * @param userDetails The UserDetails object.
+     * @return {@code true} if the claims belong to the user and have not expired, {@code false} otherwise.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject()) && !claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * Checks whether stateless authentication is enabled in the application configuration.
+     *
+     * @return {@code true} if principals should be built from token claims, {@code false} otherwise.
+     */
+    public boolean isStatelessEnabled() {
+        return applicationConfigService.getSnapshot().isJwtStatelessEnabled();
+    }
+
+    /**
+     * Checks whether the claims can be used to build a principal without loading the user.
+     *
+     * @param claims The verified claims of a JWT.
+     * @return {@code true} if stateless mode is enabled and the token carries authorities and a security version.
+     */
+    public boolean isStatelessToken(Claims claims) {
+        return isStatelessEnabled() && claims.containsKey(AUTHORITIES_CLAIM) && claims.containsKey(SECURITY_VERSION_CLAIM);
+    }
+
+    /**
+     * Extracts the security version a stateless token was issued with.
+     *
+     * @param claims The verified claims of a stateless JWT.
+     * @return The security version claim.
+     */
+    public long extractSecurityVersion(Claims claims) {
+        return claims.get(SECURITY_VERSION_CLAIM, Number.class).longValue();
+    }
+
+    /**
+     * Builds a principal from the claims of a stateless token.
+     *
+     * @param claims The verified claims of a stateless JWT.
+     * @return A UserDetails object carrying the token's subject and authorities.
+     */
+    public UserDetails buildPrincipal(Claims claims) {
+        List<?> authorityNames = claims.get(AUTHORITIES_CLAIM, List.class);
+        AuthoritySet authoritySet = authoritySnapshotService.getAuthoritySetForNames(authorityNames.stream()
+                .map(String::valueOf)
+                .toList());
+        return new CustomUserDetails(null, claims.getSubject(), "", true, true, true, true,
+                extractSecurityVersion(claims), Set.of(), authoritySet);
     }
 
     /**
@@ -113,62 +206,199 @@ public class JwtService {
      * @return An Optional containing the username if the token is valid, or empty otherwise.
      */
     public Optional<String> extractUsernameFromToken(HttpServletRequest request) {
+        return resolveBearerToken(request)
+                .flatMap(this::parseClaims)
+                .map(Claims::getSubject);
+    }
+
+    /**
+     * Extracts the bearer token from the request's Authorization header.
+     *
+     * @param request The HTTP request.
+     * @return An Optional containing the raw JWT, or empty if no bearer token was sent.
+     */
+    public Optional<String> resolveBearerToken(HttpServletRequest request) {
         final String authHeader = request.getHeader("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             return Optional.empty();
         }
-        String jwt = authHeader.substring(7);
+        return Optional.of(authHeader.substring(7));
+    }
+
+    /**
+     * Verifies the signature and expiry of a JWT and parses its claims.
+     *
+     * @param token The JWT string.
+     * @return An Optional containing the claims if the token is valid, or empty otherwise.
+     */
+    public Optional<Claims> parseClaims(String token) {
         try {
-            return Optional.ofNullable(extractUsername(jwt));
-        } catch (SignatureException | MalformedJwtException | ExpiredJwtException e) {
+            return Optional.of(extractAllClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
             return Optional.empty();
         }
     }
 
     /**
      * Extracts all claims from a JWT.
+     * A token verified recently with the current key is served from the verified-token cache,
+     * skipping signature verification and claim parsing; its expiry is still checked on every call.
      *
      * @param token The JWT string.
      * @return The Claims object from the token.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        SigningMaterial material = getSigningMaterial();
+        String cacheKey = verifiedTokenCacheKey(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = material.verifiedTokens().get(cacheKey);
+        if (cached != null && cached.token().equals(token)) {
+            if (now < cached.expiresAtMillis()) {
+                return cached.claims();
+            }
+            material.verifiedTokens().remove(cacheKey, cached);
+        }
+
+        Claims claims = material.parser()
                 .parseSignedClaims(token)
                 .getPayload();
+
+        long expiresAtMillis = now + VERIFIED_TOKEN_CACHE_MAX_TTL_MILLIS;
+        if (claims.getExpiration() != null) {
+            expiresAtMillis = Math.min(expiresAtMillis, claims.getExpiration().getTime());
+        }
+        material.verifiedTokens().put(cacheKey, new VerifiedToken(token, claims, expiresAtMillis), now);
+        return claims;
     }
 
     /**
-     * Checks if a JWT token has expired.
+     * Derives the verified-token cache key from a compact JWT.
+     * The signature segment is already an HMAC digest of the header and payload, so it is used as-is;
+     * a hit is confirmed by comparing the full token.
      *
-     * @param token The JWT string.
-     * @return {@code true} if the token has expired, {@code false} otherwise.
+     * @param token The compact JWT string.
+     * @return The cache key for the token.
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static String verifiedTokenCacheKey(String token) {
+        int lastDot = token.lastIndexOf('.');
+        return lastDot >= 0 ? token.substring(lastDot + 1) : token;
     }
 
     /**
-     * Extracts the expiration date from a JWT.
+     * Rebuilds the signing key and parser when the configured secret changes.
+     * A secret that cannot be used keeps the previous key in place.
      *
-     * @param token The JWT string.
-     * @return The expiration date.
+     * @param event The configuration change.
      */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    @EventListener
+    public synchronized void onConfigChanged(ConfigChangedEvent event) {
+        if (event.affects(ApplicationConfigKeys.JWT_SECRET_KEY)) {
+            try {
+                this.signingMaterial = buildSigningMaterial(event.getCurrent());
+            } catch (RuntimeException e) {
+                logger.error("Could not apply the changed JWT secret, keeping the previous key: {}", e.getMessage());
+            }
+        }
     }
 
     /**
-     * Retrieves the signing key for the JWT.
+     * Retrieves the signing key and parser for the currently configured secret.
+     * They are built on first use and afterwards only when the secret changes.
      *
-     * @return The signing key.
+     * @return The current signing material.
      */
-    private SecretKey getSigningKey() {
-        String finalSecretKey = Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.JWT_SECRET_KEY))
-                .orElse(this.secretKey);
+    private SigningMaterial getSigningMaterial() {
+        SigningMaterial current = this.signingMaterial;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (this.signingMaterial == null) {
+                this.signingMaterial = buildSigningMaterial(applicationConfigService.getSnapshot());
+            }
+            return this.signingMaterial;
+        }
+    }
 
-        byte[] keyBytes = Decoders.BASE64.decode(finalSecretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Decodes the secret of a configuration snapshot, falling back to the one from the application properties.
+     *
+     * @param config The configuration snapshot.
+     * @return The signing material for the secret.
+     */
+    private SigningMaterial buildSigningMaterial(ConfigSnapshot config) {
+        String configuredSecretKey = config.getJwtSecretKey();
+        return SigningMaterial.of(configuredSecretKey != null ? configuredSecretKey : this.secretKey);
+    }
+
+    /**
+     * Pairing of a secret with the signing key and thread-safe parser derived from it, plus the tokens verified with them.
+     * Because the cache lives here, rotating the secret discards every token verified with the old key.
+     *
+     * @param secret         The base64-encoded secret the key was derived from.
+     * @param key            The HMAC signing key.
+     * @param parser         The parser verifying signatures with {@code key}.
+     * @param verifiedTokens Cache of recently verified tokens, keyed by signature segment.
+     */
+    private record SigningMaterial(String secret, SecretKey key, JwtParser parser, VerifiedTokenCache verifiedTokens) {
+
+        private static SigningMaterial of(String secret) {
+            SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+            return new SigningMaterial(secret, key, Jwts.parser().verifyWith(key).build(), new VerifiedTokenCache());
+        }
+    }
+
+    /**
+     * Bounded cache of verified tokens that takes no lock on a read.
+     * Expiry is checked by the reader; the size bound is approximate. Once the cache is full, the thread that
+     * adds the next entry evicts the expired entries and, if that is not enough, arbitrary ones down to
+     * {@value #EVICTION_TARGET_PERCENT}% of the maximum size, while other threads keep reading and writing.
+     */
+    private static final class VerifiedTokenCache {
+        private static final int EVICTION_TARGET_PERCENT = 90;
+
+        private final ConcurrentHashMap<String, VerifiedToken> entries = new ConcurrentHashMap<>();
+        private final AtomicBoolean evicting = new AtomicBoolean();
+
+        private VerifiedToken get(String key) {
+            return entries.get(key);
+        }
+
+        private void remove(String key, VerifiedToken token) {
+            entries.remove(key, token);
+        }
+
+        private void put(String key, VerifiedToken token, long nowMillis) {
+            entries.put(key, token);
+            if (entries.size() > VERIFIED_TOKEN_CACHE_MAX_SIZE && evicting.compareAndSet(false, true)) {
+                try {
+                    evict(nowMillis);
+                } finally {
+                    evicting.set(false);
+                }
+            }
+        }
+
+        private void evict(long nowMillis) {
+            entries.values().removeIf(entry -> nowMillis >= entry.expiresAtMillis());
+            int target = VERIFIED_TOKEN_CACHE_MAX_SIZE / 100 * EVICTION_TARGET_PERCENT;
+            Iterator<String> keys = entries.keySet().iterator();
+            while (entries.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * A token whose signature has been verified, with its parsed claims.
+     *
+     * @param token           The full compact JWT, used to confirm a cache hit.
+     * @param claims          The verified claims.
+     * @param expiresAtMillis The epoch millis after which the entry must not be used: the token's expiry,
+     *                        capped by the cache's maximum TTL.
+     */
+    private record VerifiedToken(String token, Claims claims, long expiresAtMillis) {
     }
 }
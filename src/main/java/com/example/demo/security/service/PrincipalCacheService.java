@@ -0,0 +1,217 @@
+package com.example.demo.security.service;
+
+import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.security.CustomUserDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-based in-process cache of authenticated principals keyed by username.
+ * Concurrent misses for the same username share a single load, and entries are evicted
+ * as soon as the user or one of the user's roles changes.
+ * <p>
+ * Invalidation is local to this node; on other nodes a changed principal lives at most for the configured TTL.
+ */
+@Service
+public class PrincipalCacheService {
+
+    private final ConcurrentHashMap<String, CompletableFuture<CachedPrincipal>> cache = new ConcurrentHashMap<>();
+    private final ApplicationConfigService applicationConfigService;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public PrincipalCacheService(ApplicationConfigService applicationConfigService, MeterRegistry meterRegistry) {
+        this.applicationConfigService = applicationConfigService;
+        this.hits = Counter.builder("security.principal.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("security.principal.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("security.principal.cache.evictions").register(meterRegistry);
+        Gauge.builder("security.principal.cache.size", cache, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached principal for the username, loading it through {@code loader} on a miss.
+     * Only one caller loads a given username at a time; concurrent callers wait for its result.
+     *
+     * @param username The username to look up.
+     * @param loader   The function loading the principal from the database.
+     * @return The cached or freshly loaded principal.
+     */
+    public CustomUserDetails get(String username, Function<String, CustomUserDetails> loader) {
+        CompletableFuture<CachedPrincipal> existing = cache.get(username);
+        if (existing != null) {
+            CachedPrincipal cached = existing.getNow(null);
+            if (cached == null || !cached.isExpired(System.nanoTime())) {
+                hits.increment();
+                return await(existing).principal();
+            }
+            if (cache.remove(username, existing)) {
+                evictions.increment();
+            }
+        }
+
+        CompletableFuture<CachedPrincipal> created = new CompletableFuture<>();
+        existing = cache.putIfAbsent(username, created);
+        if (existing != null) {
+            hits.increment();
+            return await(existing).principal();
+        }
+
+        misses.increment();
+        try {
+            CustomUserDetails principal = loader.apply(username);
+            created.complete(new CachedPrincipal(principal, System.nanoTime() + TimeUnit.SECONDS.toNanos(getTtlSeconds())));
+            enforceMaxSize();
+            return principal;
+        } catch (RuntimeException e) {
+            cache.remove(username, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the cached principal for the username without loading it.
+     *
+     * @param username The username to look up.
+     * @return An Optional containing the principal if it is cached and not expired, or empty otherwise.
+     */
+    public Optional<CustomUserDetails> getIfPresent(String username) {
+        CompletableFuture<CachedPrincipal> existing = cache.get(username);
+        CachedPrincipal cached = existing != null ? existing.getNow(null) : null;
+        if (cached == null || cached.isExpired(System.nanoTime())) {
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached.principal());
+    }
+
+    /**
+     * Evicts the cached principal of a user.
+     *
+     * @param username The username to evict.
+     */
+    public void evict(String username) {
+        if (cache.remove(username) != null) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Evicts every cached principal holding the given role.
+     *
+     * @param roleName The name of the changed role.
+     */
+    public void evictByRole(String roleName) {
+        cache.entrySet().removeIf(entry -> {
+            CachedPrincipal cached = entry.getValue().getNow(null);
+            boolean matches = cached == null || cached.principal().roles().contains(roleName);
+            if (matches) {
+                evictions.increment();
+            }
+            return matches;
+        });
+    }
+
+    /**
+     * Removes all entries whose TTL has elapsed.
+     *
+     * @return The number of entries removed.
+     */
+    public int removeExpiredEntries() {
+        long now = System.nanoTime();
+        int removed = 0;
+        Iterator<CompletableFuture<CachedPrincipal>> iterator = cache.values().iterator();
+        while (iterator.hasNext()) {
+            CachedPrincipal cached = iterator.next().getNow(null);
+            if (cached != null && cached.isExpired(now)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        evictions.increment(removed);
+        return removed;
+    }
+
+    /**
+     * @return The number of principals currently cached.
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Keeps the cache within its configured bound: expired entries go first, then arbitrary ones.
+     */
+    private void enforceMaxSize() {
+        int maxSize = getMaxSize();
+        if (cache.size() <= maxSize) {
+            return;
+        }
+        removeExpiredEntries();
+
+        Iterator<String> iterator = cache.keySet().iterator();
+        while (cache.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Waits for a load started by another caller and unwraps its failure.
+     *
+     * @param future The in-flight or completed load.
+     * @return The loaded entry.
+     */
+    private CachedPrincipal await(CompletableFuture<CachedPrincipal> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the configured time-to-live of cached principals, with a fallback to a default value.
+     *
+     * @return The configured or default TTL in seconds.
+     */
+    private long getTtlSeconds() {
+        return applicationConfigService.getSnapshot().getPrincipalCacheTtlSeconds();
+    }
+
+    /**
+     * Retrieves the configured maximum number of cached principals, with a fallback to a default value.
+     *
+     * @return The configured or default maximum size.
+     */
+    private int getMaxSize() {
+        return applicationConfigService.getSnapshot().getPrincipalCacheMaxSize();
+    }
+
+    /**
+     * A cached principal together with the {@link System#nanoTime()} at which it expires.
+     */
+    private record CachedPrincipal(CustomUserDetails principal, long expiresAtNanos) {
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -1,58 +1,247 @@
 package com.example.demo.security.service;
 
-import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.service.ApplicationConfigService;
-import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.ratelimiter.RateLimiterConfig;
-import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import com.example.demo.config.event.ConfigChangedEvent;
+import com.example.demo.security.RequestAuthenticationContext;
+import com.example.demo.security.ratelimit.IpAddress;
+import com.example.demo.security.ratelimit.IpRule;
+import com.example.demo.security.ratelimit.IpRuleAction;
+import com.example.demo.security.ratelimit.RateLimitDimension;
+import com.example.demo.security.ratelimit.RateLimitPolicy;
+import com.example.demo.security.ratelimit.RateLimitRoute;
+import com.example.demo.security.ratelimit.RateLimitRules;
+import com.example.demo.security.ratelimit.SharedStoreCircuitBreaker;
+import com.example.demo.security.ratelimit.SharedTokenBucketRepository;
+import com.example.demo.security.ratelimit.TokenBucketStore;
+import com.example.demo.security.ratelimit.TokenLeaseStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Service for managing API request rate limits using Resilience4j.
- * This implementation provides a per-user rate limit using the token bucket algorithm.
- * It dynamically retrieves configuration values from the {@link ApplicationConfigService},
- * allowing for runtime changes without a service restart.
+ * Service for managing API request rate limits.
+ * This implementation provides independent per-IP, per-user and per-route-group limits using the token bucket
+ * algorithm, all backed by one bounded {@link TokenBucketStore} whose idle buckets are evicted.
+ * The configuration is compiled into {@link RateLimitRules} holding versioned {@link RateLimitPolicy} objects;
+ * when one of their values in the {@link ApplicationConfigService} changes, a new version is compiled and existing buckets
+ * adopt it on their next request, allowing for runtime changes without a service restart.
+ * <p>
+ * In cluster mode the same budgets are shared by all nodes: each node leases blocks of tokens from the database
+ * through a {@link TokenLeaseStore} and serves them locally, so nodes coordinate once per lease rather than once
+ * per request. If the database cannot be reached, a {@link SharedStoreCircuitBreaker} keeps every node on its own
+ * local limits for a cool-down period, so requests do not each wait for the failing database.
  */
 @Service
 public class RateLimitingService {
-    private final RateLimiterRegistry rateLimiterRegistry;
-    private final ApplicationConfigService applicationConfigService;
 
-    public RateLimitingService(RateLimiterRegistry rateLimiterRegistry, ApplicationConfigService applicationConfigService) {
-        this.rateLimiterRegistry = rateLimiterRegistry;
-        this.applicationConfigService = applicationConfigService;
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitingService.class);
+
+    private final TokenBucketStore tokenBucketStore = new TokenBucketStore();
+    private final TokenLeaseStore tokenLeaseStore;
+    private final SharedStoreCircuitBreaker sharedStoreCircuitBreaker;
+    private final Counter localFallbacks;
+    private final AtomicLong policyVersion = new AtomicLong();
+
+    private volatile RateLimitRules rules;
+
+    public RateLimitingService(ApplicationConfigService applicationConfigService, SharedTokenBucketRepository sharedTokenBucketRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${rate.limit.cluster.fallback-cooldown-ms:10000}") long fallbackCooldownMillis) {
+        this.rules = RateLimitRules.compile(applicationConfigService.getSnapshot()::getValue, policyVersion.incrementAndGet());
+        this.tokenLeaseStore = new TokenLeaseStore(sharedTokenBucketRepository);
+        this.sharedStoreCircuitBreaker = new SharedStoreCircuitBreaker(TimeUnit.MILLISECONDS.toNanos(fallbackCooldownMillis));
+        this.localFallbacks = Counter.builder("security.rate.limit.local.fallbacks").register(meterRegistry);
+        Gauge.builder("security.rate.limit.buckets", tokenBucketStore, TokenBucketStore::size).register(meterRegistry);
+        Gauge.builder("security.rate.limit.leases", tokenLeaseStore, TokenLeaseStore::size).register(meterRegistry);
+    }
+
+    /**
+     * Finds the rate-limited route of a request URI.
+     * The configuration is compiled only when one of its values changes, so a lookup is a single walk over the URI.
+     *
+     * @param requestUri The request URI.
+     * @return The matching route, or {@code null} if the request is not rate-limited.
+     */
+    public RateLimitRoute resolveRoute(String requestUri) {
+        return rules.match(requestUri);
+    }
+
+    /**
+     * Builds the key of the per-IP budget of a client address.
+     *
+     * @param clientIp The client address.
+     * @return The bucket key, or {@code null} if addresses have no budget of their own.
+     */
+    public String resolveIpBucketKey(IpAddress clientIp) {
+        RateLimitRules current = this.rules;
+        return current.getIpPolicy() != null ? current.getIpBucketKey(clientIp) : null;
     }
 
     /**
-     * Attempts to consume a token for a given user identified by a unique key.
-     * This method retrieves the rate limit capacity and refill duration from the
-     * dynamic application configuration before attempting to acquire a permission.
+     * Finds the rule of the most specific active address range containing the client's address.
      *
-     * @param identifier The unique identifier for the user (e.g., username, IP address).
-     * @return {@code true} if the request is allowed, {@code false} if the rate limit is exceeded.
+     * @param clientIp The client address.
+     * @return The rule, or {@code null} if no active rule covers the address.
      */
-    public boolean tryConsume(String identifier) {
-        // Dynamically fetch configuration values with fallbacks to hardcoded defaults.
-        int capacity = Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.RATE_LIMIT_CAPACITY))
-                .map(Integer::parseInt)
-                .orElse(500); // Default to 500 if the config is not found or is invalid.
+    public IpRule resolveIpRule(IpAddress clientIp) {
+        return rules.matchIp(clientIp);
+    }
 
-        long refillDurationMinutes = Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.RATE_LIMIT_REFILL_DURATION_MINUTES))
-                .map(Long::parseLong)
-                .orElse(1L); // Default to 1 minute if the config is not found or is invalid.
+    /**
+     * Draws one token from each budget of the request in a single pass: the address range of a limiting IP rule,
+     * the client IP (aggregated to its configured prefix), the authenticated user and the caller's route group.
+     * All budgets live in the same bounded store. If any budget is exhausted, the tokens already taken from the
+     * others are returned, so a rejected request costs nothing. The bucket keys are those derived with the context.
+     *
+     * @param context The authentication context of the request, with a rate-limited route.
+     * @param ipRule  The IP rule of the client's address range, may be {@code null}.
+     * @return {@code null} if the request is allowed, or the first budget that denied it.
+     */
+    public RateLimitDimension tryConsume(RequestAuthenticationContext context, IpRule ipRule) {
+        RateLimitRoute route = context.getRateLimitRoute();
+        RateLimitRules current = this.rules;
 
-        // Create a custom rate limiter configuration on the fly.
-        RateLimiter rateLimiter = rateLimiterRegistry.rateLimiter(identifier, () -> RateLimiterConfig.custom()
-                .limitForPeriod(capacity)
-                .limitRefreshPeriod(Duration.ofMinutes(refillDurationMinutes))
-                .timeoutDuration(Duration.ofSeconds(0))
-                .build());
+        RateLimitPolicy prefixPolicy = ipRule != null && ipRule.action() == IpRuleAction.LIMIT ? ipRule.policy() : null;
+        String prefixKey = prefixPolicy != null ? "cidr:" + ipRule.cidr() : null;
+        TokenSource prefixSource = prefixKey != null ? consume(current, prefixKey, prefixPolicy) : null;
+        if (prefixKey != null && prefixSource == null) {
+            return RateLimitDimension.PREFIX;
+        }
 
-        // Attempt to acquire one permission (token) from the rate limiter.
-        // This is the core logic that checks and enforces the rate limit.
-        return rateLimiter.acquirePermission(1);
+        RateLimitPolicy ipPolicy = current.getIpPolicy();
+        String ipKey = null;
+        if (ipPolicy != null) {
+            // The per-IP budget may have been enabled after the context was resolved.
+            ipKey = context.getIpRateLimitKey() != null ? context.getIpRateLimitKey() : current.getIpBucketKey(context.getClientIp());
+        }
+        TokenSource ipSource = ipKey != null ? consume(current, ipKey, ipPolicy) : null;
+        if (ipKey != null && ipSource == null) {
+            refund(prefixKey, prefixPolicy, prefixSource);
+            return RateLimitDimension.IP;
+        }
+
+        RateLimitPolicy userPolicy = current.getUserPolicy();
+        String userKey = userPolicy != null ? context.getUserRateLimitKey() : null;
+        TokenSource userSource = userKey != null ? consume(current, userKey, userPolicy) : null;
+        if (userKey != null && userSource == null) {
+            refund(prefixKey, prefixPolicy, prefixSource);
+            refund(ipKey, ipPolicy, ipSource);
+            return RateLimitDimension.USER;
+        }
+
+        if (consume(current, context.getRouteRateLimitKey(), route.policy()) == null) {
+            refund(prefixKey, prefixPolicy, prefixSource);
+            refund(ipKey, ipPolicy, ipSource);
+            refund(userKey, userPolicy, userSource);
+            return RateLimitDimension.ROUTE;
+        }
+        return null;
+    }
+
+    /**
+     * Removes the buckets of clients that have been idle long enough for their bucket to refill completely.
+     *
+     * @return The number of buckets removed.
+     */
+    public int removeIdleBuckets() {
+        int removed = tokenBucketStore.removeIdleBuckets();
+        // While the shared store is unreachable, the requests probing it report when it is back.
+        if (rules.isClusterEnabled() && !sharedStoreCircuitBreaker.isOpen()) {
+            try {
+                removed += tokenLeaseStore.removeIdleBuckets();
+            } catch (DataAccessException e) {
+                logger.warn("Could not remove idle shared rate limit buckets: {}", e.getMessage());
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Takes a token from a budget, leasing it from the shared bucket when budgets are shared by the cluster.
+     * If the shared store cannot be reached, the budget is enforced by this node alone until the circuit breaker
+     * lets a request find that it is back. The outage is logged once, not once per request.
+     *
+     * @param current The rules of the request.
+     * @param key     The bucket key.
+     * @param policy  The limit of the budget.
+     * @return The store that served the token, or {@code null} if the budget denies the request.
+     */
+    private TokenSource consume(RateLimitRules current, String key, RateLimitPolicy policy) {
+        if (current.isClusterEnabled()) {
+            if (sharedStoreCircuitBreaker.allowRequest()) {
+                try {
+                    boolean allowed = tokenLeaseStore.tryConsume(key, policy, current.getLeaseSize(), current.getMaxBuckets());
+                    if (sharedStoreCircuitBreaker.recordSuccess()) {
+                        logger.info("Shared rate limit store reachable again, sharing budgets across nodes.");
+                    }
+                    return allowed ? TokenSource.SHARED : null;
+                } catch (DataAccessException e) {
+                    if (sharedStoreCircuitBreaker.recordFailure()) {
+                        logger.warn("Shared rate limit store unavailable, limiting locally until it is back: {}", e.getMessage());
+                    } else {
+                        logger.debug("Shared rate limit store still unavailable: {}", e.getMessage());
+                    }
+                } catch (RuntimeException e) {
+                    // Any outcome must be reported, or a failed probe would keep the breaker from ever closing.
+                    sharedStoreCircuitBreaker.recordFailure();
+                    throw e;
+                }
+            }
+            localFallbacks.increment();
+        }
+        return tokenBucketStore.tryConsume(key, 1, policy, current.getMaxBuckets(), current.getOverflowPolicy()) ? TokenSource.LOCAL : null;
+    }
+
+    /**
+     * Returns a token taken by {@link #consume} to the store that served it. The circuit breaker may have changed
+     * state since, so its current state does not tell where the token came from.
+     *
+     * @param key    The bucket key, or {@code null} if no token was taken from the budget.
+     * @param policy The limit of the budget.
+     * @param source The store that served the token.
+     */
+    private void refund(String key, RateLimitPolicy policy, TokenSource source) {
+        if (key == null) {
+            return;
+        }
+        if (source == TokenSource.SHARED) {
+            tokenLeaseStore.refund(key, policy);
+        } else {
+            tokenBucketStore.refund(key, 1, policy);
+        }
+    }
+
+    /**
+     * Compiles a new version of the rules when one of their configuration values changes.
+     * Existing buckets adopt the new policies on their next request.
+     *
+     * @param event The configuration change.
+     */
+    @EventListener
+    public synchronized void onConfigChanged(ConfigChangedEvent event) {
+        if (event.affects(RateLimitRules.CONFIG_KEYS)) {
+            try {
+                this.rules = RateLimitRules.compile(event.getCurrent()::getValue, policyVersion.incrementAndGet());
+            } catch (RuntimeException e) {
+                logger.error("Could not compile the changed rate limit rules, keeping the previous ones: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * The store a token was taken from.
+     */
+    private enum TokenSource {
+        SHARED,
+        LOCAL
     }
 }
@@ -0,0 +1,52 @@
+package com.example.demo.security.service;
+
+import com.example.demo.security.RequestAuthenticationContext;
+import com.example.demo.security.ratelimit.IpAddress;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service that resolves the {@link RequestAuthenticationContext} for a request.
+ * The first caller computes it; every later caller within the same request reuses the stored result.
+ */
+@Service
+public class RequestContextService {
+
+    private final JwtService jwtService;
+    private final IdentityService identityService;
+    private final RateLimitingService rateLimitingService;
+
+    public RequestContextService(JwtService jwtService, IdentityService identityService, RateLimitingService rateLimitingService) {
+        this.jwtService = jwtService;
+        this.identityService = identityService;
+        this.rateLimitingService = rateLimitingService;
+    }
+
+    /**
+     * Resolves the authentication context for the request, computing it only on the first call.
+     *
+     * @param request The current HTTP request, may be {@code null} outside a servlet request.
+     * @return The authentication context for the request.
+     */
+    public RequestAuthenticationContext resolve(HttpServletRequest request) {
+        if (request == null) {
+            return new RequestAuthenticationContext(null, null, identityService.resolveClientIp(null), null, null, null);
+        }
+
+        RequestAuthenticationContext context = RequestAuthenticationContext.from(request);
+        if (context != null) {
+            return context;
+        }
+
+        String token = jwtService.resolveBearerToken(request).orElse(null);
+        Claims claims = token != null ? jwtService.parseClaims(token).orElse(null) : null;
+
+        IpAddress clientIp = identityService.resolveClientIp(request);
+        String requestUri = request.getRequestURI();
+        context = new RequestAuthenticationContext(token, claims, clientIp, requestUri,
+                rateLimitingService.resolveRoute(requestUri), rateLimitingService.resolveIpBucketKey(clientIp));
+        request.setAttribute(RequestAuthenticationContext.ATTRIBUTE, context);
+        return context;
+    }
+}
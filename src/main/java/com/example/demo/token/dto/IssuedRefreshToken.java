@@ -0,0 +1,13 @@
+package com.example.demo.token.dto;
+
+import com.example.demo.user.entity.User;
+
+/**
+ * The result of issuing or rotating a refresh token.
+ * The raw token exists only here; the database stores its hash.
+ *
+ * @param token The raw refresh token to hand to the client.
+ * @param user  The user owning the token.
+ */
+public record IssuedRefreshToken(String token, User user) {
+}
@@ -0,0 +1,137 @@
+package com.example.demo.token.entity;
+
+import com.example.demo.token.enums.RefreshTokenStatus;
+import com.example.demo.user.entity.User;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a rotating refresh token used to obtain new access tokens without re-entering a password.
+ * Only the SHA-256 hash of the token is stored. Every token descends from a single login, identified by its family,
+ * so a whole chain of rotated tokens can be revoked at once.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id"),
+        @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date")
+})
+public class RefreshToken {
+
+    /**
+     * The unique identifier for the refresh token record.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The hex-encoded SHA-256 hash of the token handed to the client.
+     */
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    /**
+     * The identifier shared by all tokens rotated from the same login.
+     */
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    /**
+     * The expiration date and time for the token.
+     */
+    @Column(name = "expiry_date", nullable = false)
+    private LocalDateTime expiryDate;
+
+    /**
+     * The current status of the token (e.g., ACTIVE, ROTATED, REVOKED).
+     */
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private RefreshTokenStatus status;
+
+    /**
+     * The date and time when the token was created.
+     */
+    @CreationTimestamp
+    @Column(name = "date_created", nullable = false, updatable = false)
+    private LocalDateTime dateCreated;
+
+    /**
+     * The User entity that owns this token.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(nullable = false, name = "user_id")
+    private User user;
+
+    public RefreshToken() {
+    }
+
+    public RefreshToken(String tokenHash, String familyId, User user, LocalDateTime expiryDate) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.user = user;
+        this.expiryDate = expiryDate;
+        this.status = RefreshTokenStatus.ACTIVE;
+    }
+
+    // Getters and Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
+    public LocalDateTime getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(LocalDateTime expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public RefreshTokenStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RefreshTokenStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getDateCreated() {
+        return dateCreated;
+    }
+
+    public void setDateCreated(LocalDateTime dateCreated) {
+        this.dateCreated = dateCreated;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.token.enums;
+
+/**
+ * Defines the possible states for a refresh token.
+ */
+public enum RefreshTokenStatus {
+    /**
+     * The token has been issued and can be exchanged for a new access token once.
+     */
+    ACTIVE,
+    /**
+     * The token has been exchanged and replaced by a newer token of the same family.
+     * Presenting it again is treated as token theft.
+     */
+    ROTATED,
+    /**
+     * The token's family has been revoked and can no longer be used.
+     */
+    REVOKED
+}
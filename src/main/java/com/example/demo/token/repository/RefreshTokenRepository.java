@@ -0,0 +1,85 @@
+package com.example.demo.token.repository;
+
+import com.example.demo.token.entity.RefreshToken;
+import com.example.demo.token.enums.RefreshTokenStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * JPA repository for the RefreshToken entity.
+ * Status changes are issued as bulk updates, so rotating or revoking never loads the affected rows.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Finds a refresh token by the hash of its value, together with its owner.
+     *
+     * @param tokenHash The hex-encoded SHA-256 hash of the token.
+     * @return An Optional containing the found token, or empty if not found.
+     */
+    @Query("SELECT r FROM RefreshToken r JOIN FETCH r.user WHERE r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Atomically moves a token from one status to another.
+     * Only one of several concurrent callers can succeed for the same token.
+     *
+     * @param id   The ID of the token.
+     * @param from The status the token is expected to have.
+     * @param to   The new status.
+     * @return The number of updated rows, 1 if the transition happened and 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int updateStatus(@Param("id") Long id, @Param("from") RefreshTokenStatus from, @Param("to") RefreshTokenStatus to);
+
+    /**
+     * Revokes every token of a family.
+     *
+     * @param familyId The family to revoke.
+     * @return The number of revoked tokens.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.status = com.example.demo.token.enums.RefreshTokenStatus.REVOKED " +
+            "WHERE r.familyId = :familyId AND r.status <> com.example.demo.token.enums.RefreshTokenStatus.REVOKED")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    /**
+     * Revokes every token family owned by the given users.
+     *
+     * @param userIds The IDs of the users.
+     * @return The number of revoked tokens.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.status = com.example.demo.token.enums.RefreshTokenStatus.REVOKED " +
+            "WHERE r.user.id IN :userIds AND r.status <> com.example.demo.token.enums.RefreshTokenStatus.REVOKED")
+    int revokeAllByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Deletes every token owned by a user.
+     *
+     * @param userId The ID of the user.
+     * @return The number of deleted tokens.
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes every token that expired before the given time.
+     *
+     * @param now The current date and time.
+     * @return The number of deleted tokens.
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiryDate < :now")
+    int deleteAllByExpiryDateBefore(@Param("now") LocalDateTime now);
+}
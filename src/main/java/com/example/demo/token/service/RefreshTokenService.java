@@ -0,0 +1,39 @@
+package com.example.demo.token.service;
+
+import com.example.demo.token.dto.IssuedRefreshToken;
+import com.example.demo.user.entity.User;
+
+import java.util.Collection;
+
+/**
+ * Service interface for managing rotating refresh tokens.
+ */
+public interface RefreshTokenService {
+
+    /**
+     * Issues the first refresh token of a new family, typically after a successful login.
+     * @param user The user the token is issued to.
+     * @return The raw refresh token.
+     */
+    String issue(User user);
+
+    /**
+     * Exchanges a refresh token for a new one of the same family.
+     * A token that has already been exchanged revokes its whole family.
+     * @param token The raw refresh token presented by the client.
+     * @return The new refresh token and its owner.
+     */
+    IssuedRefreshToken rotate(String token);
+
+    /**
+     * Revokes every refresh token family of the given users.
+     * @param userIds The IDs of the users.
+     */
+    void revokeAllForUsers(Collection<Long> userIds);
+
+    /**
+     * Deletes every refresh token of a user, typically before the user is deleted.
+     * @param userId The ID of the user.
+     */
+    void deleteAllForUser(Long userId);
+}
@@ -1,15 +1,16 @@
 package com.example.demo.token.service.impl;
 
 import com.example.demo.audit.event.AuditLogEvent;
-import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.service.ApplicationConfigService;
 import com.example.demo.exception.InvalidInputException;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.security.dto.PasswordResetDto;
+import com.example.demo.security.event.UserSecurityChangedEvent;
 import com.example.demo.token.entity.PasswordResetToken;
 import com.example.demo.token.enums.PasswordResetTokenStatus;
 import com.example.demo.token.repository.PasswordResetTokenRepository;
 import com.example.demo.token.service.PasswordResetTokenService;
+import com.example.demo.token.service.RefreshTokenService;
 import com.example.demo.user.entity.User;
 import com.example.demo.user.repository.UserRepository;
 import com.example.demo.util.TokenGenerator;
@@ -25,8 +26,6 @@ import java.util.*;
 
 @Service
 public class PasswordResetTokenServiceImpl implements PasswordResetTokenService {
-    private final static int DEFAULT_TOKEN_EXPIRATION_MINUTES = 15;
-    private final static String DEFAULT_TOKEN_TYPE = "alphanumeric";
 
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final UserRepository userRepository;
@@ -35,18 +34,21 @@ public class PasswordResetTokenServiceImpl implements PasswordResetTokenService
 
     private final ApplicationEventPublisher eventPublisher;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
     private final SecureRandom secureRandom = new SecureRandom();
 
     public PasswordResetTokenServiceImpl(PasswordResetTokenRepository passwordResetTokenRepository,
                                          UserRepository userRepository,
                                          ApplicationConfigService applicationConfigService,
                                          ApplicationEventPublisher eventPublisher,
-                                         PasswordEncoder passwordEncoder) {
+                                         PasswordEncoder passwordEncoder,
+                                         RefreshTokenService refreshTokenService) {
         this.passwordResetTokenRepository = passwordResetTokenRepository;
         this.userRepository = userRepository;
         this.applicationConfigService = applicationConfigService;
         this.eventPublisher = eventPublisher;
         this.passwordEncoder = passwordEncoder;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
@@ -115,7 +117,9 @@ public class PasswordResetTokenServiceImpl implements PasswordResetTokenService
         user.setPassword(passwordEncoder.encode(passwordResetDto.getNewPassword()));
         user.setPasswordLastUpdated(LocalDateTime.now());
         user.setCredentialsExpired(false);
+        user.incrementSecurityVersion();
         userRepository.save(user);
+        refreshTokenService.revokeAllForUsers(List.of(user.getId()));
 
         passwordResetTokenRepository.deleteById(resetToken.getId());
 
@@ -123,6 +127,7 @@ public class PasswordResetTokenServiceImpl implements PasswordResetTokenService
         details.put("userId", user.getId());
         details.put("username", user.getUsername());
         publishAuditLogEvent(user.getUsername(), EventType.PASSWORD_RESET, details);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(this, user.getUsername()));
     }
 
     /**
@@ -141,9 +146,7 @@ public class PasswordResetTokenServiceImpl implements PasswordResetTokenService
      * @return The configured expiration minutes.
      */
     private int getPasswordResetTokenExpirationMinutes() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.PASSWORD_RESET_TOKEN_EXPIRATION_MINUTES))
-                .map(Integer::parseInt)
-                .orElse(DEFAULT_TOKEN_EXPIRATION_MINUTES);
+        return applicationConfigService.getSnapshot().getPasswordResetTokenExpirationMinutes();
     }
 
     /**
@@ -152,8 +155,7 @@ public class PasswordResetTokenServiceImpl implements PasswordResetTokenService
      * @return The configured token type.
      */
     private String getPasswordResetTokenType() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.PASSWORD_RESET_TOKEN_TYPE))
-                .orElse(DEFAULT_TOKEN_TYPE);
+        return applicationConfigService.getSnapshot().getPasswordResetTokenType();
     }
 
     private void checkAccountStatus(User user) {
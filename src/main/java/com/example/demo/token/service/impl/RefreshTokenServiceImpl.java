@@ -0,0 +1,185 @@
+package com.example.demo.token.service.impl;
+
+import com.example.demo.audit.event.AuditLogEvent;
+import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.exception.InvalidInputException;
+import com.example.demo.token.dto.IssuedRefreshToken;
+import com.example.demo.token.entity.RefreshToken;
+import com.example.demo.token.enums.RefreshTokenStatus;
+import com.example.demo.token.repository.RefreshTokenRepository;
+import com.example.demo.token.service.RefreshTokenService;
+import com.example.demo.user.entity.User;
+import com.example.demo.util.constants.ValidationMessages;
+import com.example.demo.util.enums.EventType;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final ApplicationConfigService applicationConfigService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   ApplicationConfigService applicationConfigService,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.applicationConfigService = applicationConfigService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Issues the first refresh token of a new family.
+     *
+     * @param user The user the token is issued to.
+     * @return The raw refresh token.
+     */
+    @Transactional
+    @Override
+    public String issue(User user) {
+        return createToken(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one of the same family.
+     * Revocations made while rejecting a token are kept, even though the rejection itself is an exception.
+     *
+     * @param token The raw refresh token presented by the client.
+     * @return The new refresh token and its owner.
+     */
+    @Transactional(noRollbackFor = InvalidInputException.class)
+    @Override
+    public IssuedRefreshToken rotate(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidInputException(ValidationMessages.INVALID_REFRESH_TOKEN));
+
+        if (refreshToken.getStatus() == RefreshTokenStatus.REVOKED || refreshToken.getExpiryDate().isBefore(LocalDateTime.now())) {
+            throw new InvalidInputException(ValidationMessages.INVALID_REFRESH_TOKEN);
+        }
+
+        User user = refreshToken.getUser();
+        if (!isAccountUsable(user)) {
+            refreshTokenRepository.revokeFamily(refreshToken.getFamilyId());
+            throw new InvalidInputException(ValidationMessages.INVALID_REFRESH_TOKEN);
+        }
+
+        // Only one caller can move the token out of ACTIVE; anyone else is replaying an exchanged token.
+        if (refreshTokenRepository.updateStatus(refreshToken.getId(), RefreshTokenStatus.ACTIVE, RefreshTokenStatus.ROTATED) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(refreshToken.getFamilyId());
+
+            Map<String, Object> details = new HashMap<>();
+            details.put("userId", user.getId());
+            details.put("familyId", refreshToken.getFamilyId());
+            details.put("revokedTokens", revoked);
+            publishAuditLogEvent(user.getUsername(), EventType.REFRESH_TOKEN_REUSED, details);
+            throw new InvalidInputException(ValidationMessages.INVALID_REFRESH_TOKEN);
+        }
+
+        return new IssuedRefreshToken(createToken(user, refreshToken.getFamilyId()), user);
+    }
+
+    /**
+     * Revokes every refresh token family of the given users.
+     *
+     * @param userIds The IDs of the users.
+     */
+    @Transactional
+    @Override
+    public void revokeAllForUsers(Collection<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            refreshTokenRepository.revokeAllByUserIds(userIds);
+        }
+    }
+
+    /**
+     * Deletes every refresh token of a user.
+     *
+     * @param userId The ID of the user.
+     */
+    @Transactional
+    @Override
+    public void deleteAllForUser(Long userId) {
+        refreshTokenRepository.deleteAllByUserId(userId);
+    }
+
+    /**
+     * Generates a random token, stores its hash and returns the raw value.
+     *
+     * @param user     The user owning the token.
+     * @param familyId The family the token belongs to.
+     * @return The raw refresh token.
+     */
+    private String createToken(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime expiryDate = LocalDateTime.now().plusDays(getRefreshTokenExpirationDays());
+        refreshTokenRepository.save(new RefreshToken(hash(token), familyId, user, expiryDate));
+        return token;
+    }
+
+    /**
+     * Hashes a raw token for storage and lookup.
+     * The token carries 256 bits of randomness, so a fast unsalted hash is sufficient.
+     *
+     * @param token The raw token.
+     * @return The hex-encoded SHA-256 hash of the token.
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /**
+     * Checks whether the user may still obtain access tokens.
+     *
+     * @param user The user owning the token.
+     * @return {@code true} if the account is enabled, unlocked and neither it nor its credentials have expired.
+     */
+    private boolean isAccountUsable(User user) {
+        return Boolean.TRUE.equals(user.getEnabled())
+                && !Boolean.TRUE.equals(user.getAccountLocked())
+                && !Boolean.TRUE.equals(user.getAccountExpired())
+                && !Boolean.TRUE.equals(user.getCredentialsExpired());
+    }
+
+    /**
+     * Publishes an audit log event with standardized details.
+     *
+     * @param eventType The type of event.
+     * @param details   The map of details for the event.
+     */
+    private void publishAuditLogEvent(String username, EventType eventType, Map<String, Object> details) {
+        eventPublisher.publishEvent(new AuditLogEvent(this, username, null, eventType, details));
+    }
+
+    /**
+     * Retrieves the refresh token expiration days from the application config or uses a default value.
+     *
+     * @return The configured expiration days.
+     */
+    private int getRefreshTokenExpirationDays() {
+        return applicationConfigService.getSnapshot().getRefreshTokenExpirationDays();
+    }
+}
@@ -88,6 +88,13 @@ public class User {
     @Column(name = "last_failed_login_time")
     private LocalDateTime lastFailedLoginTime;
 
+    /**
+     * A counter incremented whenever the user's account state, password or authorities change.
+     * Stateless access tokens carry the value they were issued with and are rejected once it moves on.
+     */
+    @Column(name = "security_version", nullable = false)
+    private Long securityVersion = 0L;
+
     /**
      * The date and time when the user was created.
      */
@@ -248,6 +255,21 @@ public class User {
         this.dateUpdated = dateUpdated;
     }
 
+    public Long getSecurityVersion() {
+        return securityVersion;
+    }
+
+    public void setSecurityVersion(Long securityVersion) {
+        this.securityVersion = securityVersion;
+    }
+
+    /**
+     * Increments the security version, invalidating stateless tokens issued for the previous state.
+     */
+    public void incrementSecurityVersion() {
+        this.securityVersion = (securityVersion == null ? 0L : securityVersion) + 1;
+    }
+
     public Set<Role> getRoles() {
         return roles;
     }
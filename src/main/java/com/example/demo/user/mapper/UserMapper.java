@@ -39,6 +39,7 @@ public interface UserMapper {
      * @return The corresponding User entity.
      */
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "securityVersion", ignore = true)
     User toEntity(CreateUserDto createUserDto);
 
     /**
@@ -48,5 +49,6 @@ public interface UserMapper {
      * @return The corresponding User entity.
      */
     @Mapping(target = "roles", ignore = true)
+    @Mapping(target = "securityVersion", ignore = true)
     User toEntity(UserDto userDto);
 }
@@ -2,6 +2,9 @@ package com.example.demo.user.repository;
 
 import com.example.demo.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -53,4 +56,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return A list of users whose accounts are to be expired.
      */
     List<User> findAllByAccountExpirationDateBeforeAndAccountExpiredIsFalse(LocalDateTime date);
+
+    /**
+     * Finds only the security version of a user, without loading roles or permissions.
+     * @param username The username of the user.
+     * @return An Optional containing the user's security version, or empty if no user is found.
+     */
+    @Query("SELECT u.securityVersion FROM User u WHERE u.username = :username")
+    Optional<Long> findSecurityVersionByUsername(@Param("username") String username);
+
+    /**
+     * Increments the security version of every user holding the given role.
+     * @param roleId The ID of the role whose holders are affected.
+     * @return The number of users updated.
+     */
+    @Modifying
+    @Query(value = "UPDATE users u JOIN user_roles ur ON ur.user_id = u.id SET u.security_version = u.security_version + 1 WHERE ur.role_id = :roleId", nativeQuery = true)
+    int incrementSecurityVersionByRoleId(@Param("roleId") Long roleId);
 }
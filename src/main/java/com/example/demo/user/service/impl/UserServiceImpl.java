@@ -1,13 +1,14 @@
 package com.example.demo.user.service.impl;
 
 import com.example.demo.audit.service.AuditService;
-import com.example.demo.config.constants.ApplicationConfigKeys;
 import com.example.demo.config.service.ApplicationConfigService;
 import com.example.demo.exception.InvalidInputException;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.role.entity.Role;
 import com.example.demo.role.repository.RoleRepository;
+import com.example.demo.security.event.UserSecurityChangedEvent;
 import com.example.demo.security.service.IdentityService;
+import com.example.demo.token.service.RefreshTokenService;
 import com.example.demo.user.dto.CreateUserDto;
 import com.example.demo.user.dto.UpdateUserEmailDto;
 import com.example.demo.user.dto.UpdateUserPasswordDto;
@@ -18,6 +19,7 @@ import com.example.demo.user.repository.UserRepository;
 import com.example.demo.user.service.UserService;
 import com.example.demo.util.constants.ValidationMessages;
 import com.example.demo.util.enums.EventType;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
@@ -28,13 +30,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class UserServiceImpl implements UserService {
-    private static final int DEFAULT_ACCOUNT_EXPIRATION_YEARS = 3;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final UserMapper userMapper;
@@ -42,6 +43,8 @@ public class UserServiceImpl implements UserService {
     private final IdentityService identityService;
     private final ApplicationConfigService applicationConfigService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RefreshTokenService refreshTokenService;
 
     public UserServiceImpl(UserRepository userRepository,
                            RoleRepository roleRepository,
@@ -49,7 +52,9 @@ public class UserServiceImpl implements UserService {
                            AuditService auditService,
                            IdentityService identityService,
                            ApplicationConfigService applicationConfigService,
-                           PasswordEncoder passwordEncoder) {
+                           PasswordEncoder passwordEncoder,
+                           ApplicationEventPublisher eventPublisher,
+                           RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.userMapper = userMapper;
@@ -57,6 +62,8 @@ public class UserServiceImpl implements UserService {
         this.identityService = identityService;
         this.applicationConfigService = applicationConfigService;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.refreshTokenService = refreshTokenService;
     }
 
     // --- Core CRUD Operations ---
@@ -97,7 +104,7 @@ public class UserServiceImpl implements UserService {
         User userExample = userMapper.toEntity(userDto);
 
         ExampleMatcher matcher = ExampleMatcher.matching()
-                .withIgnorePaths("roles")
+                .withIgnorePaths("roles", "securityVersion")
                 .withIgnoreCase()
                 .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING);
 
@@ -141,7 +148,9 @@ public class UserServiceImpl implements UserService {
         if (user.getCredentialsExpired()) {
             user.setCredentialsExpired(false);
         }
+        user.incrementSecurityVersion();
         userRepository.save(user);
+        refreshTokenService.revokeAllForUsers(List.of(user.getId()));
 
         // Audit the password update
         String username = identityService.getAuthenticatedUsername();
@@ -149,12 +158,14 @@ public class UserServiceImpl implements UserService {
         details.put("userId", user.getId());
         details.put("username", user.getUsername());
         auditService.logEvent(username, null, EventType.UPDATE_PASSWORD, details);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(this, user.getUsername()));
     }
 
     @Override
     @Transactional
     public void delete(Long id) {
         User userToDelete = getUserById(id);
+        refreshTokenService.deleteAllForUser(userToDelete.getId());
         userRepository.delete(userToDelete);
 
         // Audit the user deletion
@@ -163,6 +174,7 @@ public class UserServiceImpl implements UserService {
         details.put("userId", userToDelete.getId());
         details.put("username", userToDelete.getUsername());
         auditService.logEvent(username, null, EventType.DELETE_USER, details);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(this, userToDelete.getUsername()));
     }
 
     // --- Role and Permission Management ---
@@ -175,6 +187,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found with ID: " + roleId));
 
         user.getRoles().add(role);
+        user.incrementSecurityVersion();
         userRepository.save(user);
 
         // Audit the role assignment
@@ -185,6 +198,7 @@ public class UserServiceImpl implements UserService {
         details.put("roleId", role.getId());
         details.put("roleName", role.getName());
         auditService.logEvent(username, null, EventType.ASSIGN_ROLE, details);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(this, user.getUsername()));
     }
 
     @Override
@@ -195,6 +209,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found with ID: " + roleId));
 
         user.getRoles().remove(role);
+        user.incrementSecurityVersion();
         userRepository.save(user);
 
         // Audit the role removal
@@ -205,6 +220,7 @@ public class UserServiceImpl implements UserService {
         details.put("roleId", role.getId());
         details.put("roleName", role.getName());
         auditService.logEvent(username, null, EventType.REMOVE_ROLE, details);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(this, user.getUsername()));
     }
 
     // --- Account Status and Maintenance ---
@@ -221,6 +237,7 @@ public class UserServiceImpl implements UserService {
         user.setFailedLoginAttempts(0);
         user.setLastFailedLoginTime(null);
         user.setAccountExpirationDate(LocalDateTime.now().plusYears(getAccountExpirationYears()));
+        user.incrementSecurityVersion();
         userRepository.save(user);
 
         // Audit the status waiver
@@ -229,6 +246,7 @@ public class UserServiceImpl implements UserService {
         details.put("userId", user.getId());
         details.put("username", user.getUsername());
         auditService.logEvent(username, null, EventType.WAIVE_STATUS, details);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(this, user.getUsername()));
     }
 
     @Override
@@ -238,6 +256,7 @@ public class UserServiceImpl implements UserService {
 
         user.setAccountExpired(false);
         user.setAccountExpirationDate(LocalDateTime.now().plusYears(getAccountExpirationYears()));
+        user.incrementSecurityVersion();
         userRepository.save(user);
 
         // Audit the account expiration waiver
@@ -246,6 +265,7 @@ public class UserServiceImpl implements UserService {
         details.put("userId", user.getId());
         details.put("username", user.getUsername());
         auditService.logEvent(username, null, EventType.WAIVE_ACCOUNT_EXPIRATION, details);
+        eventPublisher.publishEvent(new UserSecurityChangedEvent(this, user.getUsername()));
     }
 
     /**
@@ -254,9 +274,7 @@ public class UserServiceImpl implements UserService {
      * @return The configured expiration years or the default value.
      */
     private int getAccountExpirationYears() {
-        return Optional.ofNullable(applicationConfigService.getValue(ApplicationConfigKeys.ACCOUNT_EXPIRATION_YEARS))
-                .map(Integer::parseInt)
-                .orElse(DEFAULT_ACCOUNT_EXPIRATION_YEARS);
+        return applicationConfigService.getSnapshot().getAccountExpirationYears();
     }
 
     /**
@@ -19,7 +19,10 @@ public final class ValidationMessages {
     public static final String INVALID_CREDENTIALS = "Invalid username or password.";
     public static final String VALIDATION_FAILED = "Input validation failed. Please check the detailed errors.";
     public static final String INTERNAL_SERVER_ERROR = "An unexpected internal server error occurred. Please contact support.";
+    public static final String SERVICE_OVERLOADED = "The service is temporarily overloaded. Please try again shortly.";
     public static final String INVALID_JWT_TOKEN = "Invalid or expired JWT token.";
+    public static final String INVALID_REFRESH_TOKEN = "Invalid or expired refresh token.";
+    public static final String REFRESH_TOKEN_CANNOT_BE_BLANK = "Refresh token cannot be blank.";
     public static final String NEW_PASSWORD_SAME_AS_OLD = "New password cannot be the same as the old password.";
 
     // User Messages
@@ -34,5 +37,7 @@ public final class ValidationMessages {
     public static final String PASSWORD_INVALID = "Password must be 8-32 characters long. It must contain at least one uppercase letter, one lowercase letter, one number, and one special character.";
     public static final String USER_NOT_FOUND = "User not found.";
     public static final String PASSWORD_MISMATCH = "Passwords do not match.";
+    public static final String CURSOR_INVALID = "Invalid pagination cursor.";
+    public static final String PAGE_SIZE_INVALID = "Page size must be between 1 and 100.";
 
 }
@@ -0,0 +1,20 @@
+package com.example.demo.util.enums;
+
+/**
+ * Defines how the {@code audit_logs} table is partitioned by {@code date_created}, which decides how
+ * old audit logs are removed.
+ */
+public enum AuditLogPartitioning {
+    /**
+     * The table is not partitioned; the oldest rows are deleted to keep the table within its maximum size.
+     */
+    NONE,
+    /**
+     * One range partition per day; retention drops whole days.
+     */
+    DAILY,
+    /**
+     * One range partition per month; retention drops whole months.
+     */
+    MONTHLY
+}
@@ -51,5 +51,6 @@ public enum EventType {
 
     // Token Management Events
     CREATE_PASSWORD_RESET_TOKEN,
-    PASSWORD_RESET_TOKEN_CLEANUP
+    PASSWORD_RESET_TOKEN_CLEANUP,
+    REFRESH_TOKEN_REUSED
 }
@@ -0,0 +1,47 @@
+--
+-- File: audit_logs_partitioning.sql
+-- Description: Converts the audit_logs table to range partitions on date_created.
+--
+-- Rationale:
+-- - Removing old audit logs becomes a metadata-only DROP PARTITION instead of deleting rows one by one.
+-- - MySQL requires every unique key of a partitioned table to include the partitioning column, so the primary key
+--   and the event ID key are extended with date_created. An event keeps its date_created when it is replayed,
+--   so duplicates are still rejected.
+-- - The partitions of the current and the next period are created here, named as the partition scheduler names
+--   them, so no row is written to p_future before the scheduler has split off the periods after them.
+--
+-- Usage:
+-- - Set @partitioning below to the value audit.log.partitioning will have (DAILY or MONTHLY), then run this script
+--   once. The bounds are derived from the current date of the database server.
+-- - Set the application configuration audit.log.partitioning to the same value. The partition scheduler then
+--   creates the partitions of the coming periods and drops the expired ones; p_future must stay the last partition.
+-- - Rebuilding the table copies every row; run it during a maintenance window on large tables.
+--
+
+SET @partitioning = 'MONTHLY';
+
+SET @current_start = IF(@partitioning = 'DAILY', CURDATE(), DATE_FORMAT(CURDATE(), '%Y-%m-01'));
+SET @next_start = IF(@partitioning = 'DAILY', @current_start + INTERVAL 1 DAY, @current_start + INTERVAL 1 MONTH);
+SET @next_end = IF(@partitioning = 'DAILY', @next_start + INTERVAL 1 DAY, @next_start + INTERVAL 1 MONTH);
+SET @name_format = IF(@partitioning = 'DAILY', 'p%Y%m%d', 'p%Y%m');
+
+ALTER TABLE audit_logs
+    MODIFY date_created DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, date_created),
+    DROP INDEX uk_audit_logs_event_id,
+    ADD UNIQUE KEY uk_audit_logs_event_id (event_id, date_created);
+
+-- Partition bounds must be literals, so the statement is assembled from the derived dates.
+SET @partition_ddl = CONCAT(
+        'ALTER TABLE audit_logs PARTITION BY RANGE COLUMNS (date_created) (',
+        'PARTITION p_history VALUES LESS THAN (''', DATE_FORMAT(@current_start, '%Y-%m-%d 00:00:00'), '''), ',
+        'PARTITION ', DATE_FORMAT(@current_start, @name_format),
+        ' VALUES LESS THAN (''', DATE_FORMAT(@next_start, '%Y-%m-%d 00:00:00'), '''), ',
+        'PARTITION ', DATE_FORMAT(@next_start, @name_format),
+        ' VALUES LESS THAN (''', DATE_FORMAT(@next_end, '%Y-%m-%d 00:00:00'), '''), ',
+        'PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+
+PREPARE partition_statement FROM @partition_ddl;
+EXECUTE partition_statement;
+DEALLOCATE PREPARE partition_statement;
@@ -18,6 +18,8 @@ DROP TABLE IF EXISTS audit_logs;
 DROP TABLE IF EXISTS user_roles;
 DROP TABLE IF EXISTS role_permissions;
 DROP TABLE IF EXISTS password_reset_tokens;
+DROP TABLE IF EXISTS refresh_tokens;
+DROP TABLE IF EXISTS rate_limit_buckets;
 DROP TABLE IF EXISTS application_configs;
 DROP TABLE IF EXISTS smtp_configs;
 DROP TABLE IF EXISTS users;
@@ -69,6 +71,9 @@ CREATE TABLE users (
     failed_login_attempts INT NOT NULL DEFAULT 0,
     last_failed_login_time DATETIME(6) DEFAULT NULL,
 
+    -- Token Revocation
+    security_version BIGINT NOT NULL DEFAULT 0,
+
     -- Auditing and Metadata
     date_created DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6),
     date_updated DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)
@@ -110,13 +115,17 @@ CREATE TABLE role_permissions (
 
 -- Table: `audit_logs`
 -- Stores a log of all significant user-related actions for auditing purposes.
+-- audit_logs_partitioning.sql converts it to date range partitions, so that old logs are removed by dropping partitions.
 CREATE TABLE audit_logs (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_id CHAR(36),
     date_created DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6),
     username VARCHAR(255),
     ip_address VARCHAR(255),
     event_type VARCHAR(255) NOT NULL,
-    details TEXT
+    details TEXT,
+    UNIQUE KEY uk_audit_logs_event_id (event_id),
+    INDEX idx_audit_logs_date_created_id (date_created, id)
 ) AUTO_INCREMENT = 1000000;
 
 -- Table: `password_reset_tokens`
@@ -131,6 +140,30 @@ CREATE TABLE password_reset_tokens (
     FOREIGN KEY (user_id) REFERENCES users(id)
 ) AUTO_INCREMENT = 1000000;
 
+-- Table: `refresh_tokens`
+-- Stores hashed, rotating refresh tokens. Tokens rotated from the same login share a family_id.
+CREATE TABLE refresh_tokens (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    token_hash CHAR(64) NOT NULL UNIQUE,
+    family_id VARCHAR(36) NOT NULL,
+    user_id BIGINT NOT NULL,
+    expiry_date DATETIME(6) NOT NULL,
+    status VARCHAR(255) NOT NULL DEFAULT 'ACTIVE',
+    date_created DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6),
+    INDEX idx_refresh_tokens_family_id (family_id),
+    INDEX idx_refresh_tokens_user_id (user_id),
+    INDEX idx_refresh_tokens_expiry_date (expiry_date),
+    FOREIGN KEY (user_id) REFERENCES users(id)
+) AUTO_INCREMENT = 1000000;
+
+-- Table: `rate_limit_buckets`
+-- Stores the rate limit budgets shared by all nodes as the epoch microsecond at which each bucket is full again.
+CREATE TABLE rate_limit_buckets (
+    bucket_key VARCHAR(255) PRIMARY KEY,
+    full_at_micros BIGINT NOT NULL,
+    INDEX idx_rate_limit_buckets_full_at_micros (full_at_micros)
+);
+
 -- Table: `application_configs`
 -- Stores key-value pairs for dynamic application configuration.
 CREATE TABLE application_configs (
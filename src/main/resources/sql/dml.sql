@@ -98,19 +98,37 @@ INSERT INTO application_configs (config_key, config_value, config_description, c
     ('account.unlock.time.minutes', '30', 'The number of minutes after which a locked account will be automatically unlocked.', 'System', 'System', TRUE),
     ('application.security.jwt.expiration', '86400000', 'The expiration time for JWT tokens in milliseconds. (24 hours)', 'System', 'System', TRUE),
     ('application.security.jwt.secret-key', '404E635266556A586E32723545625F69666E38677271396F24422D6E31593475', 'The secret key used to sign and verify JWT tokens.', 'System', 'System', TRUE),
+    ('application.security.jwt.stateless-enabled', 'false', 'A boolean flag to build the authenticated principal from JWT claims instead of loading the user on every request.', 'System', 'System', TRUE),
+    ('application.security.refresh-token.expiration-days', '14', 'The number of days a refresh token can be exchanged for a new access token. Each exchange issues a new refresh token.', 'System', 'System', TRUE),
     ('audit.log.cooldown-minutes', '5', 'The cooldown period in minutes between logging consecutive audit events for the same actor.', 'System', 'System', TRUE),
     ('audit.log.details.max-size', '999999', 'The maximum size of the audit log details JSON string before it is trimmed.', 'System', 'System', TRUE),
     ('audit.log.max-size', '10000', 'The maximum number of audit log records to retain in the database.', 'System', 'System', TRUE),
+    ('audit.log.partitioning', 'NONE', 'The partitioning of the audit log table by creation date: NONE, DAILY or MONTHLY. Partitioned tables are trimmed by dropping whole partitions.', 'System', 'System', TRUE),
+    ('audit.log.retention-days', '0', 'The number of days audit log partitions are kept. 0 keeps them until the maximum size is reached.', 'System', 'System', TRUE),
     ('credential.expiration.days', '90', 'The number of days after which a user''s password credentials will expire.', 'System', 'System', TRUE),
     ('lockout.reset.minutes', '3', 'The time in minutes after which a failed login attempt counter is reset.', 'System', 'System', TRUE),
     ('max.failed.login.attempts', '10', 'The number of failed login attempts before a user account is locked.', 'System', 'System', TRUE),
     ('password.reset.base.url', 'http://localhost:8080/password-reset', 'The base URL for the password reset link sent to users.', 'System', 'System', TRUE),
     ('password.reset.token.expiration-minutes', '15', 'The expiration time for password reset tokens in minutes.', 'System', 'System', TRUE),
-    ('rate.limit.capacity', '500', 'The number of requests allowed per user within the refill duration.', 'System', 'System', TRUE),
+    ('rate.limit.capacity', '500', 'The number of requests allowed per caller on each rate-limited route group within the refill duration.', 'System', 'System', TRUE),
+    ('rate.limit.cluster.enabled', 'false', 'A boolean flag to share rate limit budgets across all nodes. Each node leases blocks of tokens from the rate_limit_buckets table.', 'System', 'System', TRUE),
+    ('rate.limit.cluster.lease-size', '10', 'The number of tokens a node leases from a shared rate limit budget at once, capped at a tenth of the budget.', 'System', 'System', TRUE),
     ('rate.limit.enabled', 'true', 'A boolean flag to enable or disable the rate limiting functionality.', 'System', 'System', TRUE),
     ('rate.limit.excluded-urls', '/get,/search', 'A comma-separated list of URL suffixes to be excluded from rate-limiting.', 'System', 'System', TRUE),
-    ('rate.limit.included-urls', '/api/auth/authenticate,/api/public/password-reset', 'A comma-separated list of URL prefixes to be rate-limited.', 'System', 'System', TRUE),
+    ('rate.limit.included-urls', '/api/auth/authenticate,/api/auth/refresh,/api/public/password-reset', 'A comma-separated list of URL prefixes to be rate-limited.', 'System', 'System', TRUE),
+    ('rate.limit.ip.capacity', '1000', 'The number of rate-limited requests allowed per client IP address within its refill duration, across all users and routes. 0 disables the per-IP budget.', 'System', 'System', TRUE),
+    ('rate.limit.ip.ipv4-prefix-length', '32', 'The prefix length IPv4 addresses are aggregated to for the per-IP budget, e.g. 24 to give a whole /24 one budget.', 'System', 'System', TRUE),
+    ('rate.limit.ip.ipv6-prefix-length', '64', 'The prefix length IPv6 addresses are aggregated to for the per-IP budget. A /64 is usually a single subscriber.', 'System', 'System', TRUE),
+    ('rate.limit.ip.refill.duration-minutes', '1', 'The duration in minutes for refilling the per-IP budget.', 'System', 'System', TRUE),
+    ('rate.limit.ip.rules', '', 'A comma-separated list of address range rules as cidr=ALLOW, cidr=BLOCK or cidr=capacity/minutes. A rule may end in @instant (ISO-8601) to expire. The most specific range wins; blocked ranges are refused even when rate limiting is disabled.', 'System', 'System', TRUE),
+    ('rate.limit.max-buckets', '100000', 'The maximum number of rate limit buckets kept in memory. Idle buckets are evicted.', 'System', 'System', TRUE),
+    ('rate.limit.overflow-policy', 'SHARED', 'How new clients are limited once the bucket limit is reached: SHARED (one shared bucket), REJECT or ALLOW.', 'System', 'System', TRUE),
     ('rate.limit.refill.duration-minutes', '1', 'The duration in minutes for refilling the rate limit token bucket.', 'System', 'System', TRUE),
+    ('rate.limit.route-overrides', '/api/auth/authenticate=20/1', 'A comma-separated list of per-route limits as prefix=capacity/minutes. The longest matching prefix wins.', 'System', 'System', TRUE),
+    ('rate.limit.user.capacity', '0', 'The number of rate-limited requests allowed per authenticated user within its refill duration, across all IP addresses and routes. 0 disables the per-user budget.', 'System', 'System', TRUE),
+    ('rate.limit.user.refill.duration-minutes', '1', 'The duration in minutes for refilling the per-user budget.', 'System', 'System', TRUE),
+    ('security.principal.cache.max-size', '10000', 'The maximum number of authenticated principals kept in the in-memory principal cache.', 'System', 'System', TRUE),
+    ('security.principal.cache.ttl-seconds', '60', 'The time in seconds an authenticated principal stays in the in-memory principal cache.', 'System', 'System', TRUE),
     ('security.private.urls', '/api/**', 'A comma-separated list of URL patterns that require authentication.', 'System', 'System', TRUE),
     ('security.public.urls', '/api/auth/**,/api/public/password-reset/**', 'A comma-separated list of URL patterns that are publicly accessible without authentication.', 'System', 'System', TRUE);
 
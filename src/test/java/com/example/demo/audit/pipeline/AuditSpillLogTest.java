@@ -0,0 +1,129 @@
+package com.example.demo.audit.pipeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditSpillLogTest {
+
+    private static final int SEGMENT_SIZE = 512;
+    private static final LocalDateTime CREATED = LocalDateTime.of(2026, 1, 2, 3, 4, 5, 6_000);
+
+    @TempDir
+    Path directory;
+
+    private final List<AuditSpillLog> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(AuditSpillLog::shutdown);
+    }
+
+    @Test
+    void replaysAppendedEntriesInOrder() throws IOException {
+        AuditSpillLog spillLog = open(1_000_000);
+
+        List<AuditRecord> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            AuditRecord record = record("e" + i);
+            appendEventually(spillLog, record);
+            records.add(record);
+        }
+
+        assertThat(readAll(spillLog)).containsExactlyElementsOf(records);
+    }
+
+    @Test
+    void sealingLeavesStandbySegmentOut() throws IOException {
+        AuditSpillLog spillLog = open(1_000_000);
+        appendEventually(spillLog, record("e1"));
+
+        List<Path> sealed = spillLog.sealSegments();
+
+        assertThat(sealed).hasSize(1);
+        assertThat(spillLog.read(sealed.get(0))).containsExactly(record("e1"));
+    }
+
+    @Test
+    void rejectsAppendsOnceMaximumSizeIsReached() throws IOException {
+        AuditSpillLog spillLog = open(2L * SEGMENT_SIZE);
+
+        int appended = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline && appended < 100) {
+            if (spillLog.append(record("e" + appended))) {
+                appended++;
+            } else if (spillLog.isFull()) {
+                // Both segments the maximum size allows exist and the active one is full; an append that fails
+                // before that only found the standby segment not yet mapped.
+                break;
+            }
+        }
+
+        assertThat(appended).isPositive().isLessThan(100);
+        assertThat(countSegments()).isEqualTo(2);
+        assertThat(spillLog.append(record("late"))).isFalse();
+    }
+
+    @Test
+    void quarantineAfterRestartDoesNotOverwriteDeadLetters() throws IOException {
+        AuditSpillLog first = open(1_000_000);
+        assertThat(first.quarantine(List.of(record("bad1")))).isTrue();
+        first.shutdown();
+
+        AuditSpillLog second = open(1_000_000);
+
+        assertThat(second.quarantine(List.of(record("bad2")))).isTrue();
+        try (Stream<Path> deadLetters = Files.list(directory.resolve("dead-letter"))) {
+            assertThat(deadLetters).hasSize(2);
+        }
+    }
+
+    private AuditSpillLog open(long maxBytes) {
+        AuditSpillLog spillLog = new AuditSpillLog(new SimpleMeterRegistry(), true, directory.toString(), SEGMENT_SIZE, maxBytes);
+        spillLog.start();
+        opened.add(spillLog);
+        return spillLog;
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static List<AuditRecord> readAll(AuditSpillLog spillLog) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path segment : spillLog.sealSegments()) {
+            records.addAll(spillLog.read(segment));
+        }
+        return records;
+    }
+
+    /**
+     * Appends an entry, retrying while the next segment is still being prepared in the background.
+     */
+    private static void appendEventually(AuditSpillLog spillLog, AuditRecord record) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!spillLog.append(record)) {
+            assertThat(System.nanoTime()).as("append of %s", record.eventId()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static AuditRecord record(String eventId) {
+        return new AuditRecord(eventId, CREATED, "user", "192.0.2.1", "LOGIN", "{\"id\":\"" + eventId + "\"}");
+    }
+}
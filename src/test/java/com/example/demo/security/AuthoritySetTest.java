@@ -0,0 +1,53 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthoritySetTest {
+
+    private static final AuthorityBitIndex INDEX = new AuthorityBitIndex(Map.of(
+            "AUDITOR", 0,
+            "READ_USERS", 1,
+            "ROLE_ADMIN", 2,
+            "ROLE_AUDITOR", 3));
+
+    @Test
+    void addsTheRolePrefixLikeSpring() {
+        AuthoritySet authoritySet = of("ROLE_ADMIN");
+
+        assertThat(authoritySet.hasAnyRole("ROLE_", "ADMIN")).isTrue();
+        assertThat(authoritySet.hasAnyRole("ROLE_", "ROLE_ADMIN")).isTrue();
+        assertThat(authoritySet.hasAnyRole("ROLE_", "AUDITOR", "ADMIN")).isTrue();
+    }
+
+    @Test
+    void doesNotMatchAnAuthorityNamedLikeTheShortRole() {
+        AuthoritySet authoritySet = of("AUDITOR");
+
+        assertThat(authoritySet.hasAnyRole("ROLE_", "AUDITOR")).isFalse();
+        assertThat(authoritySet.hasAnyAuthority("AUDITOR")).isTrue();
+    }
+
+    @Test
+    void usesRoleNamesAsTheyAreWithoutAPrefix() {
+        AuthoritySet authoritySet = of("ROLE_ADMIN");
+
+        assertThat(authoritySet.hasAnyRole("", "ADMIN")).isFalse();
+        assertThat(authoritySet.hasAnyRole(null, "ROLE_ADMIN")).isTrue();
+    }
+
+    private static AuthoritySet of(String... authorities) {
+        Set<GrantedAuthority> granted = new HashSet<>();
+        for (String authority : authorities) {
+            granted.add(new SimpleGrantedAuthority(authority));
+        }
+        return new AuthoritySet(granted, INDEX);
+    }
+}
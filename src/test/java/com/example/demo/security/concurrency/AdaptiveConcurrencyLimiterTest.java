@@ -0,0 +1,114 @@
+package com.example.demo.security.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+    // With a limit of 20, a window closes after 20 samples.
+    private static final int INITIAL_LIMIT = 20;
+
+    @Test
+    void growsByOnePerWindowWhileLatencyIsSteadyAndLimitIsUsed() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(INITIAL_LIMIT, 4, 200, 2.0, 0.9);
+        // The first window only sets the baseline.
+        record(limiter, 20, MILLISECOND, 20);
+        assertThat(limiter.getLimit()).isEqualTo(20.0);
+
+        record(limiter, 20, MILLISECOND, 20);
+
+        assertThat(limiter.getLimit()).isEqualTo(21.0);
+    }
+
+    @Test
+    void doesNotGrowWhileLimitIsUnused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(INITIAL_LIMIT, 4, 200, 2.0, 0.9);
+
+        record(limiter, 200, MILLISECOND, 5);
+
+        assertThat(limiter.getLimit()).isEqualTo(20.0);
+    }
+
+    @Test
+    void doesNotGrowBeyondMaxLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(INITIAL_LIMIT, 4, 21, 2.0, 0.9);
+
+        record(limiter, 200, MILLISECOND, 21);
+
+        assertThat(limiter.getLimit()).isEqualTo(21.0);
+    }
+
+    @Test
+    void backsOffOncePerWindowWhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(INITIAL_LIMIT, 4, 200, 2.0, 0.9);
+        record(limiter, 20, MILLISECOND, 20);
+
+        record(limiter, 20, 10 * MILLISECOND, 20);
+
+        assertThat(limiter.getLimit()).isCloseTo(18.0, within(1e-9));
+    }
+
+    @Test
+    void neverBacksOffBelowMinLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(INITIAL_LIMIT, 4, 200, 2.0, 0.5);
+        record(limiter, 20, MILLISECOND, 20);
+
+        record(limiter, 100, 100 * MILLISECOND, 20);
+
+        assertThat(limiter.getLimit()).isEqualTo(4.0);
+    }
+
+    @Test
+    void releaseWithoutSampleFreesSlotButLeavesLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(INITIAL_LIMIT, 4, 200, 2.0, 0.9);
+        record(limiter, 20, MILLISECOND, 20);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire(RequestPriority.CRITICAL)).isEqualTo(1);
+            limiter.release();
+        }
+
+        assertThat(limiter.getInFlight()).isZero();
+        assertThat(limiter.getLimit()).isEqualTo(20.0);
+    }
+
+    @Test
+    void limitsEachClassToItsShare() {
+        assertThat(acquireAll(new AdaptiveConcurrencyLimiter(10, 4, 200, 2.0, 0.9), RequestPriority.CRITICAL)).isEqualTo(10);
+        assertThat(acquireAll(new AdaptiveConcurrencyLimiter(10, 4, 200, 2.0, 0.9), RequestPriority.AUTHENTICATED)).isEqualTo(9);
+        assertThat(acquireAll(new AdaptiveConcurrencyLimiter(10, 4, 200, 2.0, 0.9), RequestPriority.ANONYMOUS)).isEqualTo(7);
+    }
+
+    @Test
+    void keepsHeadroomForHigherClasses() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 200, 2.0, 0.9);
+        acquireAll(limiter, RequestPriority.ANONYMOUS);
+
+        assertThat(limiter.tryAcquire(RequestPriority.ANONYMOUS)).isEqualTo(-1);
+        assertThat(acquireAll(limiter, RequestPriority.AUTHENTICATED)).isEqualTo(2);
+        assertThat(acquireAll(limiter, RequestPriority.CRITICAL)).isEqualTo(1);
+    }
+
+    /**
+     * Runs requests one after another, each reporting the given latency and number of requests in flight.
+     */
+    private static void record(AdaptiveConcurrencyLimiter limiter, int requests, long rttNanos, int inFlight) {
+        for (int i = 0; i < requests; i++) {
+            limiter.tryAcquire(RequestPriority.CRITICAL);
+            limiter.release(rttNanos, inFlight);
+        }
+    }
+
+    private static int acquireAll(AdaptiveConcurrencyLimiter limiter, RequestPriority priority) {
+        int acquired = 0;
+        while (limiter.tryAcquire(priority) > 0) {
+            acquired++;
+        }
+        return acquired;
+    }
+}
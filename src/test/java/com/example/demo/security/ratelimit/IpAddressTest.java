@@ -0,0 +1,91 @@
+package com.example.demo.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpAddressTest {
+
+    @Test
+    void parsesIpv4AsMappedAddress() {
+        IpAddress address = IpAddress.parse("192.0.2.1");
+
+        assertThat(address).isNotNull();
+        assertThat(address.isIpv4()).isTrue();
+        assertThat(address.high()).isZero();
+        assertThat(address.low()).isEqualTo(0xFFFF_C000_0201L);
+        assertThat(address).hasToString("192.0.2.1");
+    }
+
+    @Test
+    void ipv4MappedIpv6EqualsIpv4() {
+        assertThat(IpAddress.parse("::ffff:192.0.2.1")).isEqualTo(IpAddress.parse("192.0.2.1"));
+        assertThat(IpAddress.parse("::ffff:c000:201")).isEqualTo(IpAddress.parse("192.0.2.1"));
+    }
+
+    @Test
+    void rejectsInvalidIpv4() {
+        assertThat(IpAddress.parse("256.0.0.1")).isNull();
+        assertThat(IpAddress.parse("1.2.3")).isNull();
+        assertThat(IpAddress.parse("1.2.3.4.5")).isNull();
+        assertThat(IpAddress.parse("a.b.c.d")).isNull();
+        assertThat(IpAddress.parse("")).isNull();
+        assertThat(IpAddress.parse(null)).isNull();
+    }
+
+    @Test
+    void parsesIpv6InCanonicalForm() {
+        IpAddress address = IpAddress.parse("2001:DB8:0:0:0:0:0:1");
+
+        assertThat(address).isNotNull();
+        assertThat(address.isIpv4()).isFalse();
+        assertThat(address).hasToString("2001:db8::1");
+    }
+
+    @Test
+    void parsesCompressedIpv6() {
+        assertThat(IpAddress.parse("::1")).isEqualTo(new IpAddress(0L, 1L));
+        assertThat(IpAddress.parse("::")).isEqualTo(new IpAddress(0L, 0L));
+        assertThat(IpAddress.parse("fe80::")).isEqualTo(new IpAddress(0xFE80_0000_0000_0000L, 0L));
+        assertThat(IpAddress.parse("2001:db8::1:0:0:1")).hasToString("2001:db8::1:0:0:1");
+    }
+
+    @Test
+    void ignoresBracketsAndZone() {
+        assertThat(IpAddress.parse("[2001:db8::1]")).isEqualTo(IpAddress.parse("2001:db8::1"));
+        assertThat(IpAddress.parse("fe80::1%eth0")).isEqualTo(IpAddress.parse("fe80::1"));
+    }
+
+    @Test
+    void rejectsInvalidIpv6() {
+        assertThat(IpAddress.parse("2001:db8::1::1")).isNull();
+        assertThat(IpAddress.parse("2001:db8:1")).isNull();
+        assertThat(IpAddress.parse("12345::1")).isNull();
+        assertThat(IpAddress.parse("g::1")).isNull();
+        assertThat(IpAddress.parse("1:2:3:4:5:6:7:8:9")).isNull();
+        assertThat(IpAddress.parse("2001:db8:")).isNull();
+    }
+
+    @Test
+    void masksToFamilyPrefix() {
+        IpAddress ipv4 = IpAddress.parse("192.0.2.130");
+        assertThat(ipv4.mask(ipv4.toKeyPrefixLength(24))).hasToString("192.0.2.0");
+        assertThat(ipv4.mask(ipv4.toKeyPrefixLength(25))).hasToString("192.0.2.128");
+        assertThat(ipv4.mask(ipv4.toKeyPrefixLength(32))).isEqualTo(ipv4);
+
+        IpAddress ipv6 = IpAddress.parse("2001:db8:1:2:3:4:5:6");
+        assertThat(ipv6.mask(ipv6.toKeyPrefixLength(64))).hasToString("2001:db8:1:2::");
+        assertThat(ipv6.mask(ipv6.toKeyPrefixLength(32))).hasToString("2001:db8::");
+        assertThat(ipv6.mask(0)).isEqualTo(new IpAddress(0L, 0L));
+    }
+
+    @Test
+    void readsBitsFromMostSignificant() {
+        IpAddress address = IpAddress.parse("8000::1");
+
+        assertThat(address.bit(0)).isEqualTo(1);
+        assertThat(address.bit(1)).isZero();
+        assertThat(address.bit(126)).isZero();
+        assertThat(address.bit(127)).isEqualTo(1);
+    }
+}
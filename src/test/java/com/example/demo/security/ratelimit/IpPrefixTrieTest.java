@@ -0,0 +1,72 @@
+package com.example.demo.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpPrefixTrieTest {
+
+    @Test
+    void returnsLongestMatchingPrefix() {
+        IpPrefixTrie<String> trie = trieOf("10.0.0.0/8", "wide", "10.1.0.0/16", "narrow", "10.1.2.3", "single");
+
+        assertThat(trie.longestMatch(IpAddress.parse("10.9.9.9"), value -> true)).isEqualTo("wide");
+        assertThat(trie.longestMatch(IpAddress.parse("10.1.9.9"), value -> true)).isEqualTo("narrow");
+        assertThat(trie.longestMatch(IpAddress.parse("10.1.2.3"), value -> true)).isEqualTo("single");
+        assertThat(trie.longestMatch(IpAddress.parse("11.0.0.1"), value -> true)).isNull();
+    }
+
+    @Test
+    void skipsValuesFailingCondition() {
+        IpPrefixTrie<String> trie = trieOf("10.0.0.0/8", "wide", "10.1.0.0/16", "expired");
+
+        assertThat(trie.longestMatch(IpAddress.parse("10.1.2.3"), value -> !value.equals("expired"))).isEqualTo("wide");
+    }
+
+    @Test
+    void matchesIpv6Prefixes() {
+        IpPrefixTrie<String> trie = trieOf("2001:db8::/32", "doc", "::/0", "any-ipv6");
+
+        assertThat(trie.longestMatch(IpAddress.parse("2001:db8:1::1"), value -> true)).isEqualTo("doc");
+        assertThat(trie.longestMatch(IpAddress.parse("2001:db9::1"), value -> true)).isEqualTo("any-ipv6");
+    }
+
+    @Test
+    void ipv4RangeMatchesMappedIpv6Address() {
+        IpPrefixTrie<String> trie = trieOf("192.0.2.0/24", "test-net");
+
+        assertThat(trie.longestMatch(IpAddress.parse("::ffff:192.0.2.7"), value -> true)).isEqualTo("test-net");
+    }
+
+    @Test
+    void ipv4DefaultRouteDoesNotMatchIpv6() {
+        IpPrefixTrie<String> trie = trieOf("0.0.0.0/0", "any-ipv4");
+
+        assertThat(trie.longestMatch(IpAddress.parse("1.2.3.4"), value -> true)).isEqualTo("any-ipv4");
+        assertThat(trie.longestMatch(IpAddress.parse("2001:db8::1"), value -> true)).isNull();
+    }
+
+    @Test
+    void laterValueReplacesEarlierOne() {
+        IpPrefixTrie<String> trie = trieOf("10.0.0.0/8", "first", "10.0.0.0/8", "second");
+
+        assertThat(trie.longestMatch(IpAddress.parse("10.0.0.1"), value -> true)).isEqualTo("second");
+    }
+
+    @Test
+    void emptyTrieMatchesNothing() {
+        IpPrefixTrie<String> trie = IpPrefixTrie.<String>builder().build();
+
+        assertThat(trie.isEmpty()).isTrue();
+        assertThat(trie.longestMatch(IpAddress.parse("10.0.0.1"), value -> true)).isNull();
+    }
+
+    private static IpPrefixTrie<String> trieOf(String... cidrsAndValues) {
+        IpPrefixTrie.Builder<String> builder = IpPrefixTrie.builder();
+        for (int i = 0; i < cidrsAndValues.length; i += 2) {
+            IpCidr range = IpCidr.parse(cidrsAndValues[i]);
+            builder.put(range.network(), range.keyPrefixLength(), cidrsAndValues[i + 1]);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.security.ratelimit;
+
+import com.example.demo.config.constants.ApplicationConfigKeys;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitRulesTest {
+
+    private static final long VERSION = 7;
+
+    @Test
+    void matchesNothingWhenDisabled() {
+        RateLimitRules rules = compile(Map.of(
+                ApplicationConfigKeys.RATE_LIMIT_ENABLED, "false",
+                ApplicationConfigKeys.RATE_LIMIT_INCLUDED_URLS, "/api/"));
+
+        assertThat(rules.match("/api/users")).isNull();
+    }
+
+    @Test
+    void includedPrefixUsesDefaultPolicy() {
+        RateLimitRules rules = compile(Map.of(
+                ApplicationConfigKeys.RATE_LIMIT_ENABLED, "true",
+                ApplicationConfigKeys.RATE_LIMIT_INCLUDED_URLS, "/api/, /auth/",
+                ApplicationConfigKeys.RATE_LIMIT_CAPACITY, "100",
+                ApplicationConfigKeys.RATE_LIMIT_REFILL_DURATION_MINUTES, "2"));
+
+        RateLimitRoute route = rules.match("/auth/login");
+
+        assertThat(route.prefix()).isEqualTo("/auth/");
+        assertThat(route.policy()).isEqualTo(new RateLimitPolicy(VERSION, 100, TimeUnit.MINUTES.toNanos(2)));
+        assertThat(rules.match("/public/")).isNull();
+    }
+
+    @Test
+    void routeOverrideWinsForLongerPrefix() {
+        RateLimitRules rules = compile(Map.of(
+                ApplicationConfigKeys.RATE_LIMIT_ENABLED, "true",
+                ApplicationConfigKeys.RATE_LIMIT_INCLUDED_URLS, "/api/",
+                ApplicationConfigKeys.RATE_LIMIT_ROUTE_OVERRIDES, "/api/auth/=10/5, /api/search/=20"));
+
+        assertThat(rules.match("/api/auth/login").policy())
+                .isEqualTo(new RateLimitPolicy(VERSION, 10, TimeUnit.MINUTES.toNanos(5)));
+        assertThat(rules.match("/api/search/q").policy())
+                .isEqualTo(new RateLimitPolicy(VERSION, 20, TimeUnit.MINUTES.toNanos(1)));
+        assertThat(rules.match("/api/users").policy()).isEqualTo(rules.getDefaultPolicy());
+    }
+
+    @Test
+    void excludedSuffixSkipsRateLimiting() {
+        RateLimitRules rules = compile(Map.of(
+                ApplicationConfigKeys.RATE_LIMIT_ENABLED, "true",
+                ApplicationConfigKeys.RATE_LIMIT_INCLUDED_URLS, "/",
+                ApplicationConfigKeys.RATE_LIMIT_EXCLUDED_URLS, ".css,/health"));
+
+        assertThat(rules.match("/static/site.css")).isNull();
+        assertThat(rules.match("/actuator/health")).isNull();
+        assertThat(rules.match("/api/users")).isNotNull();
+    }
+
+    @Test
+    void invalidValuesFallBackToDefaults() {
+        RateLimitRules rules = compile(Map.of(
+                ApplicationConfigKeys.RATE_LIMIT_ENABLED, "true",
+                ApplicationConfigKeys.RATE_LIMIT_INCLUDED_URLS, "/api/",
+                ApplicationConfigKeys.RATE_LIMIT_CAPACITY, "0",
+                ApplicationConfigKeys.RATE_LIMIT_REFILL_DURATION_MINUTES, "soon",
+                ApplicationConfigKeys.RATE_LIMIT_ROUTE_OVERRIDES, "/api/auth/=0/1, /api/search/"));
+
+        assertThat(rules.getDefaultPolicy()).isEqualTo(new RateLimitPolicy(VERSION, 500, TimeUnit.MINUTES.toNanos(1)));
+        assertThat(rules.match("/api/auth/login").prefix()).isEqualTo("/api/");
+        assertThat(rules.match("/api/search/q").prefix()).isEqualTo("/api/");
+    }
+
+    @Test
+    void dimensionPoliciesNeedPositiveCapacity() {
+        RateLimitRules rules = compile(Map.of(
+                ApplicationConfigKeys.RATE_LIMIT_IP_CAPACITY, "50",
+                ApplicationConfigKeys.RATE_LIMIT_USER_CAPACITY, "0",
+                ApplicationConfigKeys.RATE_LIMIT_REFILL_DURATION_MINUTES, "3"));
+
+        assertThat(rules.getIpPolicy()).isEqualTo(new RateLimitPolicy(VERSION, 50, TimeUnit.MINUTES.toNanos(3)));
+        assertThat(rules.getUserPolicy()).isNull();
+    }
+
+    @Test
+    void matchesMostSpecificActiveIpRule() {
+        RateLimitRules rules = compile(Map.of(ApplicationConfigKeys.RATE_LIMIT_IP_RULES,
+                "10.0.0.0/8=BLOCK, 10.1.0.0/16=allow, 10.1.2.0/24=5/2, 10.1.2.3=BLOCK@2000-01-01T00:00:00Z, 2001:db8::/32=BLOCK"));
+
+        assertThat(rules.matchIp(IpAddress.parse("10.9.9.9")).action()).isEqualTo(IpRuleAction.BLOCK);
+        assertThat(rules.matchIp(IpAddress.parse("10.1.9.9")).action()).isEqualTo(IpRuleAction.ALLOW);
+        assertThat(rules.matchIp(IpAddress.parse("2001:db8::1")).cidr()).isEqualTo("2001:db8::/32");
+        assertThat(rules.matchIp(IpAddress.parse("192.0.2.1"))).isNull();
+
+        // The expired single-address rule no longer shadows its /24.
+        IpRule limit = rules.matchIp(IpAddress.parse("10.1.2.3"));
+        assertThat(limit.action()).isEqualTo(IpRuleAction.LIMIT);
+        assertThat(limit.cidr()).isEqualTo("10.1.2.0/24");
+        assertThat(limit.policy()).isEqualTo(new RateLimitPolicy(VERSION, 5, TimeUnit.MINUTES.toNanos(2)));
+    }
+
+    @Test
+    void skipsInvalidIpRules() {
+        RateLimitRules rules = compile(Map.of(ApplicationConfigKeys.RATE_LIMIT_IP_RULES,
+                "10.0.0.0/33=BLOCK, not-an-ip=BLOCK, 10.0.0.0/8=0/1, 192.0.2.0/24=BLOCK"));
+
+        assertThat(rules.matchIp(IpAddress.parse("10.0.0.1"))).isNull();
+        assertThat(rules.matchIp(IpAddress.parse("192.0.2.1")).action()).isEqualTo(IpRuleAction.BLOCK);
+    }
+
+    @Test
+    void ipBucketKeyAggregatesToConfiguredPrefix() {
+        RateLimitRules rules = compile(Map.of(
+                ApplicationConfigKeys.RATE_LIMIT_IPV4_PREFIX_LENGTH, "24",
+                ApplicationConfigKeys.RATE_LIMIT_IPV6_PREFIX_LENGTH, "48"));
+
+        assertThat(rules.getIpBucketKey(IpAddress.parse("192.0.2.77"))).isEqualTo("ip:192.0.2.0/24");
+        assertThat(rules.getIpBucketKey(IpAddress.parse("2001:db8:1:2::1"))).isEqualTo("ip:2001:db8:1::/48");
+    }
+
+    @Test
+    void ipBucketKeyDefaultsToFullIpv4AndIpv6Slash64() {
+        RateLimitRules rules = compile(Map.of());
+
+        assertThat(rules.getIpBucketKey(IpAddress.parse("192.0.2.77"))).isEqualTo("ip:192.0.2.77/32");
+        assertThat(rules.getIpBucketKey(IpAddress.parse("2001:db8:1:2:3::1"))).isEqualTo("ip:2001:db8:1:2::/64");
+    }
+
+    @Test
+    void validateRejectsInvalidValues() {
+        assertThatThrownBy(() -> RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_ENABLED, "yes"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_CAPACITY, "0"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_IP_CAPACITY, "-1"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_IPV4_PREFIX_LENGTH, "33"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_OVERFLOW_POLICY, "ignore"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_ROUTE_OVERRIDES, "/api/=10/0"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_IP_RULES, "10.0.0.0/8=BLOCK@tomorrow"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void validateAcceptsValidValues() {
+        assertThatCode(() -> {
+            RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_ENABLED, "TRUE");
+            RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_CAPACITY, "10");
+            RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_USER_CAPACITY, "0");
+            RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_IPV6_PREFIX_LENGTH, "128");
+            RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_OVERFLOW_POLICY, "shared");
+            RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_ROUTE_OVERRIDES, "/api/=10/5, /auth/=3");
+            RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_IP_RULES, "10.0.0.0/8=BLOCK@2030-01-01T00:00:00Z, ::1=ALLOW");
+            RateLimitRules.validate(ApplicationConfigKeys.RATE_LIMIT_INCLUDED_URLS, "anything");
+            RateLimitRules.validate("other.key", "anything");
+        }).doesNotThrowAnyException();
+    }
+
+    private static RateLimitRules compile(Map<String, String> values) {
+        return RateLimitRules.compile(new HashMap<>(values)::get, VERSION);
+    }
+}
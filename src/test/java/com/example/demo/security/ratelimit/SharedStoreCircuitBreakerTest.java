@@ -0,0 +1,74 @@
+package com.example.demo.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedStoreCircuitBreakerTest {
+
+    @Test
+    void allowsRequestsWhileClosed() {
+        SharedStoreCircuitBreaker breaker = new SharedStoreCircuitBreaker(TimeUnit.HOURS.toNanos(1));
+
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.recordSuccess()).isFalse();
+        assertThat(breaker.isOpen()).isFalse();
+    }
+
+    @Test
+    void keepsRequestsLocalDuringCooldown() {
+        SharedStoreCircuitBreaker breaker = new SharedStoreCircuitBreaker(TimeUnit.HOURS.toNanos(1));
+
+        assertThat(breaker.recordFailure()).isTrue();
+
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void reportsOnlyTheFirstFailureOfAnOutage() {
+        SharedStoreCircuitBreaker breaker = new SharedStoreCircuitBreaker(0);
+
+        assertThat(breaker.recordFailure()).isTrue();
+        assertThat(breaker.recordFailure()).isFalse();
+    }
+
+    @Test
+    void letsOneRequestProbeAfterCooldown() {
+        SharedStoreCircuitBreaker breaker = new SharedStoreCircuitBreaker(0);
+        breaker.recordFailure();
+
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void successfulProbeClosesBreaker() {
+        SharedStoreCircuitBreaker breaker = new SharedStoreCircuitBreaker(0);
+        breaker.recordFailure();
+        breaker.allowRequest();
+
+        assertThat(breaker.recordSuccess()).isTrue();
+
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void failedProbeStartsNewCooldown() {
+        SharedStoreCircuitBreaker breaker = new SharedStoreCircuitBreaker(TimeUnit.MILLISECONDS.toNanos(50));
+        breaker.recordFailure();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!breaker.allowRequest()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+
+        assertThat(breaker.recordFailure()).isFalse();
+
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+}
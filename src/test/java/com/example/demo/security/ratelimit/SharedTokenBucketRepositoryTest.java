@@ -0,0 +1,138 @@
+package com.example.demo.security.ratelimit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SharedTokenBucketRepositoryTest {
+
+    private static final long INTERVAL_MICROS = 1_000;
+    private static final long PERIOD_MICROS = 5 * INTERVAL_MICROS;
+    private static final long NOW_MICROS = 1_000_000_000L;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SharedTokenBucketRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("sql/rate_limit_buckets.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        repository = new SharedTokenBucketRepository(jdbcTemplate, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void firstLeaseCreatesBucket() {
+        assertThat(repository.tryLease("k", 2, INTERVAL_MICROS, PERIOD_MICROS, NOW_MICROS).granted()).isTrue();
+
+        assertThat(fullAtMicros("k")).isEqualTo(NOW_MICROS + 2 * INTERVAL_MICROS);
+    }
+
+    @Test
+    void deniesLeaseOnceBucketIsExhausted() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(repository.tryLease("k", 1, INTERVAL_MICROS, PERIOD_MICROS, NOW_MICROS).granted()).isTrue();
+        }
+
+        SharedTokenBucketRepository.SharedLease denied = repository.tryLease("k", 1, INTERVAL_MICROS, PERIOD_MICROS, NOW_MICROS);
+        assertThat(denied.granted()).isFalse();
+        assertThat(denied.fullAtMicros()).isEqualTo(NOW_MICROS + PERIOD_MICROS);
+        assertThat(fullAtMicros("k")).isEqualTo(NOW_MICROS + PERIOD_MICROS);
+    }
+
+    @Test
+    void deniesLeaseLargerThanCapacity() {
+        assertThat(repository.tryLease("k", 6, INTERVAL_MICROS, PERIOD_MICROS, NOW_MICROS).granted()).isFalse();
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        assertThat(repository.tryLease("k", 5, INTERVAL_MICROS, PERIOD_MICROS, NOW_MICROS).granted()).isTrue();
+
+        long later = NOW_MICROS + INTERVAL_MICROS;
+        assertThat(repository.tryLease("k", 1, INTERVAL_MICROS, PERIOD_MICROS, later).granted()).isTrue();
+        assertThat(repository.tryLease("k", 1, INTERVAL_MICROS, PERIOD_MICROS, later).granted()).isFalse();
+    }
+
+    @Test
+    void idleBucketRefillsCompletelyButNoFurther() {
+        assertThat(repository.tryLease("k", 5, INTERVAL_MICROS, PERIOD_MICROS, NOW_MICROS).granted()).isTrue();
+
+        long muchLater = NOW_MICROS + 10 * PERIOD_MICROS;
+        assertThat(repository.tryLease("k", 5, INTERVAL_MICROS, PERIOD_MICROS, muchLater).granted()).isTrue();
+        assertThat(repository.tryLease("k", 1, INTERVAL_MICROS, PERIOD_MICROS, muchLater).granted()).isFalse();
+    }
+
+    @Test
+    void leasesFromBucketCreatedConcurrentlyByAnotherNode() {
+        // The other node inserts the bucket between this node's UPDATE, which finds no row, and its INSERT.
+        SharedTokenBucketRepository racing = new SharedTokenBucketRepository(new RacingJdbcTemplate(database, "k", NOW_MICROS + 3 * INTERVAL_MICROS), 1);
+
+        assertThat(racing.tryLease("k", 2, INTERVAL_MICROS, PERIOD_MICROS, NOW_MICROS).granted()).isTrue();
+        assertThat(fullAtMicros("k")).isEqualTo(NOW_MICROS + 5 * INTERVAL_MICROS);
+    }
+
+    @Test
+    void deniesLeaseWhenConcurrentlyCreatedBucketIsExhausted() {
+        SharedTokenBucketRepository racing = new SharedTokenBucketRepository(new RacingJdbcTemplate(database, "k", NOW_MICROS + 4 * INTERVAL_MICROS), 1);
+
+        assertThat(racing.tryLease("k", 2, INTERVAL_MICROS, PERIOD_MICROS, NOW_MICROS).granted()).isFalse();
+        assertThat(fullAtMicros("k")).isEqualTo(NOW_MICROS + 4 * INTERVAL_MICROS);
+    }
+
+    @Test
+    void deletesOnlyRefilledBuckets() {
+        repository.tryLease("idle", 1, INTERVAL_MICROS, PERIOD_MICROS, NOW_MICROS);
+        repository.tryLease("busy", 5, INTERVAL_MICROS, PERIOD_MICROS, NOW_MICROS);
+
+        assertThat(repository.deleteIdleBuckets(NOW_MICROS + INTERVAL_MICROS)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT bucket_key FROM rate_limit_buckets", String.class)).containsExactly("busy");
+    }
+
+    private long fullAtMicros(String key) {
+        return jdbcTemplate.queryForObject("SELECT full_at_micros FROM rate_limit_buckets WHERE bucket_key = ?", Long.class, key);
+    }
+
+    /**
+     * Creates a bucket on behalf of another node right after the first lease UPDATE of this node missed it.
+     */
+    private static final class RacingJdbcTemplate extends JdbcTemplate {
+        private final String key;
+        private final long fullAtMicros;
+        private boolean raced;
+
+        private RacingJdbcTemplate(DataSource dataSource, String key, long fullAtMicros) {
+            super(dataSource);
+            this.key = key;
+            this.fullAtMicros = fullAtMicros;
+        }
+
+        @Override
+        public int update(String sql, PreparedStatementSetter setter) {
+            int updated = super.update(sql, setter);
+            if (!raced && sql.startsWith("UPDATE")) {
+                raced = true;
+                super.update("INSERT INTO rate_limit_buckets (bucket_key, full_at_micros) VALUES (?, ?)", key, fullAtMicros);
+            }
+            return updated;
+        }
+    }
+}
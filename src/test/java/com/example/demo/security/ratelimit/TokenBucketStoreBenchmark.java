@@ -0,0 +1,139 @@
+package com.example.demo.security.ratelimit;
+
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link TokenBucketStore} with the Resilience4j {@link RateLimiterRegistry} it replaced, with one million
+ * live keys. Each benchmark reports the throughput of a permit check on a random existing key; the setup prints the
+ * heap retained per key after the keys are created.
+ * <p>
+ * Run with {@code mvn test-compile} followed by the {@link #main} method, or through {@code org.openjdk.jmh.Main}
+ * on the test classpath. Surefire does not pick it up.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(4)
+public class TokenBucketStoreBenchmark {
+
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy(1, 500, TimeUnit.MINUTES.toNanos(1));
+
+    @State(Scope.Benchmark)
+    public static class Keys {
+        @Param("1000000")
+        public int keyCount;
+
+        public String[] keys;
+
+        @Setup(Level.Trial)
+        public void createKeys() {
+            keys = new String[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                // The identifier shape the rate limiting filter used with the registry: user:ip:uri.
+                keys[i] = "user" + i + ":10." + (i >>> 16 & 0xFF) + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF) + ":/api/users";
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        public TokenBucketStore store;
+
+        @Setup(Level.Trial)
+        public void fill(Keys keys) {
+            long before = usedHeapAfterGc();
+            store = new TokenBucketStore();
+            for (String key : keys.keys) {
+                store.tryConsume(key, 1, POLICY, 2 * keys.keyCount, OverflowPolicy.SHARED);
+            }
+            reportRetainedHeap("TokenBucketStore", before, keys.keyCount);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Registry {
+        public RateLimiterRegistry registry;
+        public RateLimiterConfig config;
+
+        @Setup(Level.Trial)
+        public void fill(Keys keys) {
+            long before = usedHeapAfterGc();
+            registry = RateLimiterRegistry.ofDefaults();
+            config = RateLimiterConfig.custom()
+                    .limitForPeriod(POLICY.capacity())
+                    .limitRefreshPeriod(Duration.ofNanos(POLICY.periodNanos()))
+                    .timeoutDuration(Duration.ZERO)
+                    .build();
+            for (String key : keys.keys) {
+                registry.rateLimiter(key, config).acquirePermission(1);
+            }
+            reportRetainedHeap("RateLimiterRegistry", before, keys.keyCount);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final SplittableRandom random = new SplittableRandom();
+
+        public String next(Keys keys) {
+            return keys.keys[random.nextInt(keys.keyCount)];
+        }
+    }
+
+    @Benchmark
+    public boolean tokenBucketStore(Keys keys, Store store, Cursor cursor) {
+        return store.store.tryConsume(cursor.next(keys), 1, POLICY, 2 * keys.keyCount, OverflowPolicy.SHARED);
+    }
+
+    @Benchmark
+    public boolean rateLimiterRegistry(Keys keys, Registry registry, Cursor cursor) {
+        // As before the replacement, the config is passed on every lookup.
+        RateLimiter rateLimiter = registry.registry.rateLimiter(cursor.next(keys), registry.config);
+        return rateLimiter.acquirePermission(1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenBucketStoreBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void reportRetainedHeap(String name, long before, int keyCount) {
+        long retained = usedHeapAfterGc() - before;
+        System.out.printf("%n%s retains %d MiB for %d keys, %d bytes per key%n",
+                name, retained >> 20, keyCount, retained / keyCount);
+    }
+}
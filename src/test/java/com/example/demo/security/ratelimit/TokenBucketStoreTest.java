@@ -0,0 +1,77 @@
+package com.example.demo.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketStoreTest {
+
+    // Two tokens, refilled over an hour, so no token refills while a test runs.
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy(1, 2, TimeUnit.HOURS.toNanos(1));
+    private static final int MAX_BUCKETS = 100;
+
+    private final TokenBucketStore store = new TokenBucketStore();
+
+    @Test
+    void keepsSeparateBucketPerKey() {
+        assertThat(store.tryConsume("a", 2, POLICY, MAX_BUCKETS, OverflowPolicy.REJECT)).isTrue();
+        assertThat(store.tryConsume("a", 1, POLICY, MAX_BUCKETS, OverflowPolicy.REJECT)).isFalse();
+        assertThat(store.tryConsume("b", 1, POLICY, MAX_BUCKETS, OverflowPolicy.REJECT)).isTrue();
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void refundReturnsTokenToKey() {
+        store.tryConsume("a", 2, POLICY, MAX_BUCKETS, OverflowPolicy.REJECT);
+
+        store.refund("a", 1, POLICY);
+
+        assertThat(store.tryConsume("a", 1, POLICY, MAX_BUCKETS, OverflowPolicy.REJECT)).isTrue();
+    }
+
+    @Test
+    void rejectsNewKeysWhenFull() {
+        store.tryConsume("a", 1, POLICY, 1, OverflowPolicy.REJECT);
+
+        assertThat(store.tryConsume("b", 1, POLICY, 1, OverflowPolicy.REJECT)).isFalse();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void allowsNewKeysWhenFull() {
+        store.tryConsume("a", 1, POLICY, 1, OverflowPolicy.ALLOW);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(store.tryConsume("b", 1, POLICY, 1, OverflowPolicy.ALLOW)).isTrue();
+        }
+    }
+
+    @Test
+    void newKeysShareOverflowBucketWhenFull() {
+        store.tryConsume("a", 1, POLICY, 1, OverflowPolicy.SHARED);
+
+        assertThat(store.tryConsume("b", 1, POLICY, 1, OverflowPolicy.SHARED)).isTrue();
+        assertThat(store.tryConsume("c", 1, POLICY, 1, OverflowPolicy.SHARED)).isTrue();
+        assertThat(store.tryConsume("d", 1, POLICY, 1, OverflowPolicy.SHARED)).isFalse();
+    }
+
+    @Test
+    void fullBucketsAreSweptToMakeRoom() {
+        store.getOrCreate("idle", POLICY, System.nanoTime(), 1);
+
+        assertThat(store.tryConsume("new", 1, POLICY, 1, OverflowPolicy.REJECT)).isTrue();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeIdleBucketsKeepsBucketsStillRefilling() {
+        store.getOrCreate("idle", POLICY, System.nanoTime(), MAX_BUCKETS);
+        store.tryConsume("busy", 1, POLICY, MAX_BUCKETS, OverflowPolicy.REJECT);
+
+        assertThat(store.removeIdleBuckets()).isEqualTo(1);
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.tryConsume("busy", 2, POLICY, MAX_BUCKETS, OverflowPolicy.REJECT)).isFalse();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    // Five tokens, one refilled per second.
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy(1, 5, 5 * SECOND);
+    private static final long NOW = 1_000 * SECOND;
+
+    @Test
+    void allowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(POLICY, NOW);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryConsume(1, POLICY, NOW)).isTrue();
+        }
+        assertThat(bucket.tryConsume(1, POLICY, NOW)).isFalse();
+    }
+
+    @Test
+    void deniesRequestForMoreTokensThanLeft() {
+        TokenBucket bucket = new TokenBucket(POLICY, NOW);
+
+        assertThat(bucket.tryConsume(4, POLICY, NOW)).isTrue();
+        assertThat(bucket.tryConsume(2, POLICY, NOW)).isFalse();
+        assertThat(bucket.tryConsume(1, POLICY, NOW)).isTrue();
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(POLICY, NOW);
+        bucket.tryConsume(5, POLICY, NOW);
+
+        assertThat(bucket.tryConsume(1, POLICY, NOW + SECOND / 2)).isFalse();
+        assertThat(bucket.tryConsume(1, POLICY, NOW + SECOND)).isTrue();
+        assertThat(bucket.tryConsume(1, POLICY, NOW + SECOND)).isFalse();
+    }
+
+    @Test
+    void neverRefillsBeyondCapacity() {
+        TokenBucket bucket = new TokenBucket(POLICY, NOW);
+        long later = NOW + 100 * SECOND;
+
+        assertThat(bucket.tryConsume(5, POLICY, later)).isTrue();
+        assertThat(bucket.tryConsume(1, POLICY, later)).isFalse();
+    }
+
+    @Test
+    void refundReturnsTokens() {
+        TokenBucket bucket = new TokenBucket(POLICY, NOW);
+        bucket.tryConsume(5, POLICY, NOW);
+
+        bucket.refund(2, POLICY);
+
+        assertThat(bucket.tryConsume(2, POLICY, NOW)).isTrue();
+        assertThat(bucket.tryConsume(1, POLICY, NOW)).isFalse();
+    }
+
+    @Test
+    void isFullOnceAllTokensHaveRefilled() {
+        TokenBucket bucket = new TokenBucket(POLICY, NOW);
+        assertThat(bucket.isFull(NOW)).isTrue();
+
+        bucket.tryConsume(2, POLICY, NOW);
+
+        assertThat(bucket.isFull(NOW + SECOND)).isFalse();
+        assertThat(bucket.isFull(NOW + 2 * SECOND)).isTrue();
+    }
+
+    @Test
+    void newPolicyVersionKeepsNumberOfConsumedTokens() {
+        TokenBucket bucket = new TokenBucket(POLICY, NOW);
+        bucket.tryConsume(4, POLICY, NOW);
+
+        // Twice the capacity over the same period: the four consumed tokens now take half as long to refill.
+        RateLimitPolicy doubled = new RateLimitPolicy(2, 10, 5 * SECOND);
+
+        for (int i = 0; i < 6; i++) {
+            assertThat(bucket.tryConsume(1, doubled, NOW)).isTrue();
+        }
+        assertThat(bucket.tryConsume(1, doubled, NOW)).isFalse();
+    }
+
+    @Test
+    void newPolicyVersionLeavesFullBucketFull() {
+        TokenBucket bucket = new TokenBucket(POLICY, NOW);
+        RateLimitPolicy smaller = new RateLimitPolicy(2, 2, 5 * SECOND);
+
+        assertThat(bucket.tryConsume(2, smaller, NOW)).isTrue();
+        assertThat(bucket.tryConsume(1, smaller, NOW)).isFalse();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.demo.security.ratelimit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenLeaseStoreTest {
+
+    // One token refills per 36 seconds, so no token refills while a test runs.
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy(1, 100, TimeUnit.HOURS.toNanos(1));
+    private static final int LEASE_SIZE = 10;
+    private static final int MAX_BUCKETS = 1_000;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("sql/rate_limit_buckets.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void servesLeasedBlockLocally() {
+        TokenLeaseStore store = newStore();
+
+        for (int i = 0; i < LEASE_SIZE; i++) {
+            assertThat(store.tryConsume("k", POLICY, LEASE_SIZE, MAX_BUCKETS)).isTrue();
+        }
+
+        // The first block of ten tokens is debited from the shared bucket once.
+        assertThat(fullAtMicros("k") - nowMicros()).isBetween(
+                9 * intervalMicros(), 10 * intervalMicros());
+    }
+
+    @Test
+    void deniesOnceSharedBudgetIsExhausted() {
+        TokenLeaseStore store = newStore();
+
+        int allowed = 0;
+        for (int i = 0; i < 150; i++) {
+            if (store.tryConsume("k", POLICY, LEASE_SIZE, MAX_BUCKETS)) {
+                allowed++;
+            }
+        }
+
+        assertThat(allowed).isEqualTo(POLICY.capacity());
+    }
+
+    @Test
+    void deniedKeyStaysOffSharedStoreUntilTokenRefills() {
+        CountingRepository repository = new CountingRepository(jdbcTemplate);
+        TokenLeaseStore store = new TokenLeaseStore(repository);
+        for (int i = 0; i < POLICY.capacity(); i++) {
+            store.tryConsume("k", POLICY, LEASE_SIZE, MAX_BUCKETS);
+        }
+        assertThat(store.tryConsume("k", POLICY, LEASE_SIZE, MAX_BUCKETS)).isFalse();
+        int leases = repository.leases;
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(store.tryConsume("k", POLICY, LEASE_SIZE, MAX_BUCKETS)).isFalse();
+        }
+
+        assertThat(repository.leases).isEqualTo(leases);
+    }
+
+    @Test
+    void storesSharingOneDatabaseNeverOverGrant() throws Exception {
+        List<TokenLeaseStore> nodes = List.of(newStore(), newStore());
+        int threadsPerNode = 4;
+        int attemptsPerThread = 100;
+
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size() * threadsPerNode);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (TokenLeaseStore node : nodes) {
+                for (int t = 0; t < threadsPerNode; t++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        int allowed = 0;
+                        for (int i = 0; i < attemptsPerThread; i++) {
+                            if (node.tryConsume("k", POLICY, LEASE_SIZE, MAX_BUCKETS)) {
+                                allowed++;
+                            }
+                        }
+                        return allowed;
+                    }));
+                }
+            }
+            start.countDown();
+
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(allowed).isLessThanOrEqualTo(POLICY.capacity());
+            assertThat(allowed).isGreaterThan(0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void overflowingKeysAreServedStraightFromSharedBucket() {
+        TokenLeaseStore store = newStore();
+
+        assertThat(store.tryConsume("a", POLICY, LEASE_SIZE, 1)).isTrue();
+        assertThat(store.tryConsume("b", POLICY, LEASE_SIZE, 1)).isTrue();
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(fullAtMicros("b") - nowMicros()).isLessThanOrEqualTo(intervalMicros());
+    }
+
+    @Test
+    void removeIdleBucketsDeletesRefilledSharedBuckets() {
+        TokenLeaseStore store = newStore();
+        jdbcTemplate.update("INSERT INTO rate_limit_buckets (bucket_key, full_at_micros) VALUES (?, ?)", "idle", 0L);
+        store.tryConsume("busy", POLICY, LEASE_SIZE, MAX_BUCKETS);
+
+        store.removeIdleBuckets();
+
+        assertThat(jdbcTemplate.queryForList("SELECT bucket_key FROM rate_limit_buckets", String.class)).containsExactly("busy");
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    private TokenLeaseStore newStore() {
+        return new TokenLeaseStore(new SharedTokenBucketRepository(jdbcTemplate, 1));
+    }
+
+    private long fullAtMicros(String key) {
+        return jdbcTemplate.queryForObject("SELECT full_at_micros FROM rate_limit_buckets WHERE bucket_key = ?", Long.class, key);
+    }
+
+    private static long intervalMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(POLICY.intervalNanos());
+    }
+
+    private static long nowMicros() {
+        return TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    }
+
+    /**
+     * Counts the leases asked of the shared store.
+     */
+    private static final class CountingRepository extends SharedTokenBucketRepository {
+        private int leases;
+
+        private CountingRepository(JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate, 1);
+        }
+
+        @Override
+        public SharedLease tryLease(String key, int tokens, long intervalMicros, long periodMicros, long nowMicros) {
+            leases++;
+            return super.tryLease(key, tokens, intervalMicros, periodMicros, nowMicros);
+        }
+    }
+}
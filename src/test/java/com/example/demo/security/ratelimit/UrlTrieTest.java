@@ -0,0 +1,54 @@
+package com.example.demo.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UrlTrieTest {
+
+    @Test
+    void prefixTrieReturnsLongestMatchingPrefix() {
+        UrlTrie<String> trie = UrlTrie.ofPrefixes(Map.of("/api/", "api", "/api/auth/", "auth"));
+
+        assertThat(trie.longestMatch("/api/auth/login")).isEqualTo("auth");
+        assertThat(trie.longestMatch("/api/users/1")).isEqualTo("api");
+        assertThat(trie.longestMatch("/api/")).isEqualTo("api");
+    }
+
+    @Test
+    void prefixTrieMatchesNothingOutsideItsPrefixes() {
+        UrlTrie<String> trie = UrlTrie.ofPrefixes(Map.of("/api/", "api"));
+
+        assertThat(trie.longestMatch("/ap")).isNull();
+        assertThat(trie.longestMatch("/public/api/")).isNull();
+        assertThat(trie.longestMatch("")).isNull();
+        assertThat(trie.matches("/other")).isFalse();
+    }
+
+    @Test
+    void suffixTrieMatchesEndOfUrl() {
+        UrlTrie<Boolean> trie = UrlTrie.ofSuffixes(Map.of(".css", true, "/health", true));
+
+        assertThat(trie.matches("/static/site.css")).isTrue();
+        assertThat(trie.matches("/actuator/health")).isTrue();
+        assertThat(trie.matches("/static/site.css.map")).isFalse();
+        assertThat(trie.matches("/health/details")).isFalse();
+    }
+
+    @Test
+    void emptyPatternMatchesEveryUrl() {
+        UrlTrie<String> trie = UrlTrie.ofPrefixes(Map.of("", "all", "/api/", "api"));
+
+        assertThat(trie.longestMatch("/other")).isEqualTo("all");
+        assertThat(trie.longestMatch("/api/x")).isEqualTo("api");
+    }
+
+    @Test
+    void emptyTrieMatchesNothing() {
+        UrlTrie<String> trie = UrlTrie.ofPrefixes(Map.of());
+
+        assertThat(trie.longestMatch("/api/")).isNull();
+    }
+}
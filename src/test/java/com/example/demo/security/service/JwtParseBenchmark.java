@@ -0,0 +1,102 @@
+package com.example.demo.security.service;
+
+import com.example.demo.config.service.ApplicationConfigService;
+import com.example.demo.config.snapshot.ConfigSnapshot;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of verifying and parsing a JWT:
+ * <ul>
+ *     <li>{@code rebuiltKeyAndParser}: the path before the key and parser were cached, which decodes the secret,
+ *     derives the key and builds a parser for every token.</li>
+ *     <li>{@code cachedParser}: the single pre-built parser {@link JwtService} now keeps.</li>
+ *     <li>{@code jwtService}: {@link JwtService#parseClaims}, which also serves a token verified recently from
+ *     its verified-token cache.</li>
+ * </ul>
+ * Run with {@code mvn test-compile} followed by the {@link #main} method, or through {@code org.openjdk.jmh.Main}
+ * on the test classpath. Surefire does not pick it up.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtParseBenchmark {
+
+    private String secret;
+    private String token;
+    private JwtParser parser;
+    private JwtService jwtService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SecretKey key = Jwts.SIG.HS256.key().build();
+        secret = Encoders.BASE64.encode(key.getEncoded());
+        token = Jwts.builder()
+                .subject("benchmark-user")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+        parser = Jwts.parser().verifyWith(key).build();
+
+        ConfigSnapshot snapshot = Mockito.mock(ConfigSnapshot.class);
+        ApplicationConfigService applicationConfigService = Mockito.mock(ApplicationConfigService.class);
+        Mockito.when(applicationConfigService.getSnapshot()).thenReturn(snapshot);
+        jwtService = new JwtService(applicationConfigService, Mockito.mock(AuthoritySnapshotService.class));
+        ReflectionTestUtils.setField(jwtService, "secretKey", secret);
+    }
+
+    @Benchmark
+    public Claims rebuiltKeyAndParser() {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims cachedParser() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims jwtService() {
+        return jwtService.parseClaims(token).orElseThrow();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtParseBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,7 @@
+-- The `rate_limit_buckets` table of ddl.sql, for the embedded test database.
+CREATE TABLE rate_limit_buckets (
+    bucket_key VARCHAR(255) PRIMARY KEY,
+    full_at_micros BIGINT NOT NULL
+);
+
+CREATE INDEX idx_rate_limit_buckets_full_at_micros ON rate_limit_buckets (full_at_micros);